@@ -4,8 +4,13 @@ import { StarIcon as StarIconOutline } from '@heroicons/react/24/outline';
 import * as graphqlAPI from '../services/graphqlApi';
 import ErrorAlert from './ErrorAlert';
 
+const PAGE_SIZE = 10;
+
 const ProductReviews = ({ productId }) => {
   const [reviews, setReviews] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [ratingFilter, setRatingFilter] = useState(null);
   const [stats, setStats] = useState({ averageRating: 0, totalReviews: 0 });
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
@@ -16,16 +21,24 @@ const ProductReviews = ({ productId }) => {
   const currentUser = JSON.parse(localStorage.getItem('user') || '{}');
 
   useEffect(() => {
-    fetchReviews();
     fetchStats();
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [productId]);
 
+  useEffect(() => {
+    fetchReviews();
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [productId, ratingFilter]);
+
+  const fetchPage = (after) =>
+    graphqlAPI.getProductReviewsPage(productId, after, PAGE_SIZE, ratingFilter, ratingFilter);
+
   const fetchReviews = async () => {
     try {
       setLoading(true);
-      const data = await graphqlAPI.getReviewsByProductId(productId);
-      setReviews(data.reviewsByProductId || []);
+      const data = await fetchPage(null);
+      setReviews(data.productReviews.content);
+      setNextCursor(data.productReviews.nextCursor);
     } catch (err) {
       setError(err);
     } finally {
@@ -33,6 +46,19 @@ const ProductReviews = ({ productId }) => {
     }
   };
 
+  const loadMoreReviews = async () => {
+    try {
+      setLoadingMore(true);
+      const data = await fetchPage(nextCursor);
+      setReviews((loaded) => [...loaded, ...data.productReviews.content]);
+      setNextCursor(data.productReviews.nextCursor);
+    } catch (err) {
+      setError(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const fetchStats = async () => {
     try {
       const data = await graphqlAPI.getProductReviewStats(productId);
@@ -173,13 +199,31 @@ const ProductReviews = ({ productId }) => {
         </div>
       )}
 
+      {/* Rating Filter */}
+      <div className="flex items-center gap-2 mb-4">
+        <label htmlFor="review-rating-filter" className="text-sm font-medium text-gray-700">Show</label>
+        <select
+          id="review-rating-filter"
+          value={ratingFilter ?? ''}
+          onChange={(e) => setRatingFilter(e.target.value ? parseInt(e.target.value) : null)}
+          className="border rounded-lg px-3 py-1 text-sm focus:ring-2 focus:ring-blue-500 focus:outline-none"
+        >
+          <option value="">All ratings</option>
+          {[5, 4, 3, 2, 1].map((star) => (
+            <option key={star} value={star}>{star} {star === 1 ? 'star' : 'stars'}</option>
+          ))}
+        </select>
+      </div>
+
       {/* Reviews List */}
       <div className="space-y-4">
         {loading ? (
           <div className="text-center py-8 text-gray-500">Loading reviews...</div>
         ) : reviews.length === 0 ? (
           <div className="text-center py-8 text-gray-500">
-            No reviews yet. Be the first to review this product!
+            {ratingFilter
+              ? 'No reviews with this rating.'
+              : 'No reviews yet. Be the first to review this product!'}
           </div>
         ) : (
           reviews.map((review) => (
@@ -202,6 +246,18 @@ const ProductReviews = ({ productId }) => {
           ))
         )}
       </div>
+
+      {!loading && nextCursor && (
+        <div className="text-center mt-6">
+          <button
+            onClick={loadMoreReviews}
+            disabled={loadingMore}
+            className="bg-gray-200 text-gray-700 px-6 py-2 rounded-lg hover:bg-gray-300 disabled:opacity-50"
+          >
+            {loadingMore ? 'Loading...' : 'Load more reviews'}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
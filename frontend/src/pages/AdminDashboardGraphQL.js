@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import * as graphqlAPI from '../services/graphqlApi';
 import { performanceAPI } from '../services/api';
 import { PlusIcon, PencilIcon, TrashIcon, ChevronLeftIcon, ChevronRightIcon, ArrowPathIcon, AdjustmentsHorizontalIcon } from '@heroicons/react/24/outline';
@@ -37,6 +37,20 @@ const executeGraphQL = async (query, variables = {}) => {
   return result.data;
 };
 
+// The all* list queries return a capped slice in id order; keep asking after the last id
+// received until an empty slice comes back
+const fetchAllPages = async (fetchPage, field) => {
+  const rows = [];
+  let afterId = null;
+  for (;;) {
+    const data = await fetchPage(afterId, 500);
+    const page = data[field] || [];
+    if (page.length === 0) return rows;
+    rows.push(...page);
+    afterId = page[page.length - 1].id;
+  }
+};
+
 // Available fields for each entity type
 const AVAILABLE_FIELDS = {
   products: [
@@ -158,6 +172,9 @@ const AdminDashboardGraphQL = () => {
     reviews: { page: 0, size: 10, totalPages: 0, totalItems: 0, hasNext: false, hasPrevious: false },
   });
   
+  // Keyset cursors of the reviews tab: the afterId each page reached so far starts from
+  const reviewCursors = useRef([null]);
+
   // Edit states
   const [editingOrder, setEditingOrder] = useState(null);
   const [newStatus, setNewStatus] = useState('');
@@ -298,15 +315,12 @@ const AdminDashboardGraphQL = () => {
   useEffect(() => {
     const fetchInitialData = async () => {
       try {
-        const query = `
-          query {
-            allCategories { id name description }
-            allProducts { id name categoryName sku price quantity }
-          }
-        `;
-        const data = await executeGraphQL(query);
-        setCategories(data.allCategories || []);
-        setProducts(data.allProducts || []);
+        const [allCategories, allProducts] = await Promise.all([
+          fetchAllPages(graphqlAPI.getAllCategories, 'allCategories'),
+          fetchAllPages(graphqlAPI.getAllProducts, 'allProducts'),
+        ]);
+        setCategories(allCategories);
+        setProducts(allProducts);
       } catch (error) {
         console.error('Error fetching initial data:', error);
       }
@@ -404,14 +418,21 @@ const AdminDashboardGraphQL = () => {
         updatePagination('users', data.usersPaginated?.pageInfo || {});
         
       } else if (tab === 'reviews') {
-        const data = await graphqlAPI.getAllReviews();
-        setReviews(data.allReviews || []);
-        // Since we don't have paginated reviews endpoint yet, simulate pagination
+        // allReviews pages by id: each page starts after the last id of the one before it,
+        // and one extra row tells whether another page follows
+        if (page === 0) reviewCursors.current = [null];
+        const data = await graphqlAPI.getAllReviews(reviewCursors.current[page] ?? null, size + 1);
+        const rows = data.allReviews || [];
+        const hasNext = rows.length > size;
+        const content = rows.slice(0, size);
+        if (hasNext) reviewCursors.current[page + 1] = content[content.length - 1].id;
+        setReviews(content);
+        // There is no total count, so only the pages reached so far are known
         updatePagination('reviews', {
-          totalPages: 1,
-          totalItems: data.allReviews?.length || 0,
-          hasNext: false,
-          hasPrevious: false
+          totalPages: page + (hasNext ? 2 : 1),
+          totalItems: page * size + content.length,
+          hasNext,
+          hasPrevious: page > 0
         });
         
       } else if (tab === 'performance') {
@@ -55,13 +55,54 @@ graphqlClient.interceptors.response.use(
   }
 );
 
+// Automatic persisted queries: once the server has seen a query, later calls send only its
+// SHA-256 hash. If the server no longer knows the hash, the full text is sent again.
+const queryHashes = new Map();
+const registeredHashes = new Set();
+
+const hashQuery = async (query) => {
+  if (!window.crypto?.subtle) {
+    return null;
+  }
+  if (!queryHashes.has(query)) {
+    const digest = await window.crypto.subtle.digest('SHA-256', new TextEncoder().encode(query));
+    const hash = Array.from(new Uint8Array(digest))
+      .map((byte) => byte.toString(16).padStart(2, '0'))
+      .join('');
+    queryHashes.set(query, hash);
+  }
+  return queryHashes.get(query);
+};
+
+const isPersistedQueryMiss = (error) =>
+  error.response?.status === 400 ||
+  error.graphQLErrors?.some((e) => e.message === 'PersistedQueryNotFound');
+
 const executeQuery = async (query, variables = {}) => {
   try {
+    const hash = await hashQuery(query);
+    const extensions = hash ? { persistedQuery: { version: 1, sha256Hash: hash } } : undefined;
+
+    if (hash && registeredHashes.has(hash)) {
+      try {
+        const response = await graphqlClient.post('', { variables, extensions });
+        return response.data.data;
+      } catch (error) {
+        if (!isPersistedQueryMiss(error)) {
+          throw error;
+        }
+        registeredHashes.delete(hash);
+      }
+    }
+
     const response = await graphqlClient.post('', {
       query,
       variables,
+      extensions,
     });
-    
+    if (hash) {
+      registeredHashes.add(hash);
+    }
     return response.data.data;
   } catch (error) {
     console.error('GraphQL Error:', error);
@@ -71,9 +112,9 @@ const executeQuery = async (query, variables = {}) => {
 
 // ==================== PRODUCT QUERIES ====================
 
-export const getAllProducts = () => executeQuery(`
-  query {
-    allProducts {
+export const getAllProducts = (afterId = null, limit = null) => executeQuery(`
+  query AllProducts($afterId: ID, $limit: Int) {
+    allProducts(afterId: $afterId, limit: $limit) {
       id
       name
       categoryName
@@ -82,7 +123,7 @@ export const getAllProducts = () => executeQuery(`
       quantity
     }
   }
-`);
+`, { afterId, limit });
 
 export const getProductById = (id) => executeQuery(`
   query GetProduct($id: ID!) {
@@ -142,15 +183,15 @@ export const getProductsPaginated = (page = 0, size = 10, sortBy = 'id', sortDir
 
 // ==================== CATEGORY QUERIES ====================
 
-export const getAllCategories = () => executeQuery(`
-  query {
-    allCategories {
+export const getAllCategories = (afterId = null, limit = null) => executeQuery(`
+  query AllCategories($afterId: ID, $limit: Int) {
+    allCategories(afterId: $afterId, limit: $limit) {
       id
       name
       description
     }
   }
-`);
+`, { afterId, limit });
 
 export const getCategoryById = (id) => executeQuery(`
   query GetCategory($id: ID!) {
@@ -212,9 +253,9 @@ export const getCategoriesPaginated = (page = 0, size = 10, sortBy = 'id', sortD
 // ==================== ORDER QUERIES ====================
 
 // Basic orders list
-export const getAllOrders = () => executeQuery(`
-  query {
-    allOrders {
+export const getAllOrders = (afterId = null, limit = null) => executeQuery(`
+  query AllOrders($afterId: ID, $limit: Int) {
+    allOrders(afterId: $afterId, limit: $limit) {
       id
       userId
       userName
@@ -231,7 +272,7 @@ export const getAllOrders = () => executeQuery(`
       }
     }
   }
-`);
+`, { afterId, limit });
 
 // Full order with timestamps
 export const getOrderById = (id) => executeQuery(`
@@ -325,16 +366,16 @@ export const getOrdersByUserId = (userId) => executeQuery(`
 `, { userId });
 
 // Orders summary for dashboard
-export const getOrdersSummary = () => executeQuery(`
-  query {
-    allOrders {
+export const getOrdersSummary = (afterId = null, limit = null) => executeQuery(`
+  query OrdersSummary($afterId: ID, $limit: Int) {
+    allOrders(afterId: $afterId, limit: $limit) {
       id
       totalAmount
       status
       createdAt
     }
   }
-`);
+`, { afterId, limit });
 
 export const createOrder = (input) => executeQuery(`
   mutation CreateOrder($input: AddOrderInput!) {
@@ -426,9 +467,9 @@ export const getOrdersByUserIdPaginated = (userId, page = 0, size = 10, sortBy =
 
 // ==================== INVENTORY QUERIES ====================
 
-export const getAllInventories = () => executeQuery(`
-  query {
-    allInventories {
+export const getAllInventories = (afterId = null, limit = null) => executeQuery(`
+  query AllInventories($afterId: ID, $limit: Int) {
+    allInventories(afterId: $afterId, limit: $limit) {
       id
       productId
       productName
@@ -436,7 +477,7 @@ export const getAllInventories = () => executeQuery(`
       location
     }
   }
-`);
+`, { afterId, limit });
 
 export const getInventoryById = (id) => executeQuery(`
   query GetInventory($id: ID!) {
@@ -514,9 +555,9 @@ export const getInventoriesPaginated = (page = 0, size = 10, sortBy = 'id', sort
 
 // ==================== USER QUERIES ====================
 
-export const getAllUsers = () => executeQuery(`
-  query {
-    getAllUsers {
+export const getAllUsers = (afterId = null, limit = null) => executeQuery(`
+  query AllUsers($afterId: ID, $limit: Int) {
+    getAllUsers(afterId: $afterId, limit: $limit) {
       id
       firstName
       lastName
@@ -524,7 +565,7 @@ export const getAllUsers = () => executeQuery(`
       role
     }
   }
-`);
+`, { afterId, limit });
 
 export const getUserById = (id) => executeQuery(`
   query GetUser($id: ID!) {
@@ -790,9 +831,9 @@ const graphqlApi = {
 
 // ==================== REVIEW QUERIES ====================
 
-export const getAllReviews = () => executeQuery(`
-  query {
-    allReviews {
+export const getAllReviews = (afterId = null, limit = null) => executeQuery(`
+  query AllReviews($afterId: ID, $limit: Int) {
+    allReviews(afterId: $afterId, limit: $limit) {
       id
       productId
       productName
@@ -805,7 +846,7 @@ export const getAllReviews = () => executeQuery(`
       updatedAt
     }
   }
-`);
+`, { afterId, limit });
 
 export const getReviewById = (id) => executeQuery(`
   query GetReview($id: ID!) {
@@ -839,6 +880,24 @@ export const getReviewsByProductId = (productId) => executeQuery(`
   }
 `, { productId });
 
+// One page of a product's reviews, newest first; pass the returned nextCursor as after for more
+export const getProductReviewsPage = (productId, after = null, limit = 10, minRating = null, maxRating = null) => executeQuery(`
+  query ProductReviews($productId: ID!, $after: String, $limit: Int, $minRating: Int, $maxRating: Int) {
+    productReviews(productId: $productId, after: $after, limit: $limit, minRating: $minRating, maxRating: $maxRating) {
+      content {
+        id
+        userId
+        userName
+        rating
+        comment
+        createdAt
+        updatedAt
+      }
+      nextCursor
+    }
+  }
+`, { productId, after, limit, minRating, maxRating });
+
 export const getReviewsByUserId = (userId) => executeQuery(`
   query GetReviewsByUser($userId: ID!) {
     reviewsByUserId(userId: $userId) {
@@ -1,5 +1,7 @@
 package com.example.commerce.aspects;
 
+import com.example.commerce.monitoring.CacheLookupEvent;
+import com.example.commerce.monitoring.RepositoryCallEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -16,8 +18,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Slf4j
 public class PerformanceMonitoringAspect {
 
+    /**
+     * GraphQL operation names come from the client, so only this many get their own entry; later
+     * names are counted together under {@link #OTHER_OPERATIONS}.
+     */
+    public static final int MAX_GRAPHQL_OPERATIONS = 200;
+    public static final String OTHER_OPERATIONS = "other";
+
     private final Map<String, QueryMetrics> dbMetrics = new ConcurrentHashMap<>();
     private final Map<String, CacheMetrics> cacheMetrics = new ConcurrentHashMap<>();
+    private final Map<String, EndpointQueryMetrics> endpointQueryMetrics = new ConcurrentHashMap<>();
+    private final Map<String, GraphQLCostMetrics> graphQLCostMetrics = new ConcurrentHashMap<>();
 
     @Around("execution(* com.example.commerce.repositories..*(..))")
     public Object monitorDatabaseFetch(ProceedingJoinPoint joinPoint) throws Throwable {
@@ -27,10 +38,13 @@ public class PerformanceMonitoringAspect {
         String fullKey = className + "." + methodName;
         
         long startTime = System.currentTimeMillis();
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
         
         try {
             Object result = joinPoint.proceed();
             long executionTime = System.currentTimeMillis() - startTime;
+            event.finish(fullKey, false);
             
             dbMetrics.computeIfAbsent(fullKey, k -> new QueryMetrics())
                     .recordExecution(executionTime);
@@ -40,6 +54,7 @@ public class PerformanceMonitoringAspect {
             return result;
         } catch (Exception e) {
             long executionTime = System.currentTimeMillis() - startTime;
+            event.finish(fullKey, true);
             dbMetrics.computeIfAbsent(fullKey + "_ERROR", k -> new QueryMetrics())
                     .recordExecution(executionTime);
             throw e;
@@ -64,14 +79,22 @@ public class PerformanceMonitoringAspect {
     public void clearMetrics() {
         dbMetrics.clear();
         cacheMetrics.clear();
+        endpointQueryMetrics.clear();
+        graphQLCostMetrics.clear();
     }
 
     public void recordCacheHit(String key) {
         cacheMetrics.computeIfAbsent(key, k -> new CacheMetrics()).incrementHit();
+        CacheLookupEvent.emit(key, true);
     }
 
     public void recordCacheMiss(String key) {
         cacheMetrics.computeIfAbsent(key, k -> new CacheMetrics()).incrementMiss();
+        CacheLookupEvent.emit(key, false);
+    }
+
+    public void recordStaleCachePut(String key) {
+        cacheMetrics.computeIfAbsent(key, k -> new CacheMetrics()).incrementStalePut();
     }
 
     public Map<String, Map<String, Object>> getCacheMetrics() {
@@ -81,6 +104,59 @@ public class PerformanceMonitoringAspect {
             metricData.put("hits", metrics.getHits());
             metricData.put("misses", metrics.getMisses());
             metricData.put("hitRate", metrics.getHitRate());
+            metricData.put("stalePutsDropped", metrics.getStalePuts());
+            result.put(key, metricData);
+        });
+        return result;
+    }
+
+    /**
+     * Lookups (hits plus misses) per {@code cache::key} since metrics were last cleared.
+     */
+    public Map<String, Integer> getCacheLookupCounts() {
+        Map<String, Integer> result = new HashMap<>();
+        cacheMetrics.forEach((key, metrics) -> result.put(key, metrics.getHits() + metrics.getMisses()));
+        return result;
+    }
+
+    public void recordRequestQueries(String endpoint, int statements, int repeatedStatements) {
+        endpointQueryMetrics.computeIfAbsent(endpoint, k -> new EndpointQueryMetrics())
+                .recordRequest(statements, repeatedStatements);
+    }
+
+    public Map<String, Map<String, Object>> getEndpointQueryCounts() {
+        Map<String, Map<String, Object>> result = new HashMap<>();
+        endpointQueryMetrics.forEach((key, metrics) -> {
+            Map<String, Object> metricData = new HashMap<>();
+            metricData.put("requests", metrics.getRequests());
+            metricData.put("totalStatements", metrics.getTotalStatements());
+            metricData.put("avgStatements", metrics.getAverageStatements());
+            metricData.put("maxStatements", metrics.getMaxStatements());
+            metricData.put("nPlusOneRequests", metrics.getFlaggedRequests());
+            result.put(key, metricData);
+        });
+        return result;
+    }
+
+    public void recordGraphQLCost(String operation, long cost, int depth, boolean rejected) {
+        GraphQLCostMetrics metrics = graphQLCostMetrics.get(operation);
+        if (metrics == null) {
+            // Concurrent first sightings can overshoot the cap by at most one entry per request in flight
+            String key = graphQLCostMetrics.size() < MAX_GRAPHQL_OPERATIONS ? operation : OTHER_OPERATIONS;
+            metrics = graphQLCostMetrics.computeIfAbsent(key, k -> new GraphQLCostMetrics());
+        }
+        metrics.recordQuery(cost, depth, rejected);
+    }
+
+    public Map<String, Map<String, Object>> getGraphQLCosts() {
+        Map<String, Map<String, Object>> result = new HashMap<>();
+        graphQLCostMetrics.forEach((key, metrics) -> {
+            Map<String, Object> metricData = new HashMap<>();
+            metricData.put("queries", metrics.getQueries());
+            metricData.put("avgCost", metrics.getAverageCost());
+            metricData.put("maxCost", metrics.getMaxCost());
+            metricData.put("maxDepth", metrics.getMaxDepth());
+            metricData.put("rejected", metrics.getRejected());
             result.put(key, metricData);
         });
         return result;
@@ -123,6 +199,7 @@ public class PerformanceMonitoringAspect {
     private static class CacheMetrics {
         private final AtomicInteger hits = new AtomicInteger(0);
         private final AtomicInteger misses = new AtomicInteger(0);
+        private final AtomicInteger stalePuts = new AtomicInteger(0);
 
         public void incrementHit() {
             hits.incrementAndGet();
@@ -132,6 +209,10 @@ public class PerformanceMonitoringAspect {
             misses.incrementAndGet();
         }
 
+        public void incrementStalePut() {
+            stalePuts.incrementAndGet();
+        }
+
         public int getHits() {
             return hits.get();
         }
@@ -140,9 +221,88 @@ public class PerformanceMonitoringAspect {
             return misses.get();
         }
 
+        public int getStalePuts() {
+            return stalePuts.get();
+        }
+
         public double getHitRate() {
             int total = hits.get() + misses.get();
             return total > 0 ? (double) hits.get() / total * 100 : 0;
         }
     }
-}
\ No newline at end of file
+
+    private static class EndpointQueryMetrics {
+        private int requests = 0;
+        private long totalStatements = 0;
+        private int maxStatements = 0;
+        private int flaggedRequests = 0;
+
+        public synchronized void recordRequest(int statements, int repeatedStatements) {
+            requests++;
+            totalStatements += statements;
+            maxStatements = Math.max(maxStatements, statements);
+            if (repeatedStatements > 0) {
+                flaggedRequests++;
+            }
+        }
+
+        public synchronized int getRequests() {
+            return requests;
+        }
+
+        public synchronized long getTotalStatements() {
+            return totalStatements;
+        }
+
+        public synchronized double getAverageStatements() {
+            return requests > 0 ? (double) totalStatements / requests : 0;
+        }
+
+        public synchronized int getMaxStatements() {
+            return maxStatements;
+        }
+
+        public synchronized int getFlaggedRequests() {
+            return flaggedRequests;
+        }
+    }
+
+    private static class GraphQLCostMetrics {
+        private int queries = 0;
+        private long totalCost = 0;
+        private long maxCost = 0;
+        private int maxDepth = 0;
+        private int rejected = 0;
+
+        public synchronized void recordQuery(long cost, int depth, boolean wasRejected) {
+            queries++;
+            // Rejected costs can be as large as Long.MAX_VALUE
+            totalCost = totalCost + cost < 0 ? Long.MAX_VALUE : totalCost + cost;
+            maxCost = Math.max(maxCost, cost);
+            maxDepth = Math.max(maxDepth, depth);
+            if (wasRejected) {
+                rejected++;
+            }
+        }
+
+        public synchronized int getQueries() {
+            return queries;
+        }
+
+        public synchronized double getAverageCost() {
+            return queries > 0 ? (double) totalCost / queries : 0;
+        }
+
+        public synchronized long getMaxCost() {
+            return maxCost;
+        }
+
+        public synchronized int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public synchronized int getRejected() {
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.commerce.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Key-level cache eviction that waits for the surrounding transaction to commit.
+ * <p>
+ * Evicting before commit lets a concurrent reader re-cache the old row in the gap, and evicting
+ * on rollback throws away entries that were still correct. Keys requested during a transaction
+ * are collected, de-duplicated and evicted once after commit; outside a transaction they are
+ * evicted immediately.
+ */
+@Slf4j
+@Component
+public class CacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    public CacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public void evict(String cacheName, Object key) {
+        if (key == null) {
+            return;
+        }
+        PendingEvictions pending = pending();
+        if (pending == null) {
+            evictNow(cacheName, key);
+        } else {
+            pending.keys.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key);
+        }
+    }
+
+    public void evictAll(String cacheName, Collection<?> keys) {
+        for (Object key : keys) {
+            evict(cacheName, key);
+        }
+    }
+
+    /**
+     * Clears a whole cache after commit. Reserved for caches whose keys cannot be derived from
+     * the change, such as paged listings.
+     */
+    public void clear(String cacheName) {
+        PendingEvictions pending = pending();
+        if (pending == null) {
+            clearNow(cacheName);
+        } else {
+            pending.clears.add(cacheName);
+        }
+    }
+
+    private PendingEvictions pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingEvictions pending = (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvictions();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private void evictNow(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clearNow(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private class PendingEvictions implements TransactionSynchronization {
+        private final Map<String, Set<Object>> keys = new LinkedHashMap<>();
+        private final Set<String> clears = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            clears.forEach(CacheEvictor.this::clearNow);
+            keys.forEach((cacheName, cacheKeys) -> {
+                if (!clears.contains(cacheName)) {
+                    cacheKeys.forEach(key -> evictNow(cacheName, key));
+                }
+            });
+            log.debug("Evicted {} keys and cleared {} caches after commit",
+                    keys.values().stream().mapToInt(Set::size).sum(), clears.size());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheEvictor.this);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.commerce.cache;
+
+/**
+ * Carries cache invalidations between application instances, so an eviction on one node also
+ * evicts the key on the others. Keys travel as numbers or strings; anything else is sent as a
+ * clear of the whole cache.
+ */
+public interface CacheInvalidationBus extends AutoCloseable {
+
+    void evict(String cacheName, Object key);
+
+    void clear(String cacheName);
+
+    /**
+     * Registers the receiver of invalidations published by other nodes. Invalidations published
+     * by this node are never delivered back to it.
+     */
+    void subscribe(Listener listener);
+
+    @Override
+    void close();
+
+    interface Listener {
+
+        void evicted(String cacheName, Object key);
+
+        void cleared(String cacheName);
+
+        /**
+         * Invalidations may have been missed, e.g. while the connection was down; every cache
+         * should be treated as stale.
+         */
+        void resync();
+    }
+}
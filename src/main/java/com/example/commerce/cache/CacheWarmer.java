@@ -0,0 +1,230 @@
+package com.example.commerce.cache;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import com.example.commerce.interfaces.ICategoryService;
+import com.example.commerce.interfaces.IInventoryService;
+import com.example.commerce.interfaces.IProductService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Refills the catalog caches after a restart.
+ * <p>
+ * On shutdown the most looked-up keys of each warmable cache, taken from the lookup counts in
+ * {@link PerformanceMonitoringAspect}, are written to a local file. On the next start they are
+ * loaded back through the cached service methods in parallel batches. This runs as an
+ * {@link ApplicationRunner}, and the readiness probe only reports {@code ACCEPTING_TRAFFIC} once
+ * runners have finished, so the load balancer holds traffic back until the caches are warm or the
+ * timeout expires.
+ * <p>
+ * Only catalog caches are warmed; user, cart and order entries are personal and not written to disk.
+ */
+@Slf4j
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+    private final PerformanceMonitoringAspect performanceMonitor;
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final boolean enabled;
+    private final int keysPerCache;
+    private final int parallelism;
+    private final int batchSize;
+    private final long timeoutSeconds;
+    private final Map<String, Consumer<String>> loaders = new LinkedHashMap<>();
+
+    public CacheWarmer(PerformanceMonitoringAspect performanceMonitor,
+                       ObjectMapper objectMapper,
+                       IProductService productService,
+                       ICategoryService categoryService,
+                       IInventoryService inventoryService,
+                       @Value("${cache.warmup.enabled:true}") boolean enabled,
+                       @Value("${cache.warmup.file:data/cache-warmup.json}") String file,
+                       @Value("${cache.warmup.keys-per-cache:200}") int keysPerCache,
+                       @Value("${cache.warmup.parallelism:4}") int parallelism,
+                       @Value("${cache.warmup.batch-size:50}") int batchSize,
+                       @Value("${cache.warmup.timeout-seconds:60}") long timeoutSeconds) {
+        this.performanceMonitor = performanceMonitor;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.file = Path.of(file);
+        this.keysPerCache = keysPerCache;
+        this.parallelism = Math.max(1, parallelism);
+        this.batchSize = Math.max(1, batchSize);
+        this.timeoutSeconds = timeoutSeconds;
+
+        // Each loader rebuilds a key the way the matching @Cacheable expression renders it
+        loaders.put("productById", key -> productService.getProductById(Long.valueOf(key)));
+        loaders.put("productByName", productService::getProductByName);
+        loaders.put("allProducts", key -> {
+            String[] pageAndSize = key.split("-");
+            productService.getAllProducts(PageRequest.of(Integer.parseInt(pageAndSize[0]), Integer.parseInt(pageAndSize[1])));
+        });
+        loaders.put("allProductsList", key -> productService.getAllProductsList());
+        loaders.put("categoryById", key -> categoryService.getCategoryById(Long.valueOf(key)));
+        loaders.put("inventoryById", key -> inventoryService.getInventoryById(Long.valueOf(key)));
+        loaders.put("inventoryByProductId", key -> inventoryService.getInventoryByProductId(Long.valueOf(key)));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException, InterruptedException {
+        if (!enabled || !Files.exists(file)) {
+            return;
+        }
+        List<WarmupKey> keys = readKeys();
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int from = 0; from < keys.size(); from += batchSize) {
+                List<WarmupKey> batch = keys.subList(from, Math.min(from + batchSize, keys.size()));
+                pool.execute(() -> {
+                    for (WarmupKey key : batch) {
+                        try {
+                            loaders.get(key.cacheName()).accept(key.key());
+                            loaded.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            // Deleted since the last run, or a key this version no longer understands
+                            failed.incrementAndGet();
+                            log.debug("Skipping cache warm-up of {}::{}: {}", key.cacheName(), key.key(), e.getMessage());
+                        }
+                    }
+                });
+            }
+            pool.shutdown();
+            if (!pool.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Cache warm-up did not finish within {} s, continuing with partially warm caches", timeoutSeconds);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Cache warm-up loaded {} of {} keys ({} skipped) in {} ms",
+                loaded.get(), keys.size(), failed.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Writes the hottest keys of every warmable cache, most looked-up first.
+     */
+    @PreDestroy
+    public void saveHotKeys() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, List<Map.Entry<String, Integer>>> byCache = new LinkedHashMap<>();
+        performanceMonitor.getCacheLookupCounts().forEach((cacheKey, lookups) -> {
+            int separator = cacheKey.indexOf("::");
+            if (separator < 0) {
+                return;
+            }
+            String cacheName = cacheKey.substring(0, separator);
+            if (loaders.containsKey(cacheName)) {
+                byCache.computeIfAbsent(cacheName, name -> new ArrayList<>())
+                        .add(Map.entry(cacheKey.substring(separator + 2), lookups));
+            }
+        });
+        if (byCache.isEmpty()) {
+            return;
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("savedAt", Instant.now().toString());
+        ObjectNode caches = root.putObject("caches");
+        byCache.forEach((cacheName, entries) -> {
+            ArrayNode keys = caches.putArray(cacheName);
+            entries.stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                    .limit(keysPerCache)
+                    .forEach(entry -> keys.add(entry.getKey()));
+        });
+
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, objectMapper.writeValueAsString(root));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved hot cache keys for {} caches to {}", byCache.size(), file);
+        } catch (IOException e) {
+            log.warn("Could not save hot cache keys to {}", file, e);
+        }
+    }
+
+    /**
+     * Keys from the file, interleaved across caches so every cache gets its hottest keys first.
+     */
+    private List<WarmupKey> readKeys() throws IOException {
+        JsonNode caches;
+        try {
+            caches = objectMapper.readTree(Files.readString(file)).path("caches");
+        } catch (JacksonException e) {
+            log.warn("Ignoring unreadable cache warm-up file {}", file);
+            return List.of();
+        }
+
+        List<List<WarmupKey>> perCache = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> cache : caches.properties()) {
+            if (!loaders.containsKey(cache.getKey())) {
+                continue;
+            }
+            List<WarmupKey> keys = new ArrayList<>();
+            JsonNode values = cache.getValue();
+            for (int i = 0; i < values.size() && i < keysPerCache; i++) {
+                keys.add(new WarmupKey(cache.getKey(), values.get(i).asString()));
+            }
+            perCache.add(keys);
+        }
+
+        List<WarmupKey> interleaved = new ArrayList<>();
+        for (int rank = 0; ; rank++) {
+            boolean any = false;
+            for (List<WarmupKey> keys : perCache) {
+                if (rank < keys.size()) {
+                    interleaved.add(keys.get(rank));
+                    any = true;
+                }
+            }
+            if (!any) {
+                return interleaved;
+            }
+        }
+    }
+
+    private record WarmupKey(String cacheName, String key) {}
+}
@@ -0,0 +1,74 @@
+package com.example.commerce.cache;
+
+import com.example.commerce.repositories.CatalogVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Version number of everything served by the public catalog endpoints, used as their ETag.
+ * <p>
+ * The number lives in the database and is {@link #bump() bumped} by every change that shows up
+ * on the catalog endpoints, so all instances, before and after a restart, give the same data the
+ * same tag. Each instance keeps the last value it read and only reads it again after one of the
+ * catalog caches was invalidated, locally or over the {@link CacheInvalidationBus}, which every
+ * such change does after it commits.
+ */
+@Slf4j
+@Component
+public class CatalogVersion {
+
+    // Every catalog change clears the listings; stock changes only evict single products
+    private static final Set<String> CATALOG_CACHES = Set.of(
+            ProductCacheInvalidator.ALL_PRODUCTS,
+            ProductCacheInvalidator.ALL_PRODUCTS_LIST,
+            "categoryById");
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private volatile long version;
+
+    public CatalogVersion(CacheManager cacheManager, CatalogVersionRepository catalogVersionRepository) {
+        this.catalogVersionRepository = catalogVersionRepository;
+        if (cacheManager instanceof MonitoredCacheManager monitored) {
+            monitored.addInvalidationListener(this::cacheInvalidated);
+        }
+    }
+
+    public long current() {
+        if (stale.getAndSet(false)) {
+            try {
+                version = catalogVersionRepository.findCurrent().orElse(0L);
+            } catch (RuntimeException e) {
+                // Keep the last known version and read again on the next call
+                stale.set(true);
+                log.warn("Could not read the catalog version: {}", e.getMessage());
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Strong ETag for the current version, quoted as it goes on the wire.
+     */
+    public String etag() {
+        return "\"catalog-" + current() + "\"";
+    }
+
+    /**
+     * Counts a change to the catalog. Call it in the transaction that makes the change, before the
+     * catalog caches are invalidated.
+     */
+    public void bump() {
+        catalogVersionRepository.increment();
+    }
+
+    void cacheInvalidated(String cacheName) {
+        if (CATALOG_CACHES.contains(cacheName)) {
+            stale.set(true);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.commerce.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for {@link PostgresCacheInvalidationBus}. A bus on its own delivers to
+ * nobody, which is what a single instance needs; buses created with {@link #join()} share a
+ * channel and behave like separate nodes, delivering synchronously to each other.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final Set<LocalCacheInvalidationBus> channel;
+    private volatile Listener listener;
+    private volatile boolean connected = true;
+
+    public LocalCacheInvalidationBus() {
+        this(ConcurrentHashMap.newKeySet());
+    }
+
+    private LocalCacheInvalidationBus(Set<LocalCacheInvalidationBus> channel) {
+        this.channel = channel;
+        channel.add(this);
+    }
+
+    /**
+     * Another node on the same channel.
+     */
+    public LocalCacheInvalidationBus join() {
+        return new LocalCacheInvalidationBus(channel);
+    }
+
+    /**
+     * Simulates a dropped connection: invalidations from other nodes are lost until
+     * {@link #reconnect()}.
+     */
+    public void disconnect() {
+        connected = false;
+    }
+
+    public void reconnect() {
+        connected = true;
+        Listener current = listener;
+        if (current != null) {
+            current.resync();
+        }
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        for (LocalCacheInvalidationBus node : channel) {
+            Listener target = node.listener;
+            if (node != this && node.connected && target != null) {
+                target.evicted(cacheName, key);
+            }
+        }
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        for (LocalCacheInvalidationBus node : channel) {
+            Listener target = node.listener;
+            if (node != this && node.connected && target != null) {
+                target.cleared(cacheName);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void close() {
+        channel.remove(this);
+    }
+}
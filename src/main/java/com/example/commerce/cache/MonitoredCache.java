@@ -6,14 +6,55 @@ import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.Nullable;
 import org.springframework.cache.Cache;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
-
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Records hits and misses, and refuses to cache values that may already be stale.
+ * <p>
+ * {@code @Cacheable} reads the cache, runs the method on a miss and then puts the result. If a
+ * writer evicts the key in between, that put brings back the value the eviction was meant to
+ * remove. Every key therefore maps to a generation counter that is bumped on eviction, next to an
+ * epoch that is bumped on clear. The generation seen at a miss is remembered for the calling
+ * thread, and the put that follows is dropped if it has moved on. Puts that were not preceded by a
+ * miss on the same thread, such as {@code @CachePut}, are applied as-is.
+ * <p>
+ * Evictions and clears are also published on the {@link CacheInvalidationBus}; the ones received
+ * from other nodes come in through {@link #evictLocally} and {@link #clearLocally} so they are not
+ * published again.
+ */
 @Slf4j
 @RequiredArgsConstructor
 public class MonitoredCache implements Cache {
 
+    // Keys share counters per stripe; a collision only costs an extra miss
+    private static final int STRIPES = 1024;
+    private static final int MAX_PENDING_MISSES = 16;
+
     private final Cache delegate;
     private final PerformanceMonitoringAspect performanceMonitor;
+    private final CacheInvalidationBus invalidationBus;
+    // Told the cache name after any local or remote invalidation has been applied
+    private final Consumer<String> invalidated;
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final Object[] stripeLocks = newStripeLocks();
+    // Puts and evictions take the read side, clear takes the write side
+    private final ReentrantReadWriteLock clearLock = new ReentrantReadWriteLock();
+    private volatile long epoch;
+
+    private final ThreadLocal<Map<Object, Stamp>> pendingMisses = ThreadLocal.withInitial(() -> new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Stamp> eldest) {
+            return size() > MAX_PENDING_MISSES;
+        }
+    });
 
     @Override
     public String getName() {
@@ -29,16 +70,7 @@ public class MonitoredCache implements Cache {
     @Nullable
     public ValueWrapper get(Object key) {
         ValueWrapper value = delegate.get(key);
-        String cacheKey = getName() + "::" + key;
-        
-        if (value != null) {
-            performanceMonitor.recordCacheHit(cacheKey);
-            log.debug("🎯 CACHE HIT: {}", cacheKey);
-        } else {
-            performanceMonitor.recordCacheMiss(cacheKey);
-            log.debug("❌ CACHE MISS: {}", cacheKey);
-        }
-        
+        recordLookup(key, value != null);
         return value;
     }
 
@@ -46,66 +78,157 @@ public class MonitoredCache implements Cache {
     @Nullable
     public <T> T get(Object key, @Nullable Class<T> type) {
         T value = delegate.get(key, type);
-        String cacheKey = getName() + "::" + key;
-        
-        if (value != null) {
-            performanceMonitor.recordCacheHit(cacheKey);
-            log.debug("🎯 CACHE HIT: {}", cacheKey);
-        } else {
-            performanceMonitor.recordCacheMiss(cacheKey);
-            log.debug("❌ CACHE MISS: {}", cacheKey);
-        }
-        
+        recordLookup(key, value != null);
         return value;
     }
 
     @Override
     @Nullable
+    @SuppressWarnings("unchecked")
     public <T> T get(Object key, Callable<T> valueLoader) {
-        String cacheKey = getName() + "::" + key;
-        
-        // Check if exists first
-        ValueWrapper existing = delegate.get(key);
+        // Loaded here rather than in the delegate so the put goes through the version check
+        ValueWrapper existing = get(key);
         if (existing != null) {
-            performanceMonitor.recordCacheHit(cacheKey);
-            log.debug("🎯 CACHE HIT: {}", cacheKey);
-        } else {
-            performanceMonitor.recordCacheMiss(cacheKey);
-            log.debug("❌ CACHE MISS: {}", cacheKey);
+            return (T) existing.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
         }
-        
-        return delegate.get(key, valueLoader);
+        put(key, value);
+        return value;
     }
 
-
     @Override
     public void put(Object key, @Nullable Object value) {
-        delegate.put(key, value);
+        writeIfCurrent(key, () -> {
+            delegate.put(key, value);
+            return null;
+        });
     }
 
     @Override
     @Nullable
     public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
-        return delegate.putIfAbsent(key, value);
+        return writeIfCurrent(key, () -> delegate.putIfAbsent(key, value));
     }
 
     @Override
     public void evict(Object key) {
-        delegate.evict(key);
+        evictLocally(key);
+        invalidationBus.evict(getName(), key);
     }
 
     @Override
     public boolean evictIfPresent(Object key) {
-        return delegate.evictIfPresent(key);
+        boolean present = invalidateKey(key, () -> delegate.evictIfPresent(key));
+        invalidated.accept(getName());
+        // Other nodes may hold the key even when this one does not
+        invalidationBus.evict(getName(), key);
+        return present;
     }
 
     @Override
     public void clear() {
-        delegate.clear();
+        clearLocally();
+        invalidationBus.clear(getName());
     }
 
     @Override
     public boolean invalidate() {
-        return delegate.invalidate();
+        boolean present;
+        clearLock.writeLock().lock();
+        try {
+            epoch++;
+            present = delegate.invalidate();
+        } finally {
+            clearLock.writeLock().unlock();
+        }
+        invalidated.accept(getName());
+        invalidationBus.clear(getName());
+        return present;
     }
+
+    void evictLocally(Object key) {
+        invalidateKey(key, () -> {
+            delegate.evict(key);
+            return true;
+        });
+        invalidated.accept(getName());
+    }
+
+    void clearLocally() {
+        clearLock.writeLock().lock();
+        try {
+            epoch++;
+            delegate.clear();
+        } finally {
+            clearLock.writeLock().unlock();
+        }
+        invalidated.accept(getName());
+    }
+
+    private void recordLookup(Object key, boolean hit) {
+        String cacheKey = getName() + "::" + key;
+        if (hit) {
+            performanceMonitor.recordCacheHit(cacheKey);
+            log.debug("🎯 CACHE HIT: {}", cacheKey);
+        } else {
+            // Epoch first: a clear racing with this read makes the stamp older, never newer
+            long seenEpoch = epoch;
+            pendingMisses.get().put(key, new Stamp(seenEpoch, generations.get(stripe(key))));
+            performanceMonitor.recordCacheMiss(cacheKey);
+            log.debug("❌ CACHE MISS: {}", cacheKey);
+        }
+    }
+
+    @Nullable
+    private ValueWrapper writeIfCurrent(Object key, Supplier<@Nullable ValueWrapper> write) {
+        Stamp seen = pendingMisses.get().remove(key);
+        int stripe = stripe(key);
+        clearLock.readLock().lock();
+        try {
+            synchronized (stripeLocks[stripe]) {
+                if (seen != null && (seen.epoch() != epoch || seen.generation() != generations.get(stripe))) {
+                    String cacheKey = getName() + "::" + key;
+                    performanceMonitor.recordStaleCachePut(cacheKey);
+                    log.debug("⏭️ CACHE STALE PUT DROPPED: {}", cacheKey);
+                    return null;
+                }
+                return write.get();
+            }
+        } finally {
+            clearLock.readLock().unlock();
+        }
+    }
+
+    private boolean invalidateKey(Object key, BooleanSupplier removal) {
+        int stripe = stripe(key);
+        clearLock.readLock().lock();
+        try {
+            synchronized (stripeLocks[stripe]) {
+                generations.incrementAndGet(stripe);
+                return removal.getAsBoolean();
+            }
+        } finally {
+            clearLock.readLock().unlock();
+        }
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static Object[] newStripeLocks() {
+        Object[] locks = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private record Stamp(long epoch, long generation) {}
 }
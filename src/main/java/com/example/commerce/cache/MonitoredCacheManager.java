@@ -2,19 +2,38 @@ package com.example.commerce.cache;
 
 import com.example.commerce.aspects.PerformanceMonitoringAspect;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 @Slf4j
-@RequiredArgsConstructor
 public class MonitoredCacheManager implements CacheManager {
 
     private final CacheManager delegate;
     private final PerformanceMonitoringAspect performanceMonitor;
+    private final CacheInvalidationBus invalidationBus;
+    // One decorator per cache: it holds the generation counters behind versioned puts
+    private final Map<String, MonitoredCache> caches = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    public MonitoredCacheManager(CacheManager delegate, PerformanceMonitoringAspect performanceMonitor) {
+        this(delegate, performanceMonitor, new LocalCacheInvalidationBus());
+    }
+
+    public MonitoredCacheManager(CacheManager delegate, PerformanceMonitoringAspect performanceMonitor,
+                                 CacheInvalidationBus invalidationBus) {
+        this.delegate = delegate;
+        this.performanceMonitor = performanceMonitor;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(new RemoteInvalidations());
+    }
 
     @PostConstruct
     public void init() {
@@ -22,14 +41,60 @@ public class MonitoredCacheManager implements CacheManager {
         log.info("📊 View metrics at: GET /api/performance/cache-metrics");
     }
 
+    /**
+     * Registers a callback that receives the cache name after every eviction or clear, whether it
+     * was made on this node or received from another one.
+     */
+    public void addInvalidationListener(Consumer<String> listener) {
+        invalidationListeners.add(listener);
+    }
+
     @Override
     public Cache getCache(String name) {
+        MonitoredCache monitored = caches.get(name);
+        if (monitored != null) {
+            return monitored;
+        }
         Cache cache = delegate.getCache(name);
-        return cache != null ? new MonitoredCache(cache, performanceMonitor) : null;
+        return cache != null
+                ? caches.computeIfAbsent(name, n -> new MonitoredCache(cache, performanceMonitor, invalidationBus, this::invalidated))
+                : null;
     }
 
     @Override
     public Collection<String> getCacheNames() {
         return delegate.getCacheNames();
     }
+
+    private void invalidated(String cacheName) {
+        for (Consumer<String> listener : invalidationListeners) {
+            listener.accept(cacheName);
+        }
+    }
+
+    /**
+     * Applies invalidations published by other nodes to the local caches only.
+     */
+    private class RemoteInvalidations implements CacheInvalidationBus.Listener {
+
+        @Override
+        public void evicted(String cacheName, Object key) {
+            if (getCache(cacheName) instanceof MonitoredCache cache) {
+                cache.evictLocally(key);
+            }
+        }
+
+        @Override
+        public void cleared(String cacheName) {
+            if (getCache(cacheName) instanceof MonitoredCache cache) {
+                cache.clearLocally();
+            }
+        }
+
+        @Override
+        public void resync() {
+            log.info("Cache invalidation bus reconnected, clearing local caches");
+            getCacheNames().forEach(this::cleared);
+        }
+    }
 }
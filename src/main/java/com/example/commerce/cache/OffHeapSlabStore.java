@@ -0,0 +1,140 @@
+package com.example.commerce.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Byte store backed by direct {@link ByteBuffer} slabs, so stored values do not live on the Java
+ * heap. Values are appended to the newest slab; when every slab is in use, the oldest one is
+ * dropped as a whole and reused, which evicts its entries in insertion order without tracking
+ * free space inside a slab. Space left by replaced or removed values is reclaimed the same way.
+ * <p>
+ * Not thread-safe; {@link TieredCache} guards it with its own lock.
+ */
+class OffHeapSlabStore {
+
+    private final int slabSize;
+    private final int maxSlabs;
+
+    private final ArrayDeque<Slab> slabs = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuffer> spareBuffers = new ArrayDeque<>();
+    private final Map<Object, Location> index = new HashMap<>();
+    private long evictedEntries;
+    private long writes;
+
+    OffHeapSlabStore(int slabSize, int maxSlabs) {
+        if (slabSize <= 0 || maxSlabs <= 0) {
+            throw new IllegalArgumentException("Slab size and count must be positive");
+        }
+        this.slabSize = slabSize;
+        this.maxSlabs = maxSlabs;
+    }
+
+    /**
+     * @return false if the value is larger than a slab and was not stored
+     */
+    boolean put(Object key, byte[] value) {
+        remove(key);
+        if (value.length > slabSize) {
+            return false;
+        }
+        Slab slab = slabs.peekLast();
+        if (slab == null || slabSize - slab.writeOffset < value.length) {
+            slab = newSlab();
+        }
+        slab.buffer.put(slab.writeOffset, value);
+        slab.keys.add(key);
+        index.put(key, new Location(slab, slab.writeOffset, value.length, ++writes));
+        slab.writeOffset += value.length;
+        slab.liveBytes += value.length;
+        return true;
+    }
+
+    byte[] get(Object key) {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        byte[] value = new byte[location.length()];
+        location.slab().buffer.get(location.offset(), value);
+        return value;
+    }
+
+    /**
+     * Identifies the current value of a key, so a caller can tell whether it was replaced
+     * between two calls; 0 when the key is absent.
+     */
+    long writeSequence(Object key) {
+        Location location = index.get(key);
+        return location == null ? 0 : location.sequence();
+    }
+
+    boolean remove(Object key) {
+        Location location = index.remove(key);
+        if (location == null) {
+            return false;
+        }
+        location.slab().liveBytes -= location.length();
+        return true;
+    }
+
+    void clear() {
+        index.clear();
+        while (!slabs.isEmpty()) {
+            spareBuffers.add(slabs.pollFirst().buffer);
+        }
+    }
+
+    Map<String, Object> stats() {
+        long liveBytes = 0;
+        for (Slab slab : slabs) {
+            liveBytes += slab.liveBytes;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", index.size());
+        stats.put("slabs", slabs.size());
+        stats.put("maxSlabs", maxSlabs);
+        stats.put("slabSizeBytes", slabSize);
+        stats.put("liveBytes", liveBytes);
+        stats.put("allocatedBytes", (long) (slabs.size() + spareBuffers.size()) * slabSize);
+        stats.put("evictedEntries", evictedEntries);
+        return stats;
+    }
+
+    private Slab newSlab() {
+        if (slabs.size() == maxSlabs) {
+            Slab oldest = slabs.pollFirst();
+            for (Object key : oldest.keys) {
+                Location location = index.get(key);
+                // The key may have been rewritten into a newer slab since
+                if (location != null && location.slab() == oldest) {
+                    index.remove(key);
+                    evictedEntries++;
+                }
+            }
+            spareBuffers.add(oldest.buffer);
+        }
+        ByteBuffer buffer = spareBuffers.isEmpty() ? ByteBuffer.allocateDirect(slabSize) : spareBuffers.pollFirst();
+        Slab slab = new Slab(buffer);
+        slabs.addLast(slab);
+        return slab;
+    }
+
+    private static final class Slab {
+        private final ByteBuffer buffer;
+        private final List<Object> keys = new ArrayList<>();
+        private int writeOffset;
+        private long liveBytes;
+
+        private Slab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    private record Location(Slab slab, int offset, int length, long sequence) {}
+}
@@ -0,0 +1,326 @@
+package com.example.commerce.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache invalidation over PostgreSQL {@code LISTEN/NOTIFY}.
+ * <p>
+ * One thread owns a dedicated connection outside the pool. It alternates between sending what
+ * has been queued locally, as one {@code pg_notify} per batch, and waiting up to the flush interval
+ * for notifications from other nodes. Every message carries this node's id so its own messages
+ * are ignored when they come back. Notifications are not stored by PostgreSQL, so after the
+ * connection is re-established the listener is asked to {@link Listener#resync() resync}; the first
+ * connection has nothing to catch up on and leaves the caches (and whatever warmed them) alone.
+ */
+@Slf4j
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus {
+
+    // NOTIFY payloads are limited to 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7_500;
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final int flushIntervalMs;
+    private final int maxPending;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentLinkedQueue<Invalidation> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile boolean overflowed;
+    // Only touched by the listener thread: drained but not yet sent
+    private final List<Invalidation> unsent = new ArrayList<>();
+
+    private volatile Listener listener;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param channel         NOTIFY channel, shared by every node of the deployment
+     * @param flushIntervalMs how long invalidations are batched before being sent
+     * @param maxPending      queued invalidations after which the next flush asks peers to resync instead
+     */
+    public PostgresCacheInvalidationBus(String url, String username, String password, String channel,
+                                        int flushIntervalMs, int maxPending, ObjectMapper objectMapper) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.maxPending = maxPending;
+        this.objectMapper = objectMapper;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "cache-invalidation-bus");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Cache invalidation bus listening on channel '{}' as node {}", channel, nodeId);
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        if (key instanceof Long || key instanceof Integer || key instanceof String) {
+            enqueue(new Invalidation(cacheName, key));
+        } else {
+            // Other key types do not survive the trip as JSON
+            enqueue(new Invalidation(cacheName, null));
+        }
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        enqueue(new Invalidation(cacheName, null));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = thread;
+        }
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(flushIntervalMs * 2L + 1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void enqueue(Invalidation invalidation) {
+        if (!running) {
+            return;
+        }
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            overflowed = true;
+            return;
+        }
+        pending.add(invalidation);
+    }
+
+    private void run() {
+        long reconnectDelay = flushIntervalMs;
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                reconnectDelay = flushIntervalMs;
+                if (connectedBefore) {
+                    resync();
+                }
+                connectedBefore = true;
+
+                while (running) {
+                    flush(connection);
+                    PGNotification[] received = notifications.getNotifications(flushIntervalMs);
+                    if (received != null) {
+                        for (PGNotification notification : received) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Cache invalidation bus lost its connection, retrying in {} ms: {}", reconnectDelay, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MS);
+            }
+        }
+    }
+
+    private void resync() {
+        Listener current = listener;
+        if (current != null) {
+            current.resync();
+        }
+    }
+
+    // ==================== SENDING ====================
+
+    private void flush(Connection connection) throws SQLException {
+        Invalidation next;
+        while ((next = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            unsent.add(next);
+        }
+        if (overflowed) {
+            // Too much to send key by key: peers drop everything instead
+            unsent.clear();
+            ObjectNode message = message();
+            message.put("resync", true);
+            notify(connection, objectMapper.writeValueAsString(message));
+            overflowed = false;
+        }
+        if (!unsent.isEmpty()) {
+            send(connection, unsent);
+            unsent.clear();
+        }
+    }
+
+    private void send(Connection connection, List<Invalidation> batch) throws SQLException {
+        String payload = encode(batch);
+        if (payload.getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES) {
+            notify(connection, payload);
+        } else if (batch.size() > 1) {
+            int half = batch.size() / 2;
+            send(connection, batch.subList(0, half));
+            send(connection, batch.subList(half, batch.size()));
+        } else {
+            send(connection, List.of(new Invalidation(batch.get(0).cacheName(), null)));
+        }
+    }
+
+    private void notify(Connection connection, String payload) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, payload);
+            statement.execute();
+        }
+    }
+
+    /**
+     * {@code {"node":..., "clear":["allProducts"], "evict":{"productById":[1,2], "productByName":["x"]}, "evictInt":{...}}}
+     * <p>
+     * JSON numbers do not say whether they were a {@code Long} or an {@code Integer}, and a cache
+     * only matches a key of the same type, so {@code Integer} keys travel under {@code evictInt}.
+     */
+    String encode(List<Invalidation> batch) {
+        Set<String> clears = new LinkedHashSet<>();
+        Map<String, Set<Object>> evictions = new LinkedHashMap<>();
+        for (Invalidation invalidation : batch) {
+            if (invalidation.key() == null) {
+                clears.add(invalidation.cacheName());
+            } else {
+                evictions.computeIfAbsent(invalidation.cacheName(), name -> new LinkedHashSet<>()).add(invalidation.key());
+            }
+        }
+
+        ObjectNode message = message();
+        ArrayNode clearNode = message.putArray("clear");
+        clears.forEach(clearNode::add);
+        ObjectNode evictNode = message.putObject("evict");
+        ObjectNode evictIntNode = message.putObject("evictInt");
+        evictions.forEach((cacheName, keys) -> {
+            if (clears.contains(cacheName)) {
+                return;
+            }
+            for (Object key : keys) {
+                if (key instanceof String text) {
+                    keys(evictNode, cacheName).add(text);
+                } else if (key instanceof Integer number) {
+                    keys(evictIntNode, cacheName).add(number.intValue());
+                } else {
+                    keys(evictNode, cacheName).add(((Number) key).longValue());
+                }
+            }
+        });
+        return objectMapper.writeValueAsString(message);
+    }
+
+    private static ArrayNode keys(ObjectNode evictions, String cacheName) {
+        JsonNode existing = evictions.get(cacheName);
+        return existing != null ? (ArrayNode) existing : evictions.putArray(cacheName);
+    }
+
+    private ObjectNode message() {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("node", nodeId);
+        return message;
+    }
+
+    // ==================== RECEIVING ====================
+
+    void receive(String payload) {
+        Listener current = listener;
+        if (current == null) {
+            return;
+        }
+        JsonNode message;
+        try {
+            message = objectMapper.readTree(payload);
+        } catch (JacksonException e) {
+            log.warn("Ignoring unreadable cache invalidation message");
+            return;
+        }
+        if (nodeId.equals(message.path("node").asString())) {
+            return;
+        }
+        if (message.path("resync").asBoolean(false)) {
+            current.resync();
+            return;
+        }
+
+        JsonNode clears = message.path("clear");
+        for (int i = 0; i < clears.size(); i++) {
+            current.cleared(clears.get(i).asString());
+        }
+        for (Map.Entry<String, JsonNode> entry : message.path("evict").properties()) {
+            JsonNode keys = entry.getValue();
+            for (int i = 0; i < keys.size(); i++) {
+                JsonNode key = keys.get(i);
+                current.evicted(entry.getKey(), key.isNumber() ? (Object) key.asLong() : key.asString());
+            }
+        }
+        for (Map.Entry<String, JsonNode> entry : message.path("evictInt").properties()) {
+            JsonNode keys = entry.getValue();
+            for (int i = 0; i < keys.size(); i++) {
+                current.evicted(entry.getKey(), keys.get(i).asInt());
+            }
+        }
+        log.debug("Applied cache invalidations from node {}", message.path("node").asString());
+    }
+
+    record Invalidation(String cacheName, Object key) {}
+}
@@ -0,0 +1,96 @@
+package com.example.commerce.cache;
+
+import com.example.commerce.repositories.ProductRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Invalidation rules for the product caches, applied after the writing transaction commits.
+ * <p>
+ * A cached {@code ProductResponseDTO} is built from the product row, its category name and its
+ * inventory quantity, so writes to any of the three have to come through here:
+ * <ul>
+ *     <li>{@code productById} is evicted by key</li>
+ *     <li>{@code productByName} is evicted by key when the names are known, otherwise cleared</li>
+ *     <li>{@code allProducts} and {@code allProductsList} are listings and are cleared on every
+ *     catalog change, which also bumps the {@link CatalogVersion}</li>
+ * </ul>
+ * Stock moves with every order, so a stock change only evicts the affected products by id and
+ * name. Listings are refreshed for stock at most once per {@code catalog.stock-refresh-ms},
+ * which keeps the catalog caches, the catalog ETag and the cached response bodies warm under
+ * order load at the cost of listing quantities lagging by up to that interval.
+ */
+@Component
+public class ProductCacheInvalidator {
+
+    public static final String PRODUCT_BY_ID = "productById";
+    public static final String PRODUCT_BY_NAME = "productByName";
+    public static final String ALL_PRODUCTS = "allProducts";
+    public static final String ALL_PRODUCTS_LIST = "allProductsList";
+
+    private final CacheEvictor cacheEvictor;
+    private final ProductRepository productRepository;
+    private final CatalogVersion catalogVersion;
+    private final AtomicBoolean stockMoved = new AtomicBoolean();
+
+    public ProductCacheInvalidator(CacheEvictor cacheEvictor, ProductRepository productRepository,
+                                   CatalogVersion catalogVersion) {
+        this.cacheEvictor = cacheEvictor;
+        this.productRepository = productRepository;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * A product was added, updated or deleted.
+     *
+     * @param names every name the product was cached under, e.g. the old and the new name on a rename
+     */
+    public void productChanged(Long productId, String... names) {
+        cacheEvictor.evict(PRODUCT_BY_ID, productId);
+        for (String name : names) {
+            cacheEvictor.evict(PRODUCT_BY_NAME, name);
+        }
+        listingsChanged();
+    }
+
+    /**
+     * Stock of these products moved, which changes the quantity on every cached copy of them.
+     * Their names are read so that name lookups can be evicted by key.
+     */
+    public void stockChanged(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        cacheEvictor.evictAll(PRODUCT_BY_NAME, productRepository.findNamesByIdIn(productIds));
+        cacheEvictor.evictAll(PRODUCT_BY_ID, productIds);
+        stockMoved.set(true);
+    }
+
+    /**
+     * Brings the listings up to date with stock that moved since the last refresh.
+     */
+    @Scheduled(fixedDelayString = "${catalog.stock-refresh-ms:30000}")
+    public void refreshListingsForStock() {
+        if (stockMoved.getAndSet(false)) {
+            listingsChanged();
+        }
+    }
+
+    /**
+     * Something shared by many products changed, such as a category name.
+     */
+    public void catalogChanged() {
+        cacheEvictor.clear(PRODUCT_BY_ID);
+        cacheEvictor.clear(PRODUCT_BY_NAME);
+        listingsChanged();
+    }
+
+    private void listingsChanged() {
+        catalogVersion.bump();
+        cacheEvictor.clear(ALL_PRODUCTS);
+        cacheEvictor.clear(ALL_PRODUCTS_LIST);
+    }
+}
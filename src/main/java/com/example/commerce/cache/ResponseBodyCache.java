@@ -0,0 +1,163 @@
+package com.example.commerce.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finished JSON bodies of the public product listing, kept as UTF-8 bytes (and optionally gzipped)
+ * so a hit skips the controller, the service cache and Jackson entirely.
+ * <p>
+ * Entries are keyed by path and sorted query parameters and stamped with the
+ * {@link CatalogVersion} read before the body was built; once the catalog changes they stop
+ * matching and are dropped on the next store. Stock moves do not bump the version right away, so
+ * only listings, whose quantities are allowed to lag, belong here; single-product reads are left
+ * to {@code productById}, which stock changes evict by key.
+ */
+@Component
+public class ResponseBodyCache {
+
+    /**
+     * Request attribute carrying the key a missed response should be stored under.
+     */
+    public static final String PENDING_ATTRIBUTE = ResponseBodyCache.class.getName() + ".pending";
+
+    private static final String PUBLIC_PRODUCTS = "/api/products/public/all";
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final boolean gzip;
+    private final int maxEntryBytes;
+    private final Map<String, CachedBody> entries;
+
+    // Guarded by this
+    private long entriesVersion = -1;
+    private long hits;
+    private long misses;
+    private long stores;
+    private long totalBytes;
+
+    public ResponseBodyCache(CatalogVersion catalogVersion,
+                             @Value("${catalog.response-cache.enabled:true}") boolean enabled,
+                             @Value("${catalog.response-cache.gzip:true}") boolean gzip,
+                             @Value("${catalog.response-cache.max-entries:1000}") int maxEntries,
+                             @Value("${catalog.response-cache.max-entry-kb:512}") int maxEntryKb) {
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        this.gzip = gzip;
+        this.maxEntryBytes = maxEntryKb * 1024;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedBody> eldest) {
+                if (size() > maxEntries) {
+                    totalBytes -= eldest.getValue().size();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isCacheable(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod())) {
+            return false;
+        }
+        return PUBLIC_PRODUCTS.equals(request.getRequestURI());
+    }
+
+    /**
+     * @return the stored body for this request, or null after registering it to be stored
+     */
+    public synchronized CachedBody lookup(HttpServletRequest request) {
+        String key = key(request);
+        long version = catalogVersion.current();
+        CachedBody cached = entriesVersion == version ? entries.get(key) : null;
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+        misses++;
+        request.setAttribute(PENDING_ATTRIBUTE, new Pending(key, version));
+        return null;
+    }
+
+    public void store(Pending pending, byte[] body, String contentType) {
+        if (body.length == 0 || body.length > maxEntryBytes) {
+            return;
+        }
+        // Compressed outside the lock
+        byte[] gzipped = gzip && body.length >= GZIP_MIN_BYTES ? gzip(body) : null;
+        CachedBody cached = new CachedBody(body, gzipped, contentType);
+
+        synchronized (this) {
+            if (pending.version() != catalogVersion.current()) {
+                // The catalog changed while this body was being built
+                return;
+            }
+            if (entriesVersion != pending.version()) {
+                entries.clear();
+                totalBytes = 0;
+                entriesVersion = pending.version();
+            }
+            CachedBody previous = entries.put(pending.key(), cached);
+            if (previous != null) {
+                totalBytes -= previous.size();
+            }
+            totalBytes += cached.size();
+            stores++;
+        }
+    }
+
+    public synchronized Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("entries", entriesVersion == catalogVersion.current() ? entries.size() : 0);
+        metrics.put("bytes", totalBytes);
+        metrics.put("hits", hits);
+        metrics.put("misses", misses);
+        metrics.put("stores", stores);
+        metrics.put("catalogVersion", catalogVersion.current());
+        return metrics;
+    }
+
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            key.append(separator).append(parameter.getKey()).append('=').append(Arrays.toString(parameter.getValue()));
+            separator = '&';
+        }
+        return key.toString();
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(out)) {
+            gzipStream.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public record Pending(String key, long version) {}
+
+    /**
+     * @param gzipped compressed copy of {@code body}, or null when not worth compressing
+     */
+    public record CachedBody(byte[] body, byte[] gzipped, String contentType) {
+        long size() {
+            return body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+}
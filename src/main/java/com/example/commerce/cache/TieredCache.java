@@ -0,0 +1,208 @@
+package com.example.commerce.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two-tier cache for large values such as catalog pages.
+ * <p>
+ * Values are stored as JSON in an {@link OffHeapSlabStore}, so a fully cached catalog adds
+ * little to the old generation. Reading from that tier costs a deserialization, so a key that is
+ * read {@code promoteAfterHits} times is promoted to a small on-heap near cache of live objects.
+ * Values too large for a slab are kept in the near cache only.
+ */
+@Slf4j
+public class TieredCache extends AbstractValueAdaptingCache {
+
+    private static final byte[] NULL_VALUE = new byte[0];
+
+    private final String name;
+    private final ObjectMapper objectMapper;
+    private final JavaType valueType;
+    private final int promoteAfterHits;
+    private final OffHeapSlabStore offHeap;
+    private final Map<Object, Object> near;
+    private final Map<Object, Integer> offHeapReads = new HashMap<>();
+    // Guards offHeap, near and offHeapReads; (de)serialization happens outside it
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long nearHits;
+    private long offHeapHits;
+    private long misses;
+    private long promotions;
+
+    /**
+     * @param valueType        type the cached values are read back as
+     * @param slabSize         bytes per off-heap slab; also the largest value stored off-heap
+     * @param maxSlabs         slabs allocated before the oldest is evicted
+     * @param nearEntries      size of the on-heap near cache
+     * @param promoteAfterHits off-heap reads after which a key moves to the near cache
+     */
+    public TieredCache(String name, ObjectMapper objectMapper, JavaType valueType,
+                       int slabSize, int maxSlabs, int nearEntries, int promoteAfterHits) {
+        super(true);
+        this.name = name;
+        this.objectMapper = objectMapper;
+        this.valueType = valueType;
+        this.promoteAfterHits = promoteAfterHits;
+        this.offHeap = new OffHeapSlabStore(slabSize, maxSlabs);
+        this.near = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                return size() > nearEntries;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    @Nullable
+    protected Object lookup(Object key) {
+        byte[] bytes;
+        long sequence;
+        lock.lock();
+        try {
+            Object cached = near.get(key);
+            if (cached != null) {
+                nearHits++;
+                return cached;
+            }
+            bytes = offHeap.get(key);
+            if (bytes == null) {
+                // Slab eviction does not report keys back, so stale counts are dropped here
+                offHeapReads.remove(key);
+                misses++;
+                return null;
+            }
+            offHeapHits++;
+            sequence = offHeap.writeSequence(key);
+        } finally {
+            lock.unlock();
+        }
+
+        Object value;
+        try {
+            value = bytes.length == 0 ? NullValue.INSTANCE : objectMapper.readValue(bytes, valueType);
+        } catch (JacksonException e) {
+            log.warn("Dropping unreadable entry {}::{}", name, key, e);
+            evict(key);
+            return null;
+        }
+
+        lock.lock();
+        try {
+            // Promote only if the entry was not replaced or evicted while it was being read
+            if (offHeapReads.merge(key, 1, Integer::sum) >= promoteAfterHits
+                    && offHeap.writeSequence(key) == sequence) {
+                near.put(key, value);
+                offHeapReads.remove(key);
+                promotions++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper existing = get(key);
+        if (existing != null) {
+            return (T) existing.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        Object storeValue = toStoreValue(value);
+        byte[] bytes;
+        try {
+            bytes = storeValue == NullValue.INSTANCE ? NULL_VALUE : objectMapper.writeValueAsBytes(storeValue);
+        } catch (JacksonException e) {
+            log.warn("Not caching {}::{}, value could not be serialized", name, key, e);
+            evict(key);
+            return;
+        }
+
+        lock.lock();
+        try {
+            near.remove(key);
+            offHeapReads.remove(key);
+            if (!offHeap.put(key, bytes)) {
+                near.put(key, storeValue);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        lock.lock();
+        try {
+            near.remove(key);
+            offHeapReads.remove(key);
+            offHeap.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            near.clear();
+            offHeapReads.clear();
+            offHeap.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("nearEntries", near.size());
+            stats.put("nearHits", nearHits);
+            stats.put("offHeapHits", offHeapHits);
+            stats.put("misses", misses);
+            stats.put("promotions", promotions);
+            stats.put("offHeap", offHeap.stats());
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
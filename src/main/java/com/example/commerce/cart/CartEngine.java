@@ -0,0 +1,424 @@
+package com.example.commerce.cart;
+
+import com.example.commerce.utils.journal.AppendOnlyJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind store for carts. Active carts live in memory, sharded by user id, and every edit
+ * takes only that cart's lock. An edit is appended to a local journal before it is applied, so it
+ * survives a crash; the database is brought up to date in batches by {@link #flushAndEvict()} and
+ * immediately by {@link #flush(Long)}. A journal entry is marked done once a flush has written
+ * its version or a later one, and carts that are clean and idle are dropped from memory. The
+ * journal forces concurrent edits of different carts to disk together, so an edit waits for at
+ * most one fsync in progress plus its own group's, not for one per edit ahead of it.
+ * A cart whose row disappears from the database, for instance because its user was deleted, is
+ * dropped with its unflushed edits at the next flush instead of being retried forever.
+ * <p>
+ * Carts are only consistent with the database after a flush, so with the engine enabled every
+ * request of a user must reach the same node.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class CartEngine {
+
+    private final CartWriter writer;
+    private final AppendOnlyJournal<CartSnapshot> journal;
+    private final int batchSize;
+    private final long idleTimeoutNanos;
+    private final ConcurrentHashMap<Long, CartState>[] shards;
+
+    // Edit versions are unique across carts and keep increasing across restarts
+    private final AtomicLong versions = new AtomicLong();
+    private final Object flushLock = new Object();
+
+    private final LongAdder edits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder flushedCarts = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder droppedCarts = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public CartEngine(CartWriter writer,
+                      ObjectMapper objectMapper,
+                      @Value("${cart.write-behind.journal-file:data/cart-engine.journal}") String journalFile,
+                      @Value("${cart.write-behind.journal-fsync:true}") boolean fsync,
+                      @Value("${cart.write-behind.shards:16}") int shardCount,
+                      @Value("${cart.write-behind.batch-size:500}") int batchSize,
+                      @Value("${cart.write-behind.idle-timeout-seconds:1800}") long idleTimeoutSeconds) {
+        this.writer = writer;
+        this.journal = new AppendOnlyJournal<>(Path.of(journalFile), objectMapper, CartSnapshot.class, fsync, 10_000);
+        this.batchSize = batchSize;
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+        this.shards = new ConcurrentHashMap[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Map<Long, CartState> recovered = new HashMap<>();
+        long maxVersion = 0;
+        for (CartSnapshot snapshot : journal.open()) {
+            CartState state = recovered.computeIfAbsent(snapshot.userId(), CartState::new);
+            if (snapshot.version() > state.version) {
+                state.apply(snapshot);
+            }
+            state.journaledVersions.add(snapshot.version());
+            maxVersion = Math.max(maxVersion, snapshot.version());
+        }
+        // Dirty until flushed, since nothing says the database saw these edits
+        recovered.forEach((userId, state) -> {
+            state.loaded = true;
+            state.lastAccessNanos = System.nanoTime();
+            shard(userId).put(userId, state);
+        });
+        versions.set(Math.max(maxVersion, System.currentTimeMillis() * 1000));
+        if (!recovered.isEmpty()) {
+            log.info("Cart engine recovered {} carts from the journal", recovered.size());
+        }
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        flushAll();
+        journal.close();
+    }
+
+    public CartSnapshot get(Long userId) {
+        CartState state = acquire(userId);
+        try {
+            return state.snapshot();
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Applies an edit to the user's cart. The edit receives a copy of the quantities and may throw
+     * to reject the change; a change is journaled before it becomes visible.
+     *
+     * @return the cart after the edit
+     */
+    public CartSnapshot update(Long userId, Consumer<Map<Long, Integer>> edit) {
+        CartState state = acquire(userId);
+        try {
+            Map<Long, Integer> quantities = new LinkedHashMap<>(state.quantities);
+            edit.accept(quantities);
+            if (quantities.equals(state.quantities)) {
+                return state.snapshot();
+            }
+            Map<Long, Long> itemIds = new HashMap<>(state.itemIds);
+            itemIds.keySet().retainAll(quantities.keySet());
+            CartSnapshot snapshot = new CartSnapshot(userId, state.cartId, versions.incrementAndGet(), quantities, itemIds);
+            try {
+                journal.append(journalKey(userId, snapshot.version()), snapshot);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not journal cart edit", e);
+            }
+            state.apply(snapshot);
+            state.journaledVersions.add(snapshot.version());
+            edits.increment();
+            return snapshot;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the user's cart now, for callers that need it in the database, such as checkout. A
+     * failed write is logged and the cart stays dirty for the next scheduled flush.
+     */
+    public void flush(Long userId) {
+        CartState state = shard(userId).get(userId);
+        if (state != null) {
+            flush(List.of(state));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public void flushAndEvict() {
+        flushAll();
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<Long, CartState> shard : shards) {
+            for (CartState state : shard.values()) {
+                // A busy cart is not idle, so never wait for its lock
+                if (!state.lock.tryLock()) {
+                    continue;
+                }
+                try {
+                    if (state.loaded && !state.isDirty() && state.journaledVersions.isEmpty()
+                            && now - state.lastAccessNanos >= idleTimeoutNanos) {
+                        state.evicted = true;
+                        shard.remove(state.userId, state);
+                        evictions.increment();
+                    }
+                } finally {
+                    state.lock.unlock();
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        int carts = 0;
+        int dirty = 0;
+        for (ConcurrentHashMap<Long, CartState> shard : shards) {
+            for (CartState state : shard.values()) {
+                carts++;
+                // Read without the lock; a metric may be a flush behind
+                if (state.isDirty()) {
+                    dirty++;
+                }
+            }
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("shards", shards.length);
+        metrics.put("carts", carts);
+        metrics.put("dirtyCarts", dirty);
+        metrics.put("edits", edits.sum());
+        metrics.put("loads", loads.sum());
+        metrics.put("flushBatches", batches.sum());
+        metrics.put("flushedCarts", flushedCarts.sum());
+        metrics.put("failedFlushes", failedFlushes.sum());
+        metrics.put("evictions", evictions.sum());
+        metrics.put("droppedCarts", droppedCarts.sum());
+        metrics.put("journalPending", journal.pendingCount());
+        metrics.put("journalForces", journal.forceCount());
+        return metrics;
+    }
+
+    // ==================== FLUSHING ====================
+
+    private void flushAll() {
+        List<CartState> states = new ArrayList<>();
+        for (ConcurrentHashMap<Long, CartState> shard : shards) {
+            states.addAll(shard.values());
+        }
+        flush(states);
+    }
+
+    /**
+     * Writes the dirty carts among {@code states}. Flushes run one at a time so an older snapshot
+     * of a cart can never be written after a newer one.
+     */
+    private void flush(List<CartState> states) {
+        synchronized (flushLock) {
+            List<CartSnapshot> dirty = new ArrayList<>();
+            for (CartState state : states) {
+                state.lock.lock();
+                try {
+                    if (state.loaded && !state.evicted && state.isDirty()) {
+                        dirty.add(state.snapshot());
+                    }
+                } finally {
+                    state.lock.unlock();
+                }
+            }
+            for (int from = 0; from < dirty.size(); from += batchSize) {
+                writeBatch(dirty.subList(from, Math.min(from + batchSize, dirty.size())));
+            }
+        }
+    }
+
+    private void writeBatch(List<CartSnapshot> batch) {
+        batches.increment();
+        List<String> doneKeys = new ArrayList<>();
+        try {
+            CartWriter.Written written = writer.write(batch);
+            for (CartSnapshot snapshot : batch) {
+                doneKeys.addAll(afterWrite(snapshot, written));
+            }
+        } catch (RuntimeException batchFailure) {
+            // Isolate the cart that broke the batch so the others still go through
+            log.warn("Flushing a batch of {} carts failed, retrying one by one", batch.size(), batchFailure);
+            for (CartSnapshot snapshot : batch) {
+                try {
+                    doneKeys.addAll(afterWrite(snapshot, writer.write(List.of(snapshot))));
+                } catch (RuntimeException e) {
+                    failedFlushes.increment();
+                    log.error("Could not flush cart {} of user {}, keeping it dirty", snapshot.cartId(), snapshot.userId(), e);
+                }
+            }
+        }
+
+        try {
+            journal.complete(doneKeys);
+        } catch (IOException e) {
+            // The carts are written; replaying these entries only writes the same contents again
+            log.error("Could not mark {} cart edits done in the journal", doneKeys.size(), e);
+        }
+    }
+
+    private List<String> afterWrite(CartSnapshot snapshot, CartWriter.Written written) {
+        if (written.missingCartIds().contains(snapshot.cartId())) {
+            return dropped(snapshot);
+        }
+        return flushed(snapshot, written.itemIds().getOrDefault(snapshot.cartId(), Map.of()));
+    }
+
+    /**
+     * Records that {@code snapshot} is in the database.
+     *
+     * @return journal keys no longer needed for recovery
+     */
+    private List<String> flushed(CartSnapshot snapshot, Map<Long, Long> writtenItemIds) {
+        flushedCarts.increment();
+        // Dirty carts are never evicted, so the state is still the one the snapshot came from
+        CartState state = shard(snapshot.userId()).get(snapshot.userId());
+        if (state == null) {
+            return List.of();
+        }
+        state.lock.lock();
+        try {
+            state.flushedVersion = Math.max(state.flushedVersion, snapshot.version());
+            writtenItemIds.forEach((productId, itemId) -> {
+                if (state.quantities.containsKey(productId)) {
+                    state.itemIds.put(productId, itemId);
+                }
+            });
+            List<String> keys = new ArrayList<>();
+            state.journaledVersions.removeIf(version -> {
+                if (version <= state.flushedVersion) {
+                    keys.add(journalKey(state.userId, version));
+                    return true;
+                }
+                return false;
+            });
+            return keys;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets a cart whose row was deleted, e.g. together with its user, along with its unflushed
+     * edits. Writing them could never succeed. The next use of the user's cart loads it afresh.
+     *
+     * @return journal keys of the dropped edits
+     */
+    private List<String> dropped(CartSnapshot snapshot) {
+        ConcurrentHashMap<Long, CartState> shard = shard(snapshot.userId());
+        CartState state = shard.get(snapshot.userId());
+        if (state == null) {
+            return List.of();
+        }
+        state.lock.lock();
+        try {
+            droppedCarts.increment();
+            log.warn("Cart {} of user {} no longer exists, dropping {} unflushed edits",
+                    snapshot.cartId(), snapshot.userId(), state.journaledVersions.size());
+            state.evicted = true;
+            shard.remove(state.userId, state);
+            List<String> keys = state.journaledVersions.stream()
+                    .map(version -> journalKey(state.userId, version))
+                    .toList();
+            state.journaledVersions.clear();
+            return keys;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * @return the user's cart, loaded and locked by the calling thread
+     */
+    private CartState acquire(Long userId) {
+        ConcurrentHashMap<Long, CartState> shard = shard(userId);
+        while (true) {
+            CartState state = shard.computeIfAbsent(userId, CartState::new);
+            state.lock.lock();
+            if (state.evicted) {
+                // Evicted between the lookup and the lock; the next lookup creates a fresh one
+                state.lock.unlock();
+                continue;
+            }
+            if (!state.loaded) {
+                try {
+                    state.apply(writer.load(userId));
+                    state.loaded = true;
+                    loads.increment();
+                } catch (RuntimeException e) {
+                    state.evicted = true;
+                    shard.remove(userId, state);
+                    state.lock.unlock();
+                    throw e;
+                }
+            }
+            state.lastAccessNanos = System.nanoTime();
+            return state;
+        }
+    }
+
+    private ConcurrentHashMap<Long, CartState> shard(Long userId) {
+        return shards[Math.floorMod(Long.hashCode(userId), shards.length)];
+    }
+
+    private static String journalKey(Long userId, long version) {
+        return userId + ":" + version;
+    }
+
+    /**
+     * One cart in memory. Everything but the lock is guarded by the lock.
+     */
+    private static final class CartState {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Long userId;
+        Long cartId;
+        boolean loaded;
+        boolean evicted;
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, Long> itemIds = new HashMap<>();
+        long version;
+        long flushedVersion;
+        final List<Long> journaledVersions = new ArrayList<>();
+        long lastAccessNanos;
+
+        CartState(Long userId) {
+            this.userId = userId;
+        }
+
+        void apply(CartSnapshot snapshot) {
+            cartId = snapshot.cartId();
+            quantities = new LinkedHashMap<>(snapshot.quantities());
+            itemIds = new HashMap<>(snapshot.itemIds());
+            version = snapshot.version();
+        }
+
+        boolean isDirty() {
+            return version != flushedVersion;
+        }
+
+        CartSnapshot snapshot() {
+            return new CartSnapshot(userId, cartId, version, new LinkedHashMap<>(quantities), new HashMap<>(itemIds));
+        }
+    }
+}
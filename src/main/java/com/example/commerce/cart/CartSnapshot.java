@@ -0,0 +1,14 @@
+package com.example.commerce.cart;
+
+import java.util.Map;
+
+/**
+ * The contents of one cart at one version. This is what the cart journal stores, so it must stay
+ * serialisable as JSON.
+ *
+ * @param version    engine-wide increasing edit number; the highest journaled version of a cart wins on replay
+ * @param quantities quantity per product id, in the order the products were added
+ * @param itemIds    cart_items id per product id, for lines that have been written
+ */
+public record CartSnapshot(Long userId, Long cartId, long version, Map<Long, Integer> quantities,
+                           Map<Long, Long> itemIds) {}
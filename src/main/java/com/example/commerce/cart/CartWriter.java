@@ -0,0 +1,167 @@
+package com.example.commerce.cart;
+
+import com.example.commerce.errorhandlers.ResourceNotFoundException;
+import com.example.commerce.repositories.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes whole carts for the {@link CartEngine} with plain JDBC. A batch of carts is
+ * written with three statements regardless of its size, each joining against {@code unnest} of
+ * parallel arrays: one deleting lines no longer in their cart, one updating changed lines and
+ * inserting new ones, one touching the carts. Lines for products that have since been deleted
+ * are skipped rather than failing the batch, and so are carts that have been deleted, for
+ * example with their user; those are reported back so the engine can drop them.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class CartWriter {
+
+    private static final String LOAD_SQL =
+            "SELECT c.id, i.id, i.product_id, i.quantity FROM carts c " +
+            "LEFT JOIN cart_items i ON i.cart_id = c.id WHERE c.user_id = ? ORDER BY i.id";
+
+    // The no-op update makes RETURNING yield the id when the cart already exists
+    private static final String CREATE_SQL =
+            "INSERT INTO carts (id, user_id, created_at, updated_at) " +
+            "VALUES (nextval('carts_seq'), ?, LOCALTIMESTAMP, LOCALTIMESTAMP) " +
+            "ON CONFLICT (user_id) DO UPDATE SET updated_at = carts.updated_at RETURNING id";
+
+    // Keeps the carts from being deleted until the batch commits
+    private static final String LOCK_SQL = "SELECT id FROM carts WHERE id = ANY(?::bigint[]) FOR KEY SHARE";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM cart_items AS i WHERE i.cart_id = ANY(?::bigint[]) AND NOT EXISTS (" +
+            "SELECT 1 FROM unnest(?::bigint[], ?::bigint[]) AS r(cart_id, product_id) " +
+            "WHERE r.cart_id = i.cart_id AND r.product_id = i.product_id)";
+
+    // Changed lines are updated first and nextval is only called for lines that are missing, since
+    // every call uses up a whole block of ids; ON CONFLICT still covers a racing insert
+    private static final String UPSERT_SQL =
+            "WITH r AS (SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::integer[]) AS r(cart_id, product_id, quantity)), " +
+            "updated AS (" +
+            "UPDATE cart_items AS i SET quantity = r.quantity, updated_at = LOCALTIMESTAMP FROM r " +
+            "WHERE i.cart_id = r.cart_id AND i.product_id = r.product_id AND i.quantity <> r.quantity " +
+            "RETURNING i.cart_id, i.product_id, i.id), " +
+            "inserted AS (" +
+            "INSERT INTO cart_items (id, cart_id, product_id, quantity, created_at, updated_at) " +
+            "SELECT nextval('cart_items_seq'), r.cart_id, r.product_id, r.quantity, LOCALTIMESTAMP, LOCALTIMESTAMP FROM r " +
+            "WHERE NOT EXISTS (SELECT 1 FROM cart_items i WHERE i.cart_id = r.cart_id AND i.product_id = r.product_id) " +
+            "AND EXISTS (SELECT 1 FROM products p WHERE p.id = r.product_id) " +
+            "ON CONFLICT (cart_id, product_id) DO UPDATE SET " +
+            "quantity = EXCLUDED.quantity, updated_at = EXCLUDED.updated_at " +
+            "RETURNING cart_id, product_id, id) " +
+            "SELECT cart_id, product_id, id FROM updated UNION ALL SELECT cart_id, product_id, id FROM inserted";
+
+    private static final String TOUCH_SQL = "UPDATE carts SET updated_at = LOCALTIMESTAMP WHERE id = ANY(?::bigint[])";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+
+    public CartWriter(JdbcTemplate jdbcTemplate, UserRepository userRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Reads a user's cart, creating an empty one if the user has none yet.
+     *
+     * @return the stored cart at version 0
+     */
+    @Transactional
+    public CartSnapshot load(Long userId) {
+        Long[] cartId = {null};
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, Long> itemIds = new HashMap<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            cartId[0] = rs.getLong(1);
+            long itemId = rs.getLong(2);
+            if (!rs.wasNull()) {
+                quantities.put(rs.getLong(3), rs.getInt(4));
+                itemIds.put(rs.getLong(3), itemId);
+            }
+        }, userId);
+
+        if (cartId[0] == null) {
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("User not found with ID: " + userId);
+            }
+            cartId[0] = jdbcTemplate.queryForObject(CREATE_SQL, Long.class, userId);
+        }
+        return new CartSnapshot(userId, cartId[0], 0, quantities, itemIds);
+    }
+
+    /**
+     * Makes the stored carts match the snapshots in one transaction. Snapshots of carts that no
+     * longer exist are not written.
+     */
+    @Transactional
+    public Written write(List<CartSnapshot> snapshots) {
+        Map<Long, Map<Long, Long>> itemIds = new HashMap<>();
+        if (snapshots.isEmpty()) {
+            return new Written(itemIds, Set.of());
+        }
+        Set<Long> existing = new HashSet<>(jdbcTemplate.query(LOCK_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint",
+                        snapshots.stream().map(CartSnapshot::cartId).toArray(Long[]::new))),
+                (rs, row) -> rs.getLong(1)));
+        Set<Long> missing = new HashSet<>();
+        List<CartSnapshot> present = new ArrayList<>();
+        for (CartSnapshot snapshot : snapshots) {
+            if (existing.contains(snapshot.cartId())) {
+                present.add(snapshot);
+            } else {
+                missing.add(snapshot.cartId());
+            }
+        }
+        if (present.isEmpty()) {
+            return new Written(itemIds, missing);
+        }
+        Long[] cartIds = present.stream().map(CartSnapshot::cartId).toArray(Long[]::new);
+        List<Long> lineCarts = new ArrayList<>();
+        List<Long> lineProducts = new ArrayList<>();
+        List<Integer> lineQuantities = new ArrayList<>();
+        for (CartSnapshot snapshot : present) {
+            snapshot.quantities().forEach((productId, quantity) -> {
+                lineCarts.add(snapshot.cartId());
+                lineProducts.add(productId);
+                lineQuantities.add(quantity);
+            });
+        }
+        Long[] carts = lineCarts.toArray(Long[]::new);
+        Long[] products = lineProducts.toArray(Long[]::new);
+
+        jdbcTemplate.update(DELETE_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", cartIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", carts));
+            ps.setArray(3, ps.getConnection().createArrayOf("bigint", products));
+        });
+        if (carts.length > 0) {
+            jdbcTemplate.query(UPSERT_SQL, ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", carts));
+                ps.setArray(2, ps.getConnection().createArrayOf("bigint", products));
+                ps.setArray(3, ps.getConnection().createArrayOf("integer", lineQuantities.toArray(Integer[]::new)));
+            }, rs -> {
+                itemIds.computeIfAbsent(rs.getLong(1), id -> new HashMap<>()).put(rs.getLong(2), rs.getLong(3));
+            });
+        }
+        jdbcTemplate.update(TOUCH_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", cartIds)));
+        return new Written(itemIds, missing);
+    }
+
+    /**
+     * @param itemIds        ids of lines inserted or changed, per cart id and product id
+     * @param missingCartIds carts that were not written because they no longer exist
+     */
+    public record Written(Map<Long, Map<Long, Long>> itemIds, Set<Long> missingCartIds) {}
+}
@@ -1,13 +1,28 @@
 package com.example.commerce.config;
 
 import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import com.example.commerce.cache.CacheInvalidationBus;
+import com.example.commerce.cache.LocalCacheInvalidationBus;
 import com.example.commerce.cache.MonitoredCacheManager;
+import com.example.commerce.cache.PostgresCacheInvalidationBus;
+import com.example.commerce.cache.TieredCache;
+import com.example.commerce.dtos.responses.PagedResponse;
+import com.example.commerce.dtos.responses.ProductResponseDTO;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.type.TypeFactory;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @EnableCaching
@@ -16,13 +31,32 @@ public class CacheConfig {
 
     private final PerformanceMonitoringAspect performanceMonitor;
 
+    @Value("${cache.tiered.slab-size-kb:1024}")
+    private int slabSizeKb;
+
+    @Value("${cache.tiered.max-slabs:64}")
+    private int maxSlabs;
+
+    @Value("${cache.tiered.near-entries:32}")
+    private int nearEntries;
+
+    @Value("${cache.tiered.promote-after-hits:2}")
+    private int promoteAfterHits;
+
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CacheInvalidationBus cacheInvalidationBus, ObjectMapper objectMapper) {
+        TypeFactory types = objectMapper.getTypeFactory();
+        List<Cache> caches = new ArrayList<>();
+
+        // Catalog listings are large and cached for every page size, so they live off-heap
+        caches.add(tiered("allProducts", objectMapper,
+                types.constructParametricType(PagedResponse.class, ProductResponseDTO.class)));
+        caches.add(tiered("allProductsList", objectMapper,
+                types.constructCollectionType(List.class, ProductResponseDTO.class)));
+
         // Use in-memory cache - no serialization needed
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(
+        for (String name : List.of(
                 // Product caches
-                "allProducts",
-                "allProductsList",
                 "productById",
                 "productByName",
                 // Category caches
@@ -36,10 +70,41 @@ public class CacheConfig {
                 "userById",
                 "userByEmail",
                 // Cart caches
-                "cartByUserId"
-        );
-        
-        // Wrap with monitoring
-        return new MonitoredCacheManager(cacheManager, performanceMonitor);
+                "cartByUserId")) {
+            caches.add(new ConcurrentMapCache(name));
+        }
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        cacheManager.initializeCaches();
+
+        // Wrap with monitoring; evictions are shared with the other instances over the bus
+        return new MonitoredCacheManager(cacheManager, performanceMonitor, cacheInvalidationBus);
+    }
+
+    /**
+     * "postgres" broadcasts invalidations to every instance on the same database; "local" keeps
+     * them in this instance, for single-node runs.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheInvalidationBus cacheInvalidationBus(@Value("${cache.invalidation.bus:local}") String bus,
+                                                     @Value("${cache.invalidation.channel:cache_invalidation}") String channel,
+                                                     @Value("${cache.invalidation.flush-interval-ms:50}") int flushIntervalMs,
+                                                     @Value("${cache.invalidation.max-pending:10000}") int maxPending,
+                                                     @Value("${spring.datasource.url:}") String url,
+                                                     @Value("${spring.datasource.username:}") String username,
+                                                     @Value("${spring.datasource.password:}") String password,
+                                                     ObjectMapper objectMapper) {
+        if (!"postgres".equalsIgnoreCase(bus)) {
+            return new LocalCacheInvalidationBus();
+        }
+        PostgresCacheInvalidationBus postgresBus = new PostgresCacheInvalidationBus(
+                url, username, password, channel, flushIntervalMs, maxPending, objectMapper);
+        postgresBus.start();
+        return postgresBus;
+    }
+
+    private TieredCache tiered(String name, ObjectMapper objectMapper, JavaType valueType) {
+        return new TieredCache(name, objectMapper, valueType, slabSizeKb * 1024, maxSlabs, nearEntries, promoteAfterHits);
     }
 }
@@ -0,0 +1,68 @@
+package com.example.commerce.config;
+
+import com.example.commerce.cache.CatalogVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conditional GET for the public catalog endpoints. The ETag is the {@link CatalogVersion}, so a
+ * matching {@code If-None-Match} is answered with 304 before the controller or any service runs.
+ * The version is read before the body is built, so a body is never older than its tag.
+ */
+@Component
+public class CatalogETagInterceptor implements HandlerInterceptor {
+
+    private final CatalogVersion catalogVersion;
+    private final String cacheControl;
+
+    public CatalogETagInterceptor(CatalogVersion catalogVersion,
+                                  @Value("${catalog.http-cache.max-age-seconds:30}") long maxAgeSeconds) {
+        this.catalogVersion = catalogVersion;
+        this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS)
+                .cachePublic()
+                .mustRevalidate()
+                .getHeaderValue();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        String etag = catalogVersion.etag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
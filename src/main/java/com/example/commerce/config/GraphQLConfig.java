@@ -0,0 +1,16 @@
+package com.example.commerce.config;
+
+import com.example.commerce.graphql.instrumentation.CachingDocumentProvider;
+import org.springframework.boot.graphql.autoconfigure.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class GraphQLConfig {
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer documentCachingCustomizer(CachingDocumentProvider documentProvider) {
+        // Parsed and validated documents are reused across requests; see CachingDocumentProvider
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentProvider));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.commerce.config;
+
+import com.example.commerce.monitoring.QueryCountInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QueryMonitoringConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingCustomizer(QueryCountInspector queryCountInspector) {
+        // Register the Spring-managed inspector instance so every session reports into it
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCountInspector);
+    }
+}
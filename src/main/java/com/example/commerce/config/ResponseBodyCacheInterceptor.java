@@ -0,0 +1,62 @@
+package com.example.commerce.config;
+
+import com.example.commerce.cache.ResponseBodyCache;
+import com.example.commerce.cache.ResponseBodyCache.CachedBody;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Answers hot catalog reads straight from the {@link ResponseBodyCache}. Registered after the
+ * auth and role interceptors, so a cached body is only served to a caller allowed to see it.
+ */
+@Component
+public class ResponseBodyCacheInterceptor implements HandlerInterceptor {
+
+    private final ResponseBodyCache responseBodyCache;
+
+    public ResponseBodyCacheInterceptor(ResponseBodyCache responseBodyCache) {
+        this.responseBodyCache = responseBodyCache;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws IOException {
+        if (!responseBodyCache.isCacheable(request)) {
+            return true;
+        }
+        // Cached copies may be gzipped, so every response on these routes depends on Accept-Encoding,
+        // including the one that fills the cache
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        CachedBody cached = responseBodyCache.lookup(request);
+        if (cached == null) {
+            return true;
+        }
+
+        // Skip the capturing wrapper; these bytes are already cached
+        HttpServletResponse target = response instanceof ContentCachingResponseWrapper wrapper
+                ? (HttpServletResponse) wrapper.getResponse()
+                : response;
+        byte[] body = cached.body();
+        target.setStatus(HttpServletResponse.SC_OK);
+        target.setContentType(cached.contentType());
+        if (cached.gzipped() != null && acceptsGzip(request)) {
+            body = cached.gzipped();
+            target.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        target.setContentLength(body.length);
+        target.getOutputStream().write(body);
+        return false;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+}
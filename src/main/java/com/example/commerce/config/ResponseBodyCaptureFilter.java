@@ -0,0 +1,53 @@
+package com.example.commerce.config;
+
+import com.example.commerce.cache.ResponseBodyCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Buffers the body of cacheable catalog reads and, when {@link ResponseBodyCacheInterceptor}
+ * marked the request as a miss, stores the serialized JSON in the {@link ResponseBodyCache}.
+ */
+@Component
+public class ResponseBodyCaptureFilter extends OncePerRequestFilter {
+
+    private final ResponseBodyCache responseBodyCache;
+
+    public ResponseBodyCaptureFilter(ResponseBodyCache responseBodyCache) {
+        this.responseBodyCache = responseBodyCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !responseBodyCache.isCacheable(request);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+
+            String contentType = wrapper.getContentType();
+            if (request.getAttribute(ResponseBodyCache.PENDING_ATTRIBUTE) instanceof ResponseBodyCache.Pending pending
+                    && wrapper.getStatus() == HttpServletResponse.SC_OK
+                    && contentType != null
+                    && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+                responseBodyCache.store(pending, wrapper.getContentAsByteArray(), contentType);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.commerce.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the pooled id sequences past any ids already present in their tables.
+ * Tables created before the switch from IDENTITY columns contain rows the freshly
+ * created sequences know nothing about; runs before {@code SeedData} inserts anything.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SequenceAlignment implements CommandLineRunner {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "carts_seq", "carts",
+            "cart_items_seq", "cart_items",
+            "categories_seq", "categories",
+            "inventory_seq", "inventory",
+            "products_seq", "products",
+            "reviews_seq", "reviews",
+            "users_seq", "users"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        SEQUENCES.forEach((sequence, table) -> {
+            // Never move a sequence backwards: another instance may already hold a block from it
+            Long next = jdbcTemplate.queryForObject(
+                    "SELECT setval('" + sequence + "', GREATEST(" +
+                            "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + table + "), " +
+                            "(SELECT CASE WHEN is_called THEN last_value + " + ALLOCATION_SIZE + " ELSE last_value END FROM " + sequence + ")" +
+                            "), false)",
+                    Long.class);
+            log.debug("Sequence {} aligned, next block starts at {}", sequence, next);
+        });
+    }
+}
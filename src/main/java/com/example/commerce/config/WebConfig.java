@@ -8,19 +8,31 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebConfig implements WebMvcConfigurer {
     private final AuthInterceptor authInterceptor;
     private final RoleInterceptor roleInterceptor;
+    private final CatalogETagInterceptor catalogETagInterceptor;
+    private final ResponseBodyCacheInterceptor responseBodyCacheInterceptor;
 
-    public WebConfig(AuthInterceptor authInterceptor, RoleInterceptor roleInterceptor) {
+    public WebConfig(AuthInterceptor authInterceptor, RoleInterceptor roleInterceptor,
+                     CatalogETagInterceptor catalogETagInterceptor,
+                     ResponseBodyCacheInterceptor responseBodyCacheInterceptor) {
         this.authInterceptor = authInterceptor;
         this.roleInterceptor = roleInterceptor;
+        this.catalogETagInterceptor = catalogETagInterceptor;
+        this.responseBodyCacheInterceptor = responseBodyCacheInterceptor;
     }
 
     @Override
     public void addInterceptors(org.springframework.web.servlet.config.annotation.InterceptorRegistry registry) {
+        registry.addInterceptor(catalogETagInterceptor)
+                .addPathPatterns("/api/products/public/**", "/api/categories/public/**");
+
         registry.addInterceptor(authInterceptor)
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/users/login", "/api/users/register", "/api/products/public/**", "/api/categories/public/**");
 
         registry.addInterceptor(roleInterceptor)
                 .addPathPatterns("/api/**");
+
+        registry.addInterceptor(responseBodyCacheInterceptor)
+                .addPathPatterns("/api/products/public/all");
     }
 }
@@ -0,0 +1,78 @@
+package com.example.commerce.controllers;
+
+import com.example.commerce.config.RequiresRole;
+import com.example.commerce.enums.UserRole;
+import com.example.commerce.services.ExportService;
+import com.example.commerce.utils.export.ExportFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Streaming exports. The body is written on the request thread while the rows are read, so
+ * nothing is buffered and no async timeout applies to long exports.
+ */
+@Tag(name = "Data Export")
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @Operation(summary = "Export orders as NDJSON or CSV", description = "Optionally limited to orders created between two dates, inclusive")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/orders")
+    public void exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        prepare(response, exportFormat, "orders");
+        exportService.exportOrders(exportFormat, from, to, response.getOutputStream());
+    }
+
+    @Operation(summary = "Export products as NDJSON or CSV")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/products")
+    public void exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        prepare(response, exportFormat, "products");
+        exportService.exportProducts(exportFormat, response.getOutputStream());
+    }
+
+    @Operation(summary = "Export users as NDJSON or CSV")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/users")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        prepare(response, exportFormat, "users");
+        exportService.exportUsers(exportFormat, response.getOutputStream());
+    }
+
+    private static void prepare(HttpServletResponse response, ExportFormat format, String name) {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + "." + format.getExtension())
+                .build()
+                .toString());
+    }
+}
@@ -2,12 +2,17 @@ package com.example.commerce.controllers;
 
 import com.example.commerce.config.RequiresRole;
 import com.example.commerce.dtos.requests.AddOrderDTO;
+import com.example.commerce.dtos.requests.BulkOrderDTO;
 import com.example.commerce.dtos.requests.UpdateOrderDTO;
 import com.example.commerce.dtos.responses.ApiResponse;
+import com.example.commerce.dtos.responses.BulkOrderResponseDTO;
 import com.example.commerce.dtos.responses.OrderResponseDTO;
 import com.example.commerce.dtos.responses.PagedResponse;
 import com.example.commerce.enums.UserRole;
+import com.example.commerce.errorhandlers.ResourceNotFoundException;
 import com.example.commerce.interfaces.IOrderService;
+import com.example.commerce.pipeline.OrderPipeline;
+import com.example.commerce.pipeline.OrderTicket;
 import com.example.commerce.utils.sorting.SortingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,10 +32,12 @@ import java.util.List;
 public class OrderController {
     private final IOrderService orderService;
     private final SortingService sortingService;
+    private final OrderPipeline orderPipeline;
 
-    public OrderController(IOrderService orderService, SortingService sortingService) {
+    public OrderController(IOrderService orderService, SortingService sortingService, OrderPipeline orderPipeline) {
         this.orderService = orderService;
         this.sortingService = sortingService;
+        this.orderPipeline = orderPipeline;
     }
 
     @Operation(summary = "Create a new order")
@@ -46,6 +53,49 @@ public class OrderController {
         return ResponseEntity.ok(apiResponse);
     }
 
+    @Operation(summary = "Create a new order asynchronously", description = "Checks the order against current stock and returns a ticket to poll; stock is reserved when the order is written in the background, so an accepted order can still fail if the stock is gone by then")
+    @RequiresRole({UserRole.CUSTOMER, UserRole.ADMIN})
+    @PostMapping(value = "/create", params = "async=true")
+    public ResponseEntity<ApiResponse<OrderTicket>> createOrderAsync(
+            @Valid @RequestBody AddOrderDTO request,
+            HttpServletRequest httpRequest) {
+        Long authenticatedUserId = (Long) httpRequest.getAttribute("authenticatedUserId");
+        request.setUserId(authenticatedUserId);
+        OrderTicket ticket = orderPipeline.submit(request);
+        ApiResponse<OrderTicket> apiResponse = new ApiResponse<>(HttpStatus.ACCEPTED.value(), "Order accepted for processing", ticket);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(apiResponse);
+    }
+
+    @Operation(summary = "Get the progress of an asynchronously created order")
+    @RequiresRole({UserRole.CUSTOMER, UserRole.ADMIN})
+    @GetMapping("/async/{ticketId}")
+    public ResponseEntity<ApiResponse<OrderTicket>> getOrderTicket(
+            @PathVariable String ticketId,
+            HttpServletRequest httpRequest) {
+        OrderTicket ticket = orderPipeline.getTicket(ticketId);
+        Long authenticatedUserId = (Long) httpRequest.getAttribute("authenticatedUserId");
+        boolean admin = UserRole.ADMIN.name().equals(httpRequest.getAttribute("authenticatedUserRole"));
+        if (!admin && !ticket.getUserId().equals(authenticatedUserId)) {
+            throw new ResourceNotFoundException("Order ticket not found: " + ticketId);
+        }
+        ApiResponse<OrderTicket> apiResponse = new ApiResponse<>(HttpStatus.OK.value(), "Order ticket fetched successfully", ticket);
+        return ResponseEntity.ok(apiResponse);
+    }
+
+    @Operation(summary = "Create many orders in one request", description = "Each order succeeds or fails on its own; results are returned in submission order")
+    @RequiresRole({UserRole.CUSTOMER, UserRole.ADMIN})
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<BulkOrderResponseDTO>> createOrdersBulk(
+            @Valid @RequestBody BulkOrderDTO request,
+            HttpServletRequest httpRequest) {
+        Long authenticatedUserId = (Long) httpRequest.getAttribute("authenticatedUserId");
+        request.getOrders().forEach(order -> order.setUserId(authenticatedUserId));
+        BulkOrderResponseDTO result = orderService.createOrdersBulk(request.getOrders());
+        ApiResponse<BulkOrderResponseDTO> apiResponse = new ApiResponse<>(HttpStatus.OK.value(),
+                result.getSucceeded() + " of " + result.getSubmitted() + " orders created", result);
+        return ResponseEntity.ok(apiResponse);
+    }
+
     @RequiresRole(UserRole.ADMIN)
     @GetMapping("/all")
     public ResponseEntity<ApiResponse<PagedResponse<OrderResponseDTO>>> getAllOrders(
@@ -0,0 +1,60 @@
+package com.example.commerce.controllers;
+
+import com.example.commerce.config.RequiresRole;
+import com.example.commerce.dtos.responses.ApiResponse;
+import com.example.commerce.enums.UserRole;
+import com.example.commerce.outbox.OrderAnalyticsSubscriber;
+import com.example.commerce.outbox.OutboxEvent;
+import com.example.commerce.outbox.OutboxRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@Tag(name = "Change Feed")
+@RestController
+@RequestMapping("/api/outbox")
+public class OutboxController {
+
+    private final OutboxRelay outboxRelay;
+    private final OrderAnalyticsSubscriber orderAnalytics;
+
+    public OutboxController(OutboxRelay outboxRelay, OrderAnalyticsSubscriber orderAnalytics) {
+        this.outboxRelay = outboxRelay;
+        this.orderAnalytics = orderAnalytics;
+    }
+
+    @Operation(summary = "Read order and inventory change events after a given event id")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/events")
+    public ResponseEntity<ApiResponse<List<OutboxEvent>>> getEvents(
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<OutboxEvent> events = outboxRelay.readFeed(afterId, limit);
+        ApiResponse<List<OutboxEvent>> response = new ApiResponse<>(HttpStatus.OK.value(), "Events fetched successfully", events);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get outbox relay throughput, backlog and subscriber failures")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/metrics")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getMetrics() {
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(HttpStatus.OK.value(), "Outbox metrics retrieved successfully", outboxRelay.metrics());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get order analytics built from the change feed", description = "Node-local running counts since this node started, over the events its own relay delivered")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/analytics")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAnalytics() {
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(HttpStatus.OK.value(), "Order analytics retrieved successfully", orderAnalytics.snapshot());
+        return ResponseEntity.ok(response);
+    }
+}
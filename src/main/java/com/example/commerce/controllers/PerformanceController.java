@@ -1,11 +1,21 @@
 package com.example.commerce.controllers;
 
 import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import com.example.commerce.cache.ResponseBodyCache;
+import com.example.commerce.cache.TieredCache;
+import com.example.commerce.cart.CartEngine;
 import com.example.commerce.config.RequiresRole;
 import com.example.commerce.dtos.responses.ApiResponse;
 import com.example.commerce.enums.UserRole;
+import com.example.commerce.graphql.instrumentation.CachingDocumentProvider;
+import com.example.commerce.monitoring.SlowQueryEntry;
+import com.example.commerce.monitoring.SlowQueryLog;
+import com.example.commerce.pipeline.OrderPipeline;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,6 +23,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Tag(name = "Performance Monitoring")
@@ -21,9 +33,24 @@ import java.util.Map;
 public class PerformanceController {
     
     private final PerformanceMonitoringAspect performanceAspect;
+    private final SlowQueryLog slowQueryLog;
+    private final OrderPipeline orderPipeline;
+    private final CacheManager cacheManager;
+    private final ResponseBodyCache responseBodyCache;
+    private final CachingDocumentProvider documentProvider;
+    private final ObjectProvider<CartEngine> cartEngine;
 
-    public PerformanceController(PerformanceMonitoringAspect performanceAspect) {
+    public PerformanceController(PerformanceMonitoringAspect performanceAspect, SlowQueryLog slowQueryLog,
+                                 OrderPipeline orderPipeline, CacheManager cacheManager,
+                                 ResponseBodyCache responseBodyCache, CachingDocumentProvider documentProvider,
+                                 ObjectProvider<CartEngine> cartEngine) {
         this.performanceAspect = performanceAspect;
+        this.slowQueryLog = slowQueryLog;
+        this.orderPipeline = orderPipeline;
+        this.cacheManager = cacheManager;
+        this.responseBodyCache = responseBodyCache;
+        this.documentProvider = documentProvider;
+        this.cartEngine = cartEngine;
     }
 
     @Operation(summary = "Get database fetch times")
@@ -44,6 +71,92 @@ public class PerformanceController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Get statements executed per endpoint")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/query-counts")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getQueryCounts() {
+        Map<String, Map<String, Object>> metrics = performanceAspect.getEndpointQueryCounts();
+        ApiResponse<Map<String, Map<String, Object>>> response = new ApiResponse<>(HttpStatus.OK.value(), "Query counts retrieved successfully", metrics);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get static cost, depth and rejections of GraphQL operations")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/graphql-costs")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getGraphQLCosts() {
+        Map<String, Map<String, Object>> metrics = performanceAspect.getGraphQLCosts();
+        ApiResponse<Map<String, Map<String, Object>>> response = new ApiResponse<>(HttpStatus.OK.value(), "GraphQL cost metrics retrieved successfully", metrics);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get hits and size of the parsed GraphQL document cache")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/graphql-documents")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGraphQLDocuments() {
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(HttpStatus.OK.value(), "GraphQL document cache metrics retrieved successfully", documentProvider.stats());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get near-cache and off-heap usage of the tiered caches")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/cache-tiers")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getCacheTiers() {
+        Map<String, Map<String, Object>> tiers = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof TieredCache tiered) {
+                tiers.put(name, tiered.stats());
+            }
+        }
+        ApiResponse<Map<String, Map<String, Object>>> response = new ApiResponse<>(HttpStatus.OK.value(), "Cache tier metrics retrieved successfully", tiers);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get hit rate and size of the serialized catalog response cache")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/response-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getResponseCache() {
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(HttpStatus.OK.value(), "Response cache metrics retrieved successfully", responseBodyCache.metrics());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get recent slow queries")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/slow-queries")
+    public ResponseEntity<ApiResponse<List<SlowQueryEntry>>> getSlowQueries() {
+        List<SlowQueryEntry> entries = slowQueryLog.getEntries();
+        ApiResponse<List<SlowQueryEntry>> response = new ApiResponse<>(HttpStatus.OK.value(), "Slow queries retrieved successfully", entries);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Clear the slow query log")
+    @RequiresRole(UserRole.ADMIN)
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<ApiResponse<Void>> clearSlowQueries() {
+        slowQueryLog.clear();
+        ApiResponse<Void> response = new ApiResponse<>(HttpStatus.OK.value(), "Slow query log cleared successfully", null);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get queue depth and latency per order pipeline stage")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/order-pipeline")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getOrderPipelineMetrics() {
+        Map<String, Object> metrics = orderPipeline.metrics();
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(HttpStatus.OK.value(), "Order pipeline metrics retrieved successfully", metrics);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get cart counts, flush and eviction totals of the write-behind cart engine")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/cart-engine")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCartEngineMetrics() {
+        CartEngine engine = cartEngine.getIfAvailable();
+        Map<String, Object> metrics = engine != null ? engine.metrics() : Map.of("enabled", false);
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(HttpStatus.OK.value(), "Cart engine metrics retrieved successfully", metrics);
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Clear performance metrics")
     @RequiresRole(UserRole.ADMIN)
     @DeleteMapping("/clear-metrics")
@@ -0,0 +1,57 @@
+package com.example.commerce.controllers;
+
+import com.example.commerce.config.RequiresRole;
+import com.example.commerce.dtos.responses.ApiResponse;
+import com.example.commerce.enums.UserRole;
+import com.example.commerce.monitoring.FlightRecorderProfiler;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Map;
+
+@Tag(name = "Performance Monitoring")
+@RestController
+@RequestMapping("/api/performance/profiling")
+public class ProfilingController {
+
+    private final FlightRecorderProfiler profiler;
+
+    public ProfilingController(FlightRecorderProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Operation(summary = "Start a JFR profiling recording")
+    @RequiresRole(UserRole.ADMIN)
+    @PostMapping("/start")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> startRecording() throws IOException, ParseException {
+        Map<String, Object> status = profiler.start();
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(HttpStatus.OK.value(), "Profiling started successfully", status);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Stop the JFR recording and summarise it")
+    @RequiresRole(UserRole.ADMIN)
+    @PostMapping("/stop")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> stopRecording() throws IOException {
+        Map<String, Object> summary = profiler.stop();
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(HttpStatus.OK.value(), "Profiling stopped successfully", summary);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get the profiling recording status")
+    @RequiresRole(UserRole.ADMIN)
+    @GetMapping("/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStatus() {
+        Map<String, Object> status = profiler.status();
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(HttpStatus.OK.value(), "Profiling status retrieved successfully", status);
+        return ResponseEntity.ok(response);
+    }
+}
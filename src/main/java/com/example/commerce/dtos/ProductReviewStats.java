@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -11,4 +13,6 @@ public class ProductReviewStats {
     private Long productId;
     private Double averageRating;
     private Long totalReviews;
+    // Number of 1 to 5 star reviews, in that order
+    private List<Long> ratingCounts;
 }
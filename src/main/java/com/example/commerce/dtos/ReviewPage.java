@@ -0,0 +1,10 @@
+package com.example.commerce.dtos;
+
+import java.util.List;
+
+/**
+ * One page of reviews, newest first.
+ *
+ * @param nextCursor opaque position to pass back for the following page, or null on the last page
+ */
+public record ReviewPage(List<ReviewResponseDTO> content, String nextCursor) {}
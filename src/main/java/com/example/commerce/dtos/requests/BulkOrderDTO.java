@@ -0,0 +1,16 @@
+package com.example.commerce.dtos.requests;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkOrderDTO {
+    @NotEmpty(message = "Bulk request must contain at least one order")
+    @Size(max = 1000, message = "A bulk request can contain at most 1000 orders")
+    @Valid
+    private List<AddOrderDTO> orders;
+}
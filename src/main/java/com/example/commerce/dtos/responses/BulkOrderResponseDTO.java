@@ -0,0 +1,17 @@
+package com.example.commerce.dtos.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResponseDTO {
+    private int submitted;
+    private int succeeded;
+    private int failed;
+    private List<BulkOrderResultDTO> results;
+}
@@ -0,0 +1,24 @@
+package com.example.commerce.dtos.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResultDTO {
+    private int index;
+    private boolean success;
+    private Long orderId;
+    private Double totalAmount;
+    private String error;
+
+    public static BulkOrderResultDTO succeeded(int index, Long orderId, Double totalAmount) {
+        return new BulkOrderResultDTO(index, true, orderId, totalAmount, null);
+    }
+
+    public static BulkOrderResultDTO failed(int index, String error) {
+        return new BulkOrderResultDTO(index, false, null, null, error);
+    }
+}
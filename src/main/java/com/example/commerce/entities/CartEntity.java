@@ -20,7 +20,8 @@ import java.util.List;
 @Entity
 public class CartEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+    @SequenceGenerator(name = "cart_seq", sequenceName = "carts_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne
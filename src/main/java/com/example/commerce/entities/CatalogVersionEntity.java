@@ -0,0 +1,25 @@
+package com.example.commerce.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The single row counting changes to the public catalog, shared by every instance so that they
+ * all hand out the same catalog ETag for the same data.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersionEntity {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long version;
+}
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class CategoryEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", sequenceName = "categories_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false, unique = true)
     private String name;
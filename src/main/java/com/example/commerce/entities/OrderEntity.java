@@ -34,6 +34,10 @@ public class OrderEntity {
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    // Set for orders placed through the asynchronous pipeline; makes journal replays idempotent
+    @Column(unique = true, updatable = false)
+    private String ticketId;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -0,0 +1,45 @@
+package com.example.commerce.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event one subscriber failed to handle. The relay retries it for that subscriber alone
+ * until it succeeds or runs out of attempts, after which the row stays as a dead letter.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_delivery_failures",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_delivery_failures_subscriber_event", columnNames = {"subscriber", "eventId"}),
+        indexes = @Index(name = "idx_outbox_delivery_failures_due", columnList = "deadLettered, nextAttemptAt"))
+public class OutboxDeliveryFailureEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String subscriber;
+
+    @Column(nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(columnDefinition = "text")
+    private String lastError;
+
+    @Column(nullable = false)
+    private boolean deadLettered;
+}
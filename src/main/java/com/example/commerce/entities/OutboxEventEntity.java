@@ -0,0 +1,43 @@
+package com.example.commerce.entities;
+
+import com.example.commerce.enums.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_published_at", columnList = "publishedAt, id"))
+public class OutboxEventEntity {
+    // Rows are inserted in bulk by OutboxPublisher, so the database assigns ids
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType eventType;
+
+    // JSON document describing the change
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Null until the relay has handed the event to the subscribers
+    private LocalDateTime publishedAt;
+}
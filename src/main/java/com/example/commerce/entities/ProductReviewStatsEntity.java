@@ -0,0 +1,44 @@
+package com.example.commerce.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Running review totals per product, kept up to date by the review write paths so that ratings
+ * can be shown without aggregating the reviews table.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "product_review_stats")
+public class ProductReviewStatsEntity {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private long reviewCount;
+
+    @Column(nullable = false)
+    private long oneStar;
+
+    @Column(nullable = false)
+    private long twoStar;
+
+    @Column(nullable = false)
+    private long threeStar;
+
+    @Column(nullable = false)
+    private long fourStar;
+
+    @Column(nullable = false)
+    private long fiveStar;
+}
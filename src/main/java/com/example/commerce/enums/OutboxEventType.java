@@ -0,0 +1,17 @@
+package com.example.commerce.enums;
+
+public enum OutboxEventType {
+    ORDER_CREATED("Order"),
+    ORDER_STATUS_CHANGED("Order"),
+    INVENTORY_CHANGED("Inventory");
+
+    private final String aggregateType;
+
+    OutboxEventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.commerce.errorhandlers;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
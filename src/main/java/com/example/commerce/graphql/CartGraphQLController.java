@@ -8,8 +8,8 @@ import com.example.commerce.dtos.responses.ProductResponseDTO;
 import com.example.commerce.entities.UserEntity;
 import com.example.commerce.graphql.input.CartInput.AddToCartInput;
 import com.example.commerce.graphql.input.CartInput.UpdateCartItemInput;
+import com.example.commerce.interfaces.ICartService;
 import com.example.commerce.repositories.UserRepository;
-import com.example.commerce.services.CartService;
 import com.example.commerce.services.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.graphql.data.method.annotation.Argument;
@@ -23,11 +23,11 @@ import java.util.Map;
 
 @Controller
 public class CartGraphQLController {
-    private final CartService cartService;
+    private final ICartService cartService;
     private final ProductService productService;
     private final UserRepository userRepository;
 
-    public CartGraphQLController(CartService cartService, 
+    public CartGraphQLController(ICartService cartService, 
                                   ProductService productService,
                                   UserRepository userRepository) {
         this.cartService = cartService;
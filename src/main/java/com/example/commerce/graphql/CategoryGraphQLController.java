@@ -8,6 +8,7 @@ import com.example.commerce.graphql.input.CategoryInput.AddCategoryInput;
 import com.example.commerce.graphql.input.CategoryInput.UpdateCategoryInput;
 import com.example.commerce.graphql.input.PaginationInput;
 import com.example.commerce.graphql.utils.GraphQLResponseMapper;
+import com.example.commerce.graphql.utils.ListLimits;
 import com.example.commerce.services.CategoryService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -24,17 +25,20 @@ import java.util.List;
 public class CategoryGraphQLController {
     private final CategoryService categoryService;
     private final GraphQLResponseMapper responseMapper;
+    private final ListLimits listLimits;
 
-    public CategoryGraphQLController(CategoryService categoryService, GraphQLResponseMapper responseMapper) {
+    public CategoryGraphQLController(CategoryService categoryService, GraphQLResponseMapper responseMapper,
+                                     ListLimits listLimits) {
         this.categoryService = categoryService;
         this.responseMapper = responseMapper;
+        this.listLimits = listLimits;
     }
 
     // ==================== QUERIES ====================
 
     @QueryMapping
-    public List<CategoryResponseDTO> allCategories() {
-        return categoryService.getAllCategories(Pageable.unpaged()).getContent();
+    public List<CategoryResponseDTO> allCategories(@Argument Long afterId, @Argument Integer limit) {
+        return categoryService.getCategoriesAfter(listLimits.afterId(afterId), listLimits.limit(limit));
     }
 
     @QueryMapping
@@ -50,7 +54,7 @@ public class CategoryGraphQLController {
         }
         
         int page = pagination.getPage();
-        int size = pagination.getSize();
+        int size = listLimits.limit(pagination.getSize());
         String sortBy = pagination.getSortBy();
         String sortDir = pagination.getSortDirection();
         
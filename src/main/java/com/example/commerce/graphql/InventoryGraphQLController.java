@@ -8,6 +8,7 @@ import com.example.commerce.graphql.input.InventoryInput.AddInventoryInput;
 import com.example.commerce.graphql.input.InventoryInput.UpdateInventoryInput;
 import com.example.commerce.graphql.input.PaginationInput;
 import com.example.commerce.graphql.utils.GraphQLResponseMapper;
+import com.example.commerce.graphql.utils.ListLimits;
 import com.example.commerce.services.InventoryService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -25,17 +26,20 @@ import java.util.List;
 public class InventoryGraphQLController {
     private final InventoryService inventoryService;
     private final GraphQLResponseMapper responseMapper;
+    private final ListLimits listLimits;
 
-    public InventoryGraphQLController(InventoryService inventoryService, GraphQLResponseMapper responseMapper) {
+    public InventoryGraphQLController(InventoryService inventoryService, GraphQLResponseMapper responseMapper,
+                                      ListLimits listLimits) {
         this.inventoryService = inventoryService;
         this.responseMapper = responseMapper;
+        this.listLimits = listLimits;
     }
 
     // ==================== QUERIES ====================
 
     @QueryMapping
-    public List<InventoryResponseDTO> allInventories() {
-        return inventoryService.getAllInventories(Pageable.unpaged()).getContent();
+    public List<InventoryResponseDTO> allInventories(@Argument Long afterId, @Argument Integer limit) {
+        return inventoryService.getInventoriesAfter(listLimits.afterId(afterId), listLimits.limit(limit));
     }
 
     @QueryMapping
@@ -56,7 +60,7 @@ public class InventoryGraphQLController {
         }
         
         int page = pagination.getPage();
-        int size = pagination.getSize();
+        int size = listLimits.limit(pagination.getSize());
         String sortBy = pagination.getSortBy();
         String sortDir = pagination.getSortDirection();
         
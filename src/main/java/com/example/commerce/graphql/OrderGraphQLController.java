@@ -3,6 +3,7 @@ package com.example.commerce.graphql;
 import com.example.commerce.dtos.requests.AddOrderDTO;
 import com.example.commerce.dtos.requests.OrderItemDTO;
 import com.example.commerce.dtos.requests.UpdateOrderDTO;
+import com.example.commerce.dtos.responses.BulkOrderResponseDTO;
 import com.example.commerce.dtos.responses.GraphQLPagedResponse;
 import com.example.commerce.dtos.responses.OrderItemResponseDTO;
 import com.example.commerce.dtos.responses.OrderResponseDTO;
@@ -13,10 +14,13 @@ import com.example.commerce.graphql.input.OrderInput.CreateOrderInput;
 import com.example.commerce.graphql.input.OrderInput.UpdateOrderStatusInput;
 import com.example.commerce.graphql.input.PaginationInput;
 import com.example.commerce.graphql.utils.GraphQLResponseMapper;
+import com.example.commerce.graphql.utils.ListLimits;
 import com.example.commerce.repositories.UserRepository;
 import com.example.commerce.services.OrderService;
 import com.example.commerce.services.ProductService;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -38,22 +42,25 @@ public class OrderGraphQLController {
     private final ProductService productService;
     private final UserRepository userRepository;
     private final GraphQLResponseMapper responseMapper;
+    private final ListLimits listLimits;
 
     public OrderGraphQLController(OrderService orderService,
                                    ProductService productService,
                                    UserRepository userRepository,
-                                   GraphQLResponseMapper responseMapper) {
+                                   GraphQLResponseMapper responseMapper,
+                                   ListLimits listLimits) {
         this.orderService = orderService;
         this.productService = productService;
         this.userRepository = userRepository;
         this.responseMapper = responseMapper;
+        this.listLimits = listLimits;
     }
 
     // ==================== QUERIES ====================
 
     @QueryMapping
-    public List<OrderResponseDTO> allOrders() {
-        return orderService.getAllOrders(Pageable.unpaged()).getContent();
+    public List<OrderResponseDTO> allOrders(@Argument Long afterId, @Argument Integer limit) {
+        return orderService.getOrdersAfter(listLimits.afterId(afterId), listLimits.limit(limit));
     }
 
     @QueryMapping
@@ -70,7 +77,8 @@ public class OrderGraphQLController {
     public GraphQLPagedResponse<OrderResponseDTO> ordersPaginated(
             @Argument PaginationInput pagination,
             @Argument OrderStatus status,
-            @Argument String search) {
+            @Argument String search,
+            DataFetchingFieldSelectionSet selectionSet) {
         
         // Handle null pagination with defaults
         if (pagination == null) {
@@ -78,19 +86,16 @@ public class OrderGraphQLController {
         }
         
         int page = pagination.getPage();
-        int size = pagination.getSize();
+        int size = listLimits.limit(pagination.getSize());
         String sortBy = pagination.getSortBy();
         String sortDir = pagination.getSortDirection();
         
         Sort sort = sortDir.equalsIgnoreCase("DESC") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<OrderResponseDTO> ordersPage;
-        if (search != null && !search.isBlank()) {
-            ordersPage = orderService.searchOrders(search, pageable);
-        } else {
-            ordersPage = orderService.getAllOrders(pageable);
-        }
+        // Line items are only read when the query selects them
+        Page<OrderResponseDTO> ordersPage = orderService.getOrdersPage(search, pageable,
+                selectionSet.contains("content/items"));
         
         // Filter by status if provided
         if (status != null) {
@@ -120,7 +125,7 @@ public class OrderGraphQLController {
         }
         
         int page = pagination.getPage();
-        int size = pagination.getSize();
+        int size = listLimits.limit(pagination.getSize());
         String sortBy = pagination.getSortBy();
         String sortDir = pagination.getSortDirection();
         
@@ -135,17 +140,15 @@ public class OrderGraphQLController {
 
     @MutationMapping
     public OrderResponseDTO createOrder(@Argument @Valid CreateOrderInput input) {
-        AddOrderDTO dto = new AddOrderDTO();
-        dto.setUserId(input.userId());
-        dto.setItems(input.items().stream()
-                .map(item -> {
-                    OrderItemDTO itemDTO = new OrderItemDTO();
-                    itemDTO.setProductId(item.productId());
-                    itemDTO.setQuantity(item.quantity());
-                    return itemDTO;
-                })
+        return orderService.createOrder(toAddOrderDTO(input));
+    }
+
+    @MutationMapping
+    public BulkOrderResponseDTO createOrdersBulk(
+            @Argument @Valid @Size(max = 1000, message = "A bulk request can contain at most 1000 orders") List<CreateOrderInput> input) {
+        return orderService.createOrdersBulk(input.stream()
+                .map(this::toAddOrderDTO)
                 .collect(Collectors.toList()));
-        return orderService.createOrder(dto);
     }
 
     @MutationMapping
@@ -177,6 +180,20 @@ public class OrderGraphQLController {
 
     // ==================== HELPER METHODS ====================
 
+    private AddOrderDTO toAddOrderDTO(CreateOrderInput input) {
+        AddOrderDTO dto = new AddOrderDTO();
+        dto.setUserId(input.userId());
+        dto.setItems(input.items().stream()
+                .map(item -> {
+                    OrderItemDTO itemDTO = new OrderItemDTO();
+                    itemDTO.setProductId(item.productId());
+                    itemDTO.setQuantity(item.quantity());
+                    return itemDTO;
+                })
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
     private Map<String, Object> mapUserToGraphQL(UserEntity user) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", user.getId());
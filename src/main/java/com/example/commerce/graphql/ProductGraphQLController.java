@@ -1,5 +1,6 @@
 package com.example.commerce.graphql;
 
+import com.example.commerce.dtos.ProductReviewStats;
 import com.example.commerce.dtos.requests.AddProductDTO;
 import com.example.commerce.dtos.responses.GraphQLPagedResponse;
 import com.example.commerce.dtos.responses.PagedResponse;
@@ -7,32 +8,51 @@ import com.example.commerce.dtos.responses.ProductResponseDTO;
 import com.example.commerce.graphql.input.PaginationInput;
 import com.example.commerce.graphql.input.ProductInput.AddProductInput;
 import com.example.commerce.graphql.utils.GraphQLResponseMapper;
+import com.example.commerce.graphql.utils.ListLimits;
 import com.example.commerce.services.ProductService;
+import com.example.commerce.services.ReviewService;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import org.dataloader.DataLoader;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Controller
 public class ProductGraphQLController {
     private final ProductService productService;
     private final GraphQLResponseMapper responseMapper;
+    private final ListLimits listLimits;
 
-    public ProductGraphQLController(ProductService productService, GraphQLResponseMapper responseMapper) {
+    public ProductGraphQLController(ProductService productService, GraphQLResponseMapper responseMapper,
+                                    ListLimits listLimits, ReviewService reviewService,
+                                    BatchLoaderRegistry batchLoaderRegistry) {
         this.productService = productService;
         this.responseMapper = responseMapper;
+        this.listLimits = listLimits;
+        // Review stats of every product in a response are loaded together from product_review_stats
+        batchLoaderRegistry.forTypePair(Long.class, ProductReviewStats.class)
+                .registerMappedBatchLoader((productIds, environment) ->
+                        Mono.fromSupplier(() -> reviewService.getProductReviewStats(productIds)));
     }
 
     // ==================== QUERIES ====================
 
     @QueryMapping
-    public List<ProductResponseDTO> allProducts() {
-        return productService.getAllProductsList();
+    public List<ProductResponseDTO> allProducts(@Argument Long afterId, @Argument Integer limit) {
+        return productService.getProductsAfter(listLimits.afterId(afterId), listLimits.limit(limit));
     }
 
     @QueryMapping
@@ -44,7 +64,8 @@ public class ProductGraphQLController {
     public GraphQLPagedResponse<ProductResponseDTO> productsPaginated(
             @Argument PaginationInput pagination,
             @Argument Long categoryId,
-            @Argument String search) {
+            @Argument String search,
+            DataFetchingFieldSelectionSet selectionSet) {
         
         // Handle null pagination with defaults
         if (pagination == null) {
@@ -52,25 +73,37 @@ public class ProductGraphQLController {
         }
         
         int page = pagination.getPage();
-        int size = pagination.getSize();
+        int size = listLimits.limit(pagination.getSize());
         String sortBy = pagination.getSortBy();
         String sortDir = pagination.getSortDirection();
         
         Sort sort = sortDir.equalsIgnoreCase("DESC") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        PagedResponse<ProductResponseDTO> pagedResponse;
-        if (search != null && !search.isBlank()) {
-            pagedResponse = productService.searchProducts(search, pageable);
-        } else if (categoryId != null) {
-            pagedResponse = productService.getProductsByCategory(categoryId, pageable);
-        } else {
-            pagedResponse = productService.getAllProducts(pageable);
-        }
+        // Read only the columns, and join only the tables, behind the selected product fields
+        Set<String> fields = selectionSet.getFields("content/*").stream()
+                .map(SelectedField::getName)
+                .collect(Collectors.toSet());
+        PagedResponse<ProductResponseDTO> pagedResponse =
+                productService.getProductsProjected(fields, categoryId, search, pageable);
         
         return responseMapper.toGraphQLPagedResponse(pagedResponse);
     }
 
+    // ==================== SCHEMA MAPPINGS (Nested Relations) ====================
+
+    @SchemaMapping(typeName = "Product", field = "averageRating")
+    public CompletableFuture<Double> getProductAverageRating(ProductResponseDTO product,
+                                                             DataLoader<Long, ProductReviewStats> reviewStats) {
+        return reviewStats.load(product.getId()).thenApply(ProductReviewStats::getAverageRating);
+    }
+
+    @SchemaMapping(typeName = "Product", field = "totalReviews")
+    public CompletableFuture<Long> getProductTotalReviews(ProductResponseDTO product,
+                                                          DataLoader<Long, ProductReviewStats> reviewStats) {
+        return reviewStats.load(product.getId()).thenApply(ProductReviewStats::getTotalReviews);
+    }
+
     // ==================== MUTATIONS ====================
 
     @MutationMapping
@@ -1,8 +1,10 @@
 package com.example.commerce.graphql;
 
 import com.example.commerce.dtos.ProductReviewStats;
+import com.example.commerce.dtos.ReviewPage;
 import com.example.commerce.dtos.ReviewResponseDTO;
 import com.example.commerce.graphql.input.ReviewInput;
+import com.example.commerce.graphql.utils.ListLimits;
 import com.example.commerce.services.ReviewService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.graphql.data.method.annotation.Argument;
@@ -17,10 +19,11 @@ import java.util.List;
 public class ReviewGraphQLController {
 
     private final ReviewService reviewService;
+    private final ListLimits listLimits;
 
     @QueryMapping
-    public List<ReviewResponseDTO> allReviews() {
-        return reviewService.getAllReviews();
+    public List<ReviewResponseDTO> allReviews(@Argument Long afterId, @Argument Integer limit) {
+        return reviewService.getReviewsAfter(listLimits.afterId(afterId), listLimits.limit(limit));
     }
 
     @QueryMapping
@@ -38,6 +41,18 @@ public class ReviewGraphQLController {
         return reviewService.getReviewsByUserId(userId);
     }
 
+    @QueryMapping
+    public ReviewPage productReviews(@Argument Long productId, @Argument String after, @Argument Integer limit,
+                                     @Argument Integer minRating, @Argument Integer maxRating) {
+        return reviewService.getProductReviewsPage(productId, after, listLimits.limit(limit), minRating, maxRating);
+    }
+
+    @QueryMapping
+    public ReviewPage userReviews(@Argument Long userId, @Argument String after, @Argument Integer limit,
+                                  @Argument Integer minRating, @Argument Integer maxRating) {
+        return reviewService.getUserReviewsPage(userId, after, listLimits.limit(limit), minRating, maxRating);
+    }
+
     @QueryMapping
     public ProductReviewStats productReviewStats(@Argument Long productId) {
         return reviewService.getProductReviewStats(productId);
@@ -3,6 +3,7 @@ package com.example.commerce.graphql;
 import com.example.commerce.dtos.responses.GraphQLPageInfo;
 import com.example.commerce.dtos.responses.GraphQLPagedResponse;
 import com.example.commerce.dtos.responses.userSummaryDTO;
+import com.example.commerce.graphql.utils.ListLimits;
 import com.example.commerce.services.UserService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -17,16 +18,18 @@ import java.util.List;
 @Controller
 public class UserResolver {
     private final UserService userService;
+    private final ListLimits listLimits;
 
-    public UserResolver(UserService userService) {
+    public UserResolver(UserService userService, ListLimits listLimits) {
         this.userService = userService;
+        this.listLimits = listLimits;
     }
 
     // ==================== QUERIES ====================
 
     @QueryMapping
-    public List<userSummaryDTO> getAllUsers() {
-        return userService.getAllUsersList();
+    public List<userSummaryDTO> getAllUsers(@Argument Long afterId, @Argument Integer limit) {
+        return userService.getUsersAfter(listLimits.afterId(afterId), listLimits.limit(limit));
     }
 
     @QueryMapping
@@ -37,7 +40,7 @@ public class UserResolver {
     @QueryMapping
     public GraphQLPagedResponse<userSummaryDTO> usersPaginated(@Argument PaginationInput pagination, @Argument String search) {
         int page = pagination != null && pagination.page() != null ? pagination.page() : 0;
-        int size = pagination != null && pagination.size() != null ? pagination.size() : 10;
+        int size = listLimits.limit(pagination != null && pagination.size() != null ? pagination.size() : 10);
         String sortBy = pagination != null && pagination.sortBy() != null ? pagination.sortBy() : "id";
         String sortDir = pagination != null && pagination.sortDirection() != null ? pagination.sortDirection() : "ASC";
         
@@ -0,0 +1,179 @@
+package com.example.commerce.graphql.instrumentation;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Keeps parsed and validated GraphQL documents keyed by the SHA-256 of their text, so a repeated
+ * query skips parsing and validation.
+ * <p>
+ * Also speaks the automatic persisted query protocol: a request may carry
+ * {@code extensions.persistedQuery.sha256Hash} with no query text, and gets a
+ * {@code PersistedQueryNotFound} error when the hash is unknown, after which the client resends
+ * the text once. Queries listed in {@code graphql.persisted-queries.allow-list} (a JSON array of
+ * documents) are always known; with {@code allow-list-only} set, nothing else is executed.
+ */
+@Slf4j
+@Component
+public class CachingDocumentProvider implements PreparsedDocumentProvider {
+
+    private final Map<String, PreparsedDocumentEntry> documents;
+    private final Map<String, String> allowList;
+    private final boolean allowListOnly;
+
+    // Guarded by this
+    private long hits;
+    private long misses;
+    private long unknownHashes;
+
+    public CachingDocumentProvider(ObjectMapper objectMapper, ResourceLoader resourceLoader,
+                                   @Value("${graphql.documents.cache-size:500}") int cacheSize,
+                                   @Value("${graphql.persisted-queries.allow-list:}") String allowListLocation,
+                                   @Value("${graphql.persisted-queries.allow-list-only:false}") boolean allowListOnly) {
+        this.documents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparsedDocumentEntry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.allowList = loadAllowList(objectMapper, resourceLoader, allowListLocation);
+        this.allowListOnly = allowListOnly;
+        if (allowListOnly && allowList.isEmpty()) {
+            log.warn("GraphQL allow-list-only mode is on but the allow-list is empty; every query will be rejected");
+        }
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return CompletableFuture.completedFuture(resolve(executionInput, parseAndValidateFunction));
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedDocuments", documents.size());
+        stats.put("allowListed", allowList.size());
+        stats.put("allowListOnly", allowListOnly);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("unknownHashes", unknownHashes);
+        return stats;
+    }
+
+    private PreparsedDocumentEntry resolve(ExecutionInput input, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        String requestedHash = requestedHash(input);
+        String query = input.getQuery();
+
+        if (query == null || query.isBlank()) {
+            if (requestedHash == null) {
+                return parseAndValidate.apply(input);
+            }
+            PreparsedDocumentEntry cached = cached(requestedHash);
+            if (cached != null) {
+                return cached;
+            }
+            String allowListed = allowList.get(requestedHash);
+            if (allowListed == null) {
+                synchronized (this) {
+                    unknownHashes++;
+                }
+                return new PreparsedDocumentEntry(new PersistedQueryNotFound(requestedHash));
+            }
+            return compile(requestedHash, input.transform(builder -> builder.query(allowListed)), parseAndValidate);
+        }
+
+        String hash = sha256(query);
+        if (requestedHash != null && !requestedHash.equalsIgnoreCase(hash)) {
+            return new PreparsedDocumentEntry(new PersistedQueryIdInvalid(requestedHash));
+        }
+        if (allowListOnly && !allowList.containsKey(hash)) {
+            return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                    .message("Query is not on the persisted query allow-list")
+                    .build());
+        }
+        PreparsedDocumentEntry cached = cached(hash);
+        if (cached != null) {
+            return cached;
+        }
+        return compile(hash, input, parseAndValidate);
+    }
+
+    private synchronized PreparsedDocumentEntry cached(String hash) {
+        PreparsedDocumentEntry entry = documents.get(hash);
+        if (entry != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return entry;
+    }
+
+    private PreparsedDocumentEntry compile(String hash, ExecutionInput input,
+                                           Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        // Parsed outside the lock; two threads may both parse a new query once
+        PreparsedDocumentEntry entry = parseAndValidate.apply(input);
+        if (!entry.hasErrors()) {
+            synchronized (this) {
+                documents.put(hash, entry);
+            }
+        }
+        return entry;
+    }
+
+    private static String requestedHash(ExecutionInput input) {
+        if (input.getExtensions().get("persistedQuery") instanceof Map<?, ?> persistedQuery
+                && persistedQuery.get("sha256Hash") instanceof String hash) {
+            return hash.toLowerCase();
+        }
+        return null;
+    }
+
+    static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> loadAllowList(ObjectMapper objectMapper, ResourceLoader resourceLoader, String location) {
+        if (location.isBlank()) {
+            return Map.of();
+        }
+        Resource resource = resourceLoader.getResource(location);
+        Map<String, String> queries = new HashMap<>();
+        try (InputStream in = resource.getInputStream()) {
+            for (String query : objectMapper.readValue(in, String[].class)) {
+                queries.put(sha256(query), query);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the GraphQL allow-list from " + location, e);
+        }
+        log.info("Loaded {} persisted GraphQL queries from {}", queries.size(), location);
+        return Map.copyOf(queries);
+    }
+}
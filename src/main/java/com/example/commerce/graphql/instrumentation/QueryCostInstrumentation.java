@@ -0,0 +1,215 @@
+package com.example.commerce.graphql.instrumentation;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import com.example.commerce.graphql.utils.ListLimits;
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.CoercedVariables;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Static cost and depth check run before a GraphQL operation executes.
+ * <p>
+ * A field costs its weight plus its children's cost times the number of rows it can return:
+ * the capped {@code limit} of the {@code all*} lists and cursor pages, the capped page size of the
+ * {@code *Paginated} queries, or {@code graphql.cost.default-list-size} for other lists. Costs
+ * saturate at {@code Long.MAX_VALUE} instead of overflowing. Fields
+ * resolved by a lookup of their own, such as {@code Order.user}, weigh
+ * {@code graphql.cost.resolver-weight}; everything else weighs 1. Operations over {@code graphql.cost.max-cost} or {@code graphql.cost.max-depth}
+ * are rejected without running a resolver. Every operation's cost is recorded per operation name.
+ */
+@Slf4j
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+
+    private static final Set<String> RESOLVER_FIELDS = Set.of(
+            "Order.user", "OrderItem.product", "Cart.user", "CartItem.product");
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    private final PerformanceMonitoringAspect performanceMonitor;
+    private final ListLimits listLimits;
+    private final int maxCost;
+    private final int maxDepth;
+    private final int defaultListSize;
+    private final int resolverWeight;
+
+    public QueryCostInstrumentation(PerformanceMonitoringAspect performanceMonitor, ListLimits listLimits,
+                                    @Value("${graphql.cost.max-cost:10000}") int maxCost,
+                                    @Value("${graphql.cost.max-depth:8}") int maxDepth,
+                                    @Value("${graphql.cost.default-list-size:10}") int defaultListSize,
+                                    @Value("${graphql.cost.resolver-weight:10}") int resolverWeight) {
+        this.performanceMonitor = performanceMonitor;
+        this.listLimits = listLimits;
+        this.maxCost = maxCost;
+        this.maxDepth = maxDepth;
+        this.defaultListSize = defaultListSize;
+        this.resolverWeight = resolverWeight;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        QueryCost queryCost = measure(executionContext.getGraphQLSchema(), executionContext.getDocument(),
+                executionContext.getExecutionInput().getOperationName(), executionContext.getCoercedVariables());
+        String operation = operationName(executionContext.getOperationDefinition());
+
+        boolean rejected = queryCost.cost() > maxCost || queryCost.depth() > maxDepth;
+        performanceMonitor.recordGraphQLCost(operation, queryCost.cost(), queryCost.depth(), rejected);
+        if (rejected) {
+            log.warn("Rejected GraphQL operation {}: cost {} (max {}), depth {} (max {})",
+                    operation, queryCost.cost(), maxCost, queryCost.depth(), maxDepth);
+            throw new AbortExecutionException(queryCost.depth() > maxDepth
+                    ? "Query depth " + queryCost.depth() + " exceeds the limit of " + maxDepth
+                    : "Query cost " + queryCost.cost() + " exceeds the limit of " + maxCost
+                            + "; request fewer rows or fewer nested fields");
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    QueryCost measure(GraphQLSchema schema, Document document, String operationName, CoercedVariables variables) {
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                .schema(schema)
+                .document(document)
+                .operationName(operationName)
+                .coercedVariables(variables)
+                .build();
+
+        // Children are visited before their parent, so each field finds its children's total here
+        Map<QueryVisitorFieldEnvironment, Long> childCosts = new HashMap<>();
+        int[] depth = {0};
+        traverser.visitPostOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment environment) {
+                if (environment.isTypeNameIntrospectionField() || isIntrospection(environment)) {
+                    return;
+                }
+                long cost = saturatedAdd(weight(environment),
+                        saturatedMultiply(multiplier(environment), childCosts.getOrDefault(environment, 0L)));
+                childCosts.merge(environment.getParentEnvironment(), cost, QueryCostInstrumentation::saturatedAdd);
+                depth[0] = Math.max(depth[0], depthOf(environment));
+            }
+        });
+        return new QueryCost(childCosts.getOrDefault(null, 0L), depth[0]);
+    }
+
+    private int weight(QueryVisitorFieldEnvironment environment) {
+        String coordinate = environment.getFieldsContainer().getName() + "." + environment.getField().getName();
+        return RESOLVER_FIELDS.contains(coordinate) ? resolverWeight : 1;
+    }
+
+    private int multiplier(QueryVisitorFieldEnvironment environment) {
+        if (environment.getFieldDefinition().getArgument("pagination") != null) {
+            return pageSize(environment.getArguments().get("pagination"));
+        }
+        if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType()))) {
+            return 1;
+        }
+        if (environment.getFieldDefinition().getArgument("limit") != null) {
+            return limit(environment);
+        }
+        QueryVisitorFieldEnvironment parent = environment.getParentEnvironment();
+        if (parent != null && isPage(parent) && environment.getField().getName().equals("content")) {
+            if (parent.getFieldDefinition().getArgument("pagination") != null) {
+                // Its size was counted on the paginated field
+                return 1;
+            }
+            if (parent.getFieldDefinition().getArgument("limit") != null) {
+                // A cursor page such as productReviews, sized by the page's limit
+                return limit(parent);
+            }
+        }
+        // Includes lists nested in the rows of a limited list, such as Order.items under allOrders
+        return defaultListSize;
+    }
+
+    /**
+     * Whether the field returns a single page object, such as {@code ReviewPage} or {@code OrderPage},
+     * rather than the rows themselves.
+     */
+    private static boolean isPage(QueryVisitorFieldEnvironment environment) {
+        GraphQLType type = GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType());
+        return type instanceof GraphQLObjectType object && object.getFieldDefinition("content") != null;
+    }
+
+    /**
+     * The page size the resolver will use: {@link com.example.commerce.graphql.input.PaginationInput}'s
+     * default for a missing or non-positive size, capped like every other list.
+     */
+    private int pageSize(Object pagination) {
+        int size = pagination instanceof Map<?, ?> input && input.get("size") instanceof Number number
+                ? number.intValue()
+                : DEFAULT_PAGE_SIZE;
+        return listLimits.limit(size >= 1 ? size : DEFAULT_PAGE_SIZE);
+    }
+
+    private int limit(QueryVisitorFieldEnvironment environment) {
+        Object limit = environment.getArguments().get("limit");
+        return listLimits.limit(limit instanceof Number number ? number.intValue() : null);
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        // Costs are never negative, so a negative sum means it overflowed
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static boolean isIntrospection(QueryVisitorFieldEnvironment environment) {
+        for (QueryVisitorFieldEnvironment current = environment; current != null; current = current.getParentEnvironment()) {
+            if (current.getField().getName().startsWith("__")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int depthOf(QueryVisitorFieldEnvironment environment) {
+        int depth = 0;
+        for (QueryVisitorFieldEnvironment current = environment; current != null; current = current.getParentEnvironment()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static String operationName(OperationDefinition operation) {
+        if (operation.getName() != null) {
+            return operation.getName();
+        }
+        return operation.getSelectionSet().getSelectionsOfType(Field.class).stream()
+                .map(Field::getName)
+                .collect(Collectors.joining(","));
+    }
+
+    record QueryCost(long cost, int depth) {}
+}
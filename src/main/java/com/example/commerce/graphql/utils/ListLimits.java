@@ -0,0 +1,37 @@
+package com.example.commerce.graphql.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds for the unpaged list queries ({@code allProducts}, {@code allOrders}, ...). Each returns
+ * at most {@code limit} rows with an id greater than {@code afterId}, capped on the server so a
+ * single query cannot pull a whole table into memory. Clients page by passing the last id seen.
+ * The page size of the {@code *Paginated} queries is capped the same way.
+ */
+@Component
+public class ListLimits {
+
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public ListLimits(@Value("${graphql.list.default-limit:100}") int defaultLimit,
+                      @Value("${graphql.list.max-limit:500}") int maxLimit) {
+        this.defaultLimit = Math.min(defaultLimit, maxLimit);
+        this.maxLimit = maxLimit;
+    }
+
+    public int limit(Integer requested) {
+        if (requested == null) {
+            return defaultLimit;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        return Math.min(requested, maxLimit);
+    }
+
+    public long afterId(Long afterId) {
+        return afterId != null ? afterId : 0L;
+    }
+}
@@ -6,11 +6,15 @@ import com.example.commerce.dtos.responses.CategoryResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface ICategoryService {
     CategoryResponseDTO addCategory(AddCategoryDTO addCategoryDTO);
 
     Page<CategoryResponseDTO> getAllCategories(Pageable pageable);
 
+    List<CategoryResponseDTO> getCategoriesAfter(Long afterId, int limit);
+
     CategoryResponseDTO getCategoryById(Long id);
 
     CategoryResponseDTO updateCategory(Long id, UpdateCategoryDTO updateCategoryDTO);
@@ -6,11 +6,15 @@ import com.example.commerce.dtos.responses.InventoryResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface IInventoryService {
     InventoryResponseDTO addInventory(AddInventoryDTO addInventoryDTO);
 
     Page<InventoryResponseDTO> getAllInventories(Pageable pageable);
 
+    List<InventoryResponseDTO> getInventoriesAfter(Long afterId, int limit);
+
     InventoryResponseDTO getInventoryById(Long id);
 
     InventoryResponseDTO getInventoryByProductId(Long productId);
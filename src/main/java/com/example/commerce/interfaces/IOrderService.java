@@ -2,15 +2,22 @@ package com.example.commerce.interfaces;
 
 import com.example.commerce.dtos.requests.AddOrderDTO;
 import com.example.commerce.dtos.requests.UpdateOrderDTO;
+import com.example.commerce.dtos.responses.BulkOrderResponseDTO;
 import com.example.commerce.dtos.responses.OrderResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface IOrderService {
     OrderResponseDTO createOrder(AddOrderDTO addOrderDTO);
 
+    BulkOrderResponseDTO createOrdersBulk(List<AddOrderDTO> orders);
+
     Page<OrderResponseDTO> getAllOrders(Pageable pageable);
 
+    List<OrderResponseDTO> getOrdersAfter(Long afterId, int limit);
+
     Page<OrderResponseDTO> getOrdersByUserId(Long userId, Pageable pageable);
 
     OrderResponseDTO getOrderById(Long id);
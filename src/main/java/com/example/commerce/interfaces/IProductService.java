@@ -21,6 +21,8 @@ public interface IProductService {
 
     List<ProductResponseDTO> getAllProductsList();
 
+    List<ProductResponseDTO> getProductsAfter(Long afterId, int limit);
+
     void deleteProduct(Long id);
 
     ProductResponseDTO getProductByName(String name);
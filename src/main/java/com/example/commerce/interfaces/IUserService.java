@@ -25,5 +25,7 @@ public interface IUserService {
 
     List<userSummaryDTO> getAllUsersList();
 
+    List<userSummaryDTO> getUsersAfter(Long afterId, int limit);
+
     void deleteUser(Long id);
 }
@@ -0,0 +1,34 @@
+package com.example.commerce.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR instant event for each cache lookup recorded by the performance monitor.
+ */
+@Name("com.example.commerce.CacheLookup")
+@Label("Cache Lookup")
+@Category({"Commerce", "Cache"})
+@Description("Lookup against an application cache")
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Cache Key")
+    private String cacheKey;
+
+    @Label("Hit")
+    private boolean hit;
+
+    public static void emit(String cacheKey, boolean hit) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        if (event.shouldCommit()) {
+            event.cacheKey = cacheKey;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.commerce.monitoring;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts and stops in-process JDK Flight Recorder recordings using the low-overhead
+ * "default" settings, dumps them to a local directory and summarises the result.
+ */
+@Slf4j
+@Component
+public class FlightRecorderProfiler {
+
+    private static final int TOP_ENTRIES = 20;
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Path outputDirectory;
+    private final Duration maxDuration;
+    private Recording recording;
+
+    public FlightRecorderProfiler(@Value("${monitoring.profiling.directory:${java.io.tmpdir}/commerce-jfr}") String outputDirectory,
+                                  @Value("${monitoring.profiling.max-duration-minutes:15}") long maxDurationMinutes) {
+        this.outputDirectory = Paths.get(outputDirectory);
+        this.maxDuration = Duration.ofMinutes(maxDurationMinutes);
+    }
+
+    public synchronized Map<String, Object> start() throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalArgumentException("A profiling recording is already running");
+        }
+        closeRecording();
+
+        Recording newRecording = new Recording(Configuration.getConfiguration("default"));
+        newRecording.setName("commerce-profile");
+        newRecording.setToDisk(true);
+        // Safety net so a forgotten recording does not run forever in production
+        newRecording.setDuration(maxDuration);
+        newRecording.enable(RepositoryCallEvent.class);
+        newRecording.enable(CacheLookupEvent.class);
+        newRecording.start();
+        recording = newRecording;
+        log.info("JFR profiling started (max duration {})", maxDuration);
+        return status();
+    }
+
+    public synchronized Map<String, Object> stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalArgumentException("No profiling recording has been started");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+
+        Files.createDirectories(outputDirectory);
+        Path file = outputDirectory.resolve("commerce-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+        recording.dump(file);
+        closeRecording();
+        log.info("JFR recording written to {}", file);
+
+        Map<String, Object> summary = summarise(file);
+        summary.put("file", file.toAbsolutePath().toString());
+        return summary;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording != null ? recording.getState().name() : "IDLE");
+        if (recording != null) {
+            status.put("startTime", recording.getStartTime());
+            status.put("maxDuration", maxDuration.toString());
+        }
+        status.put("outputDirectory", outputDirectory.toAbsolutePath().toString());
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeRecording();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private Map<String, Object> summarise(Path file) throws IOException {
+        Map<String, Long> executionSamples = new HashMap<>();
+        Map<String, Long> allocationBytes = new HashMap<>();
+        Map<String, Long> allocationSites = new HashMap<>();
+        Map<String, Long> contentionNanos = new HashMap<>();
+        Map<String, Long> repositoryNanos = new HashMap<>();
+        long totalSamples = 0;
+        long gcCount = 0;
+        long gcPauseNanos = 0;
+        long gcLongestPauseNanos = 0;
+
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        totalSamples++;
+                        executionSamples.merge(topFrame(event.getStackTrace()), 1L, Long::sum);
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        long weight = event.getLong("weight");
+                        RecordedClass objectClass = event.getClass("objectClass");
+                        allocationBytes.merge(objectClass != null ? objectClass.getName() : "unknown", weight, Long::sum);
+                        allocationSites.merge(topFrame(event.getStackTrace()), weight, Long::sum);
+                    }
+                    case "jdk.JavaMonitorEnter" -> {
+                        RecordedClass monitorClass = event.getClass("monitorClass");
+                        String key = (monitorClass != null ? monitorClass.getName() : "unknown") + " @ " + topFrame(event.getStackTrace());
+                        contentionNanos.merge(key, event.getDuration().toNanos(), Long::sum);
+                    }
+                    case "jdk.GarbageCollection" -> {
+                        gcCount++;
+                        gcPauseNanos += event.getDuration("sumOfPauses").toNanos();
+                        gcLongestPauseNanos = Math.max(gcLongestPauseNanos, event.getDuration("longestPause").toNanos());
+                    }
+                    case "com.example.commerce.RepositoryCall" ->
+                            repositoryNanos.merge(event.getString("method"), event.getDuration().toNanos(), Long::sum);
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        Map<String, Object> gc = new LinkedHashMap<>();
+        gc.put("collections", gcCount);
+        gc.put("totalPauseMs", gcPauseNanos / 1_000_000.0);
+        gc.put("longestPauseMs", gcLongestPauseNanos / 1_000_000.0);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("executionSamples", totalSamples);
+        summary.put("hotMethods", top(executionSamples, "samples"));
+        summary.put("allocationsByType", top(allocationBytes, "bytes"));
+        summary.put("allocationSites", top(allocationSites, "bytes"));
+        summary.put("lockContention", topDurations(contentionNanos));
+        summary.put("garbageCollection", gc);
+        summary.put("repositoryTime", topDurations(repositoryNanos));
+        return summary;
+    }
+
+    private String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private List<Map<String, Object>> top(Map<String, Long> values, String unit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_ENTRIES)
+                .forEach(entry -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("name", entry.getKey());
+                    row.put(unit, entry.getValue());
+                    result.add(row);
+                });
+        return result;
+    }
+
+    private List<Map<String, Object>> topDurations(Map<String, Long> nanos) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        nanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_ENTRIES)
+                .forEach(entry -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("name", entry.getKey());
+                    row.put("totalMs", entry.getValue() / 1_000_000.0);
+                    result.add(row);
+                });
+        return result;
+    }
+}
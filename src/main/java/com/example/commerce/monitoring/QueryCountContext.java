@@ -0,0 +1,70 @@
+package com.example.commerce.monitoring;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Thread-bound statement counter for a single unit of work (usually one HTTP request).
+ * Nested {@link #begin()} calls join the outer context so a test can wrap a whole request.
+ */
+public final class QueryCountContext implements AutoCloseable {
+
+    private static final ThreadLocal<QueryCountContext> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> statementCounts = new LinkedHashMap<>();
+    private final Set<String> repeatedStatements = new HashSet<>();
+    private int totalStatements;
+    private int depth;
+
+    private QueryCountContext() {
+    }
+
+    public static QueryCountContext begin() {
+        QueryCountContext context = CURRENT.get();
+        if (context == null) {
+            context = new QueryCountContext();
+            CURRENT.set(context);
+        }
+        context.depth++;
+        return context;
+    }
+
+    public static QueryCountContext current() {
+        return CURRENT.get();
+    }
+
+    int record(String shape) {
+        totalStatements++;
+        return statementCounts.merge(shape, 1, Integer::sum);
+    }
+
+    boolean markRepeated(String shape) {
+        return repeatedStatements.add(shape);
+    }
+
+    public int getTotalStatements() {
+        return totalStatements;
+    }
+
+    public int getRepeatedStatementCount() {
+        return repeatedStatements.size();
+    }
+
+    public Set<String> getRepeatedStatements() {
+        return Collections.unmodifiableSet(repeatedStatements);
+    }
+
+    public Map<String, Integer> getStatementCounts() {
+        return Collections.unmodifiableMap(statementCounts);
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            CURRENT.remove();
+        }
+    }
+}
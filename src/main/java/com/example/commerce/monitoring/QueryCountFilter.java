@@ -0,0 +1,52 @@
+package com.example.commerce.monitoring;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jspecify.annotations.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link QueryCountContext} around every request and reports the number of
+ * statements it executed, keyed by HTTP method and matched route pattern.
+ */
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final PerformanceMonitoringAspect performanceMonitor;
+
+    public QueryCountFilter(PerformanceMonitoringAspect performanceMonitor) {
+        this.performanceMonitor = performanceMonitor;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        try (QueryCountContext context = QueryCountContext.begin()) {
+            int statementsBefore = context.getTotalStatements();
+            int repeatedBefore = context.getRepeatedStatementCount();
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                performanceMonitor.recordRequestQueries(
+                        resolveEndpoint(request),
+                        context.getTotalStatements() - statementsBefore,
+                        context.getRepeatedStatementCount() - repeatedBefore
+                );
+            }
+        }
+    }
+
+    private String resolveEndpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        return request.getMethod() + " " + path;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.commerce.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate statement inspector that counts every prepared statement against the
+ * current {@link QueryCountContext} and flags statement shapes repeated more than
+ * the configured threshold within one request (the classic N+1 pattern).
+ */
+@Slf4j
+@Component
+public class QueryCountInspector implements StatementInspector {
+
+    private static final String APP_PACKAGE = "com.example.commerce.";
+    private static final String MONITORING_PACKAGE = "com.example.commerce.monitoring.";
+    private static final String ASPECTS_PACKAGE = "com.example.commerce.aspects.";
+
+    private final int repeatThreshold;
+    private final Set<String> reportedShapes = ConcurrentHashMap.newKeySet();
+
+    public QueryCountInspector(@Value("${monitoring.queries.repeat-threshold:5}") int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryCountContext context = QueryCountContext.current();
+        if (context == null) {
+            return sql;
+        }
+
+        String shape = SqlNormalizer.normalize(sql);
+        int executions = context.record(shape);
+        if (executions > repeatThreshold && context.markRepeated(shape) && reportedShapes.add(shape)) {
+            log.warn("Possible N+1 query: statement executed more than {} times in one request, called from {}: {}",
+                    repeatThreshold, findCallSite(), shape);
+        }
+        return sql;
+    }
+
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    private String findCallSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE))
+                .filter(frame -> !frame.getClassName().startsWith(MONITORING_PACKAGE))
+                .filter(frame -> !frame.getClassName().startsWith(ASPECTS_PACKAGE))
+                .findFirst()
+                .map(StackWalker.StackFrame::toString)
+                .orElse("unknown"));
+    }
+}
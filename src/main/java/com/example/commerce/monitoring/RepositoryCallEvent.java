@@ -0,0 +1,34 @@
+package com.example.commerce.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one repository method call, so database time lines up with CPU samples.
+ */
+@Name("com.example.commerce.RepositoryCall")
+@Label("Repository Call")
+@Category({"Commerce", "Database"})
+@Description("Spring Data repository method invocation")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Method")
+    private String method;
+
+    @Label("Failed")
+    private boolean failed;
+
+    public void finish(String method, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
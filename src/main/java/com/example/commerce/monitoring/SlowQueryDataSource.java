@@ -0,0 +1,176 @@
+package com.example.commerce.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Data source wrapper that times statement execution through JDK proxies and hands
+ * statements above the threshold to the {@link SlowQueryLog}. Only slow queries get
+ * their result sets wrapped for row counting, so the fast path stays a timing check.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+
+    public SlowQueryDataSource(DataSource targetDataSource, ObjectProvider<SlowQueryLog> slowQueryLogProvider) {
+        super(targetDataSource);
+        this.slowQueryLogProvider = slowQueryLogProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            String name = method.getName();
+            if (result instanceof CallableStatement statement && name.equals("prepareCall")) {
+                return wrapStatement(statement, CallableStatement.class, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+                return wrapStatement(statement, PreparedStatement.class, (String) args[0]);
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return wrapStatement(statement, Statement.class, null);
+            }
+            return result;
+        }
+
+        private Object wrapStatement(Statement statement, Class<? extends Statement> type, String sql) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler(statement, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (sql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+            if (!name.startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+
+            long start = System.nanoTime();
+            Object result = invokeTarget(target, method, args);
+            long elapsed = System.nanoTime() - start;
+
+            SlowQueryLog slowQueryLog = slowQueryLogProvider.getIfAvailable();
+            String executedSql = sql != null ? sql : (args != null && args.length > 0 && args[0] instanceof String s ? s : null);
+            if (slowQueryLog == null || executedSql == null || !slowQueryLog.isSlow(elapsed)) {
+                return result;
+            }
+
+            List<Object> values = new ArrayList<>(parameters.values());
+            SlowQueryEntry entry = slowQueryLog.record(executedSql, parameterTypes(values), elapsed, rowCount(result));
+            slowQueryLog.explain(entry, executedSql, values, obtainTargetDataSource());
+            if (result instanceof ResultSet resultSet) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, new ResultSetHandler(resultSet, entry));
+            }
+            return result;
+        }
+
+        private List<String> parameterTypes(List<Object> values) {
+            return values.stream()
+                    .map(value -> value == null ? "null" : value.getClass().getSimpleName())
+                    .toList();
+        }
+
+        private long rowCount(Object result) {
+            if (result instanceof Number number) {
+                return number.longValue();
+            }
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            return result instanceof ResultSet ? 0 : -1;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final SlowQueryEntry entry;
+
+        private ResultSetHandler(ResultSet target, SlowQueryEntry entry) {
+            this.target = target;
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                entry.incrementRowCount();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.commerce.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's data source so statement timings reach the {@link SlowQueryLog}.
+ * The log is resolved lazily to keep this post-processor free of early bean dependencies.
+ */
+@Component
+public class SlowQueryDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+
+    public SlowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLogProvider) {
+        this.slowQueryLogProvider = slowQueryLogProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+            return new SlowQueryDataSource(dataSource, slowQueryLogProvider);
+        }
+        return bean;
+    }
+}
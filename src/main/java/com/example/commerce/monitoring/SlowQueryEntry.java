@@ -0,0 +1,38 @@
+package com.example.commerce.monitoring;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A single statement that exceeded the slow-query threshold. Row count and plan are
+ * filled in after the fact (result set iteration and asynchronous EXPLAIN).
+ */
+@Getter
+public class SlowQueryEntry {
+    private final Instant executedAt;
+    private final String sql;
+    private final int parameterCount;
+    private final List<String> parameterTypes;
+    private final double durationMs;
+    private volatile long rowCount;
+    private volatile String executionPlan;
+
+    public SlowQueryEntry(String sql, List<String> parameterTypes, double durationMs, long rowCount) {
+        this.executedAt = Instant.now();
+        this.sql = sql;
+        this.parameterCount = parameterTypes.size();
+        this.parameterTypes = List.copyOf(parameterTypes);
+        this.durationMs = durationMs;
+        this.rowCount = rowCount;
+    }
+
+    void incrementRowCount() {
+        rowCount++;
+    }
+
+    void setExecutionPlan(String executionPlan) {
+        this.executionPlan = executionPlan;
+    }
+}
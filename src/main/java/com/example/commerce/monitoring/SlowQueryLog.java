@@ -0,0 +1,127 @@
+package com.example.commerce.monitoring;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded ring buffer of statements slower than the configured threshold. Optionally
+ * captures {@code EXPLAIN (ANALYZE, BUFFERS)} output for slow SELECTs in the background.
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    private final long thresholdNanos;
+    private final int capacity;
+    private final boolean explainEnabled;
+    private final Deque<SlowQueryEntry> entries = new ArrayDeque<>();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLog(@Value("${monitoring.slow-queries.threshold-ms:200}") long thresholdMs,
+                        @Value("${monitoring.slow-queries.capacity:200}") int capacity,
+                        @Value("${monitoring.slow-queries.explain:false}") boolean explainEnabled) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.capacity = capacity;
+        this.explainEnabled = explainEnabled;
+        // Single background worker; plans are best effort and dropped when it falls behind
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public boolean isSlow(long durationNanos) {
+        return durationNanos >= thresholdNanos;
+    }
+
+    public SlowQueryEntry record(String sql, List<String> parameterTypes, long durationNanos, long rowCount) {
+        SlowQueryEntry entry = new SlowQueryEntry(SqlNormalizer.normalize(sql), parameterTypes,
+                durationNanos / 1_000_000.0, rowCount);
+        synchronized (entries) {
+            if (entries.size() >= capacity) {
+                entries.removeLast();
+            }
+            entries.addFirst(entry);
+        }
+        log.warn("Slow query ({} ms, {} params): {}", String.format("%.1f", entry.getDurationMs()),
+                entry.getParameterCount(), entry.getSql());
+        return entry;
+    }
+
+    /**
+     * Runs EXPLAIN for a slow read on a separate connection from the unwrapped data source.
+     * Writes and locking reads are skipped because ANALYZE actually executes the statement.
+     */
+    public void explain(SlowQueryEntry entry, String sql, List<Object> parameters, DataSource dataSource) {
+        if (!explainEnabled || !isExplainable(sql)) {
+            return;
+        }
+        explainExecutor.execute(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setReadOnly(true);
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                    for (int i = 0; i < parameters.size(); i++) {
+                        statement.setObject(i + 1, parameters.get(i));
+                    }
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            plan.append(resultSet.getString(1)).append('\n');
+                        }
+                    }
+                    entry.setExecutionPlan(plan.toString());
+                } finally {
+                    if (!connection.getAutoCommit()) {
+                        connection.rollback();
+                    }
+                }
+            } catch (Exception e) {
+                log.debug("Could not capture execution plan: {}", e.getMessage());
+            }
+        });
+    }
+
+    public List<SlowQueryEntry> getEntries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    private boolean isExplainable(String sql) {
+        String normalized = sql.trim().toLowerCase(Locale.ROOT);
+        return normalized.startsWith("select")
+                && !normalized.contains(" for update")
+                && !normalized.contains(" for share")
+                && !normalized.contains(" for no key update");
+    }
+}
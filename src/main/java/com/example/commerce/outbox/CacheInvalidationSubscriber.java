@@ -0,0 +1,51 @@
+package com.example.commerce.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * Evicts the cache entries an order or inventory change made stale, key by key.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationSubscriber implements OutboxSubscriber {
+
+    private final CacheManager cacheManager;
+
+    public CacheInvalidationSubscriber(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String name() {
+        return "cache-invalidation";
+    }
+
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            switch (event.eventType()) {
+                case ORDER_CREATED, ORDER_STATUS_CHANGED -> evict("orderById", event.aggregateId());
+                case INVENTORY_CHANGED -> {
+                    evict("inventoryById", event.aggregateId());
+                    JsonNode productId = event.payload().get("productId");
+                    if (productId != null) {
+                        evict("inventoryByProductId", productId.asLong());
+                    }
+                }
+            }
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
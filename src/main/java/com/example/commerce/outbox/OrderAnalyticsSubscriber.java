@@ -0,0 +1,101 @@
+package com.example.commerce.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running order analytics built from the change feed: orders placed, revenue, status transitions
+ * and units sold per product.
+ * <p>
+ * The counters are node-local approximations. They live in memory, start from zero on restart,
+ * and only cover the batches this node's relay delivered, so with several nodes each one holds a
+ * share of the traffic. Redeliveries are skipped by event id while the id is still inside the
+ * window of recently handled events; a batch that another node delivers again after a failed
+ * relay transaction is counted there as well.
+ */
+@Component
+public class OrderAnalyticsSubscriber implements OutboxSubscriber {
+
+    private final LongAdder ordersCreated = new LongAdder();
+    private final DoubleAdder revenue = new DoubleAdder();
+    private final Map<String, LongAdder> statusTransitions = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> unitsSoldByProduct = new ConcurrentHashMap<>();
+    private final LongAdder eventsHandled = new LongAdder();
+    private final LongAdder duplicatesSkipped = new LongAdder();
+    // Ids of the most recently handled events, oldest first; guarded by itself
+    private final Set<Long> handledIds;
+
+    public OrderAnalyticsSubscriber(@Value("${outbox.analytics.dedupe-window:10000}") int dedupeWindow) {
+        this.handledIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > dedupeWindow;
+            }
+        });
+    }
+
+    @Override
+    public String name() {
+        return "order-analytics";
+    }
+
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            if (!firstDelivery(event.id())) {
+                duplicatesSkipped.increment();
+                continue;
+            }
+            JsonNode payload = event.payload();
+            switch (event.eventType()) {
+                case ORDER_CREATED -> {
+                    ordersCreated.increment();
+                    revenue.add(payload.path("totalAmount").asDouble());
+                    payload.path("items").properties().forEach(item ->
+                            unitsSoldByProduct.computeIfAbsent(Long.valueOf(item.getKey()), id -> new LongAdder())
+                                    .add(item.getValue().asLong()));
+                }
+                case ORDER_STATUS_CHANGED -> statusTransitions
+                        .computeIfAbsent(payload.path("from").asString() + "->" + payload.path("to").asString(),
+                                transition -> new LongAdder())
+                        .increment();
+                default -> {
+                }
+            }
+            eventsHandled.increment();
+        }
+    }
+
+    private boolean firstDelivery(Long eventId) {
+        synchronized (handledIds) {
+            return handledIds.add(eventId);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("scope", "node");
+        snapshot.put("eventsHandled", eventsHandled.sum());
+        snapshot.put("duplicatesSkipped", duplicatesSkipped.sum());
+        snapshot.put("ordersCreated", ordersCreated.sum());
+        snapshot.put("revenue", revenue.sum());
+        Map<String, Long> transitions = new TreeMap<>();
+        statusTransitions.forEach((transition, count) -> transitions.put(transition, count.sum()));
+        snapshot.put("statusTransitions", transitions);
+        Map<Long, Long> unitsSold = new TreeMap<>();
+        unitsSoldByProduct.forEach((productId, units) -> unitsSold.put(productId, units.sum()));
+        snapshot.put("unitsSoldByProduct", unitsSold);
+        return snapshot;
+    }
+}
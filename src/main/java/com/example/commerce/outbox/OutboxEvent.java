@@ -0,0 +1,19 @@
+package com.example.commerce.outbox;
+
+import com.example.commerce.enums.OutboxEventType;
+import tools.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of an outbox row, as handed to subscribers and served by the change feed.
+ */
+public record OutboxEvent(
+        Long id,
+        OutboxEventType eventType,
+        String aggregateType,
+        Long aggregateId,
+        JsonNode payload,
+        LocalDateTime createdAt,
+        LocalDateTime publishedAt
+) {}
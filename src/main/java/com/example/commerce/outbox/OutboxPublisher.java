@@ -0,0 +1,75 @@
+package com.example.commerce.outbox;
+
+import com.example.commerce.enums.OutboxEventType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records events in the outbox table as part of the transaction that makes the change, so an
+ * event exists if and only if the change commits. Events are buffered per transaction and
+ * written with a single multi-row insert just before commit, keeping the outbox cost per
+ * transaction at one statement however many rows the transaction touched.
+ */
+@Component
+public class OutboxPublisher {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at) " +
+            "SELECT e.aggregate_type, e.aggregate_id, e.event_type, e.payload, now() " +
+            "FROM unnest(?::varchar[], ?::bigint[], ?::varchar[], ?::text[]) " +
+            "AS e(aggregate_type, aggregate_id, event_type, payload)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxPublisher(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void publish(OutboxEventType eventType, Long aggregateId, Object payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be published inside a transaction");
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.aggregateTypes.add(eventType.getAggregateType());
+        pending.aggregateIds.add(aggregateId);
+        pending.eventTypes.add(eventType.name());
+        pending.payloads.add(objectMapper.writeValueAsString(payload));
+    }
+
+    private class PendingEvents implements TransactionSynchronization {
+        private final List<String> aggregateTypes = new ArrayList<>();
+        private final List<Long> aggregateIds = new ArrayList<>();
+        private final List<String> eventTypes = new ArrayList<>();
+        private final List<String> payloads = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            jdbcTemplate.update(INSERT_SQL, ps -> {
+                Connection connection = ps.getConnection();
+                ps.setArray(1, connection.createArrayOf("varchar", aggregateTypes.toArray()));
+                ps.setArray(2, connection.createArrayOf("bigint", aggregateIds.toArray()));
+                ps.setArray(3, connection.createArrayOf("varchar", eventTypes.toArray()));
+                ps.setArray(4, connection.createArrayOf("text", payloads.toArray()));
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OutboxPublisher.this);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.commerce.outbox;
+
+import com.example.commerce.entities.OutboxDeliveryFailureEntity;
+import com.example.commerce.entities.OutboxEventEntity;
+import com.example.commerce.repositories.OutboxDeliveryFailureRepository;
+import com.example.commerce.repositories.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox table in id order and hands each batch to every {@link OutboxSubscriber}.
+ * A batch is locked with {@code FOR UPDATE SKIP LOCKED}, delivered, and marked published in the
+ * same transaction, so concurrent relays (one per node) never deliver the same batch twice.
+ * When a subscriber throws, the events of that batch are recorded as failed deliveries for that
+ * subscriber in the same transaction and retried one by one with exponential backoff; after the
+ * last attempt they stay behind as dead letters. Published rows are kept for the retention period
+ * (longer while a subscriber still owes them) and serve as a replayable change feed.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final int MAX_FEED_PAGE = 500;
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(10);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDeliveryFailureRepository deliveryFailureRepository;
+    private final List<OutboxSubscriber> subscribers;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int retentionDays;
+    private final long retryBackoffMs;
+    private final int maxAttempts;
+
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final Map<String, LongAdder> subscriberFailures = new ConcurrentHashMap<>();
+    private final LongAdder redelivered = new LongAdder();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxDeliveryFailureRepository deliveryFailureRepository,
+                       List<OutboxSubscriber> subscribers,
+                       PlatformTransactionManager transactionManager,
+                       ObjectMapper objectMapper,
+                       @Value("${outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${outbox.relay.max-batches-per-run:20}") int maxBatchesPerRun,
+                       @Value("${outbox.retention-days:7}") int retentionDays,
+                       @Value("${outbox.relay.retry-backoff-ms:1000}") long retryBackoffMs,
+                       @Value("${outbox.relay.max-attempts:8}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.deliveryFailureRepository = deliveryFailureRepository;
+        this.subscribers = subscribers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retentionDays = retentionDays;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer delivered = transactionTemplate.execute(status -> relayBatch());
+            if (delivered == null || delivered < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retries deliveries that failed for a single subscriber, one event at a time so that one
+     * event the subscriber cannot handle does not hold back the rest.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.retry-interval-ms:5000}")
+    public void retryFailedDeliveries() {
+        transactionTemplate.executeWithoutResult(status -> retryBatch());
+    }
+
+    @Scheduled(cron = "${outbox.retention-cron:0 30 3 * * *}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(cutoff));
+        log.info("Purged {} outbox events published before {}", deleted, cutoff);
+    }
+
+    /**
+     * Events with an id greater than {@code afterId}, oldest first, published or not. Ids are
+     * assigned at insert and transactions can commit out of order, so a consumer tailing the
+     * feed should re-read a small overlap behind its last seen id.
+     */
+    public List<OutboxEvent> readFeed(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE));
+        return outboxEventRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize)).stream()
+                .map(this::toEvent)
+                .toList();
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("relayed", relayed.sum());
+        metrics.put("batches", batches.sum());
+        metrics.put("pending", outboxEventRepository.countByPublishedAtIsNull());
+        LocalDateTime oldestPending = outboxEventRepository.findOldestUnpublishedCreatedAt();
+        metrics.put("oldestPendingAgeMs", oldestPending == null ? 0 : Duration.between(oldestPending, LocalDateTime.now()).toMillis());
+        Map<String, Long> failures = new LinkedHashMap<>();
+        subscribers.forEach(subscriber -> failures.put(subscriber.name(),
+                subscriberFailures.getOrDefault(subscriber.name(), new LongAdder()).sum()));
+        metrics.put("subscriberFailures", failures);
+        metrics.put("redelivered", redelivered.sum());
+        Map<String, Long> retrying = new LinkedHashMap<>();
+        Map<String, Long> deadLetters = new LinkedHashMap<>();
+        subscribers.forEach(subscriber -> {
+            retrying.put(subscriber.name(), 0L);
+            deadLetters.put(subscriber.name(), 0L);
+        });
+        for (OutboxDeliveryFailureRepository.FailureCount count : deliveryFailureRepository.countBySubscriber()) {
+            (count.getDeadLettered() ? deadLetters : retrying).put(count.getSubscriber(), count.getCount());
+        }
+        metrics.put("retrying", retrying);
+        metrics.put("deadLetters", deadLetters);
+        return metrics;
+    }
+
+    private int relayBatch() {
+        List<OutboxEventEntity> rows = outboxEventRepository.lockUnpublished(batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<OutboxEvent> events = rows.stream().map(this::toEvent).toList();
+        List<OutboxDeliveryFailureEntity> failures = new ArrayList<>();
+        for (OutboxSubscriber subscriber : subscribers) {
+            try {
+                subscriber.handle(events);
+            } catch (RuntimeException e) {
+                subscriberFailures.computeIfAbsent(subscriber.name(), name -> new LongAdder()).increment();
+                log.warn("Outbox subscriber '{}' failed on events {}..{}, retrying them later", subscriber.name(),
+                        events.get(0).id(), events.get(events.size() - 1).id(), e);
+                for (OutboxEvent event : events) {
+                    failures.add(new OutboxDeliveryFailureEntity(null, subscriber.name(), event.id(), 1,
+                            nextAttemptAt(1), e.toString(), false));
+                }
+            }
+        }
+        deliveryFailureRepository.saveAll(failures);
+        outboxEventRepository.markPublished(rows.stream().map(OutboxEventEntity::getId).toList(), LocalDateTime.now());
+        relayed.add(rows.size());
+        batches.increment();
+        return rows.size();
+    }
+
+    private void retryBatch() {
+        List<OutboxDeliveryFailureEntity> due = deliveryFailureRepository.lockDue(LocalDateTime.now(), batchSize);
+        if (due.isEmpty()) {
+            return;
+        }
+        Map<Long, OutboxEvent> events = outboxEventRepository.findAllById(
+                        due.stream().map(OutboxDeliveryFailureEntity::getEventId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(OutboxEventEntity::getId, this::toEvent));
+        Map<String, OutboxSubscriber> subscribersByName = subscribers.stream()
+                .collect(Collectors.toMap(OutboxSubscriber::name, Function.identity()));
+
+        List<OutboxDeliveryFailureEntity> delivered = new ArrayList<>();
+        for (OutboxDeliveryFailureEntity failure : due) {
+            OutboxSubscriber subscriber = subscribersByName.get(failure.getSubscriber());
+            OutboxEvent event = events.get(failure.getEventId());
+            if (event == null) {
+                // Purged by hand; there is nothing left to deliver
+                delivered.add(failure);
+                continue;
+            }
+            try {
+                if (subscriber == null) {
+                    throw new IllegalStateException("No subscriber named '" + failure.getSubscriber() + "'");
+                }
+                subscriber.handle(List.of(event));
+                delivered.add(failure);
+                redelivered.increment();
+            } catch (RuntimeException e) {
+                failure.setAttempts(failure.getAttempts() + 1);
+                failure.setLastError(e.toString());
+                if (failure.getAttempts() >= maxAttempts) {
+                    failure.setDeadLettered(true);
+                    log.error("Outbox event {} dead-lettered for subscriber '{}' after {} attempts", event.id(),
+                            failure.getSubscriber(), failure.getAttempts(), e);
+                } else {
+                    failure.setNextAttemptAt(nextAttemptAt(failure.getAttempts()));
+                }
+            }
+        }
+        deliveryFailureRepository.deleteAll(delivered);
+    }
+
+    private LocalDateTime nextAttemptAt(int attempts) {
+        long delayMs = retryBackoffMs << Math.min(attempts - 1, 20);
+        return LocalDateTime.now().plus(Duration.ofMillis(Math.min(delayMs, MAX_RETRY_DELAY.toMillis())));
+    }
+
+    private OutboxEvent toEvent(OutboxEventEntity row) {
+        return new OutboxEvent(row.getId(), row.getEventType(), row.getAggregateType(), row.getAggregateId(),
+                objectMapper.readTree(row.getPayload()), row.getCreatedAt(), row.getPublishedAt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.commerce.outbox;
+
+import java.util.List;
+
+/**
+ * In-process consumer of outbox events. Every bean implementing this interface receives each
+ * relayed batch, in id order, after the writing transaction has committed.
+ * <p>
+ * Delivery is at least once: a batch can be seen again if the relay fails before marking it
+ * published, so handlers must be idempotent. A subscriber that throws does not hold up the
+ * others; the events it failed on are redelivered to it alone, one at a time and possibly after
+ * later events, until it handles them or they are dead-lettered.
+ */
+public interface OutboxSubscriber {
+
+    String name();
+
+    void handle(List<OutboxEvent> events);
+}
@@ -0,0 +1,315 @@
+package com.example.commerce.pipeline;
+
+import com.example.commerce.dtos.requests.AddOrderDTO;
+import com.example.commerce.errorhandlers.ResourceNotFoundException;
+import com.example.commerce.errorhandlers.ServiceUnavailableException;
+import com.example.commerce.services.OrderService;
+import com.example.commerce.utils.journal.AppendOnlyJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous order placement. The request thread validates the order against current stock,
+ * journals it and returns a ticket; the rest runs on two staged queues:
+ * <ol>
+ *     <li>persistence - reserves stock for and writes orders in batches, one transaction per batch</li>
+ *     <li>notification - announces the placed order and completes the ticket</li>
+ * </ol>
+ * Inventory cache entries are evicted when the reservation commits, not in a stage of their own.
+ * An order is marked done in the journal once it is committed, so anything accepted but not yet
+ * written when the node stops is replayed on the next start. Stock is only reserved in the
+ * transaction that writes the order, so a crash at any point leaves no reservation without an
+ * order, and replays are idempotent because the ticket id is stored on the order. The same ticket
+ * id lets a ticket be answered from the database once this node no longer tracks it.
+ * <p>
+ * An order the client was told is accepted is only given up on when it can never be written: its
+ * user or a product is gone, or the stock is. Any other failure, such as the database being down,
+ * is retried with exponential backoff for as long as it takes, and the order stays in the journal
+ * meanwhile.
+ */
+@Slf4j
+@Component
+public class OrderPipeline {
+
+    private final OrderService orderService;
+    private final AppendOnlyJournal<PendingOrder> journal;
+    private final int ticketRetention;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+    private final ScheduledExecutorService retries;
+
+    private final PipelineStage<PendingOrder> persistence;
+    private final PipelineStage<PersistedOrder> notification;
+
+    private final Map<String, OrderTicket> tickets = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> finishedTickets = new ConcurrentLinkedQueue<>();
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    private volatile boolean accepting;
+    private List<PendingOrder> recovered = List.of();
+
+    public OrderPipeline(OrderService orderService,
+                         ObjectMapper objectMapper,
+                         @Value("${orders.pipeline.journal-file:data/order-pipeline.journal}") String journalFile,
+                         @Value("${orders.pipeline.journal-fsync:true}") boolean fsync,
+                         @Value("${orders.pipeline.queue-capacity:10000}") int queueCapacity,
+                         @Value("${orders.pipeline.batch-size:100}") int batchSize,
+                         @Value("${orders.pipeline.persistence-workers:2}") int persistenceWorkers,
+                         @Value("${orders.pipeline.ticket-retention:10000}") int ticketRetention,
+                         @Value("${orders.pipeline.retry-backoff-ms:500}") long retryBackoffMs,
+                         @Value("${orders.pipeline.max-retry-backoff-ms:30000}") long maxRetryBackoffMs) {
+        this.orderService = orderService;
+        this.journal = new AppendOnlyJournal<>(Path.of(journalFile), objectMapper, PendingOrder.class, fsync, 10_000);
+        this.ticketRetention = ticketRetention;
+        this.retryBackoffMs = Math.max(1, retryBackoffMs);
+        this.maxRetryBackoffMs = Math.max(this.retryBackoffMs, maxRetryBackoffMs);
+        this.retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-pipeline-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.persistence = new PipelineStage<>("persistence", queueCapacity, persistenceWorkers, batchSize, this::persist);
+        this.notification = new PipelineStage<>("notification", queueCapacity, 1, batchSize, this::notifyPlaced);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        recovered = journal.open();
+        for (PendingOrder order : recovered) {
+            tickets.put(order.ticketId(), new OrderTicket(order.ticketId(), order.order().getUserId(), order.acceptedAt()));
+        }
+        notification.start();
+        persistence.start();
+        accepting = true;
+        if (!recovered.isEmpty()) {
+            log.info("Order pipeline recovered {} accepted orders from the journal", recovered.size());
+        }
+    }
+
+    /**
+     * Re-queues journaled orders once the application (and its database) is fully up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void replayJournal() throws InterruptedException {
+        for (PendingOrder order : recovered) {
+            persistence.put(order);
+        }
+        recovered = List.of();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        accepting = false;
+        // Orders waiting for a retry are still in the journal and are replayed on the next start
+        retries.shutdownNow();
+        persistence.stop(10_000);
+        notification.stop(2_000);
+        journal.close();
+    }
+
+    /**
+     * Validates the order on the calling thread, then journals and queues it for writing. An order
+     * accepted here can still fail if its stock is gone by the time it is written.
+     */
+    public OrderTicket submit(AddOrderDTO addOrderDTO) {
+        if (!accepting) {
+            throw new ServiceUnavailableException("Order pipeline is not accepting orders");
+        }
+        if (persistence.remainingCapacity() == 0) {
+            throw new ServiceUnavailableException("Order pipeline is at capacity, please retry shortly");
+        }
+
+        AddOrderDTO validated = orderService.validateOrder(addOrderDTO);
+        PendingOrder pending = new PendingOrder(UUID.randomUUID().toString(), validated, Instant.now());
+        try {
+            journal.append(pending.ticketId(), pending);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal order", e);
+        }
+
+        OrderTicket ticket = new OrderTicket(pending.ticketId(), validated.getUserId(), pending.acceptedAt());
+        tickets.put(ticket.getTicketId(), ticket);
+        try {
+            persistence.put(pending);
+        } catch (InterruptedException e) {
+            // Journaled already, so the order is written on the next start
+            Thread.currentThread().interrupt();
+        }
+        return ticket;
+    }
+
+    /**
+     * Tickets accepted on this node are answered from memory; anything else, such as a ticket from
+     * another node or from before a restart, is answered from its written order. A ticket still
+     * waiting in another node's queue is not found until that node writes it.
+     */
+    public OrderTicket getTicket(String ticketId) {
+        OrderTicket ticket = tickets.get(ticketId);
+        if (ticket != null) {
+            return ticket;
+        }
+        return orderService.findOrderByTicketId(ticketId)
+                .map(order -> {
+                    OrderTicket written = new OrderTicket(ticketId, order.getUserId(),
+                            order.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
+                    written.persisted(order.getId());
+                    written.completed();
+                    return written;
+                })
+                .orElseThrow(() -> new ResourceNotFoundException("Order ticket not found: " + ticketId));
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put(persistence.getName(), persistence.metrics());
+        metrics.put(notification.getName(), notification.metrics());
+        metrics.put("journalPending", journal.pendingCount());
+        metrics.put("retrying", attempts.size());
+        metrics.put("trackedTickets", tickets.size());
+        return metrics;
+    }
+
+    // ==================== STAGES ====================
+
+    private void persist(List<PendingOrder> batch) {
+        Map<String, AddOrderDTO> ordersByTicket = new LinkedHashMap<>();
+        batch.forEach(order -> ordersByTicket.put(order.ticketId(), order.order()));
+
+        Map<String, Long> orderIds;
+        try {
+            orderIds = orderService.persistAcceptedOrders(ordersByTicket);
+        } catch (RuntimeException batchFailure) {
+            // Isolate the order that broke the batch so the others still go through
+            log.warn("Persisting a batch of {} orders failed, retrying one by one", batch.size(), batchFailure);
+            orderIds = new LinkedHashMap<>();
+            for (PendingOrder order : batch) {
+                try {
+                    orderIds.putAll(orderService.persistAcceptedOrders(Map.of(order.ticketId(), order.order())));
+                } catch (ResourceNotFoundException | IllegalArgumentException e) {
+                    abandon(order, e.getMessage());
+                } catch (RuntimeException e) {
+                    retryLater(order, e);
+                }
+            }
+        }
+
+        try {
+            journal.complete(orderIds.keySet());
+        } catch (IOException e) {
+            // The orders are committed; a replay would find them by ticket id and skip them
+            log.error("Could not mark {} orders done in the journal", orderIds.size(), e);
+        }
+
+        for (PendingOrder order : batch) {
+            Long orderId = orderIds.get(order.ticketId());
+            if (orderId == null) {
+                continue;
+            }
+            attempts.remove(order.ticketId());
+            OrderTicket ticket = ticket(order);
+            ticket.persisted(orderId);
+            if (!notification.offer(new PersistedOrder(ticket, order.order()))) {
+                finish(ticket);
+            }
+        }
+    }
+
+    private void notifyPlaced(List<PersistedOrder> batch) {
+        for (PersistedOrder persisted : batch) {
+            OrderTicket ticket = persisted.ticket();
+            log.info("Order {} placed for user {} (ticket {})", ticket.getOrderId(), ticket.getUserId(), ticket.getTicketId());
+            finish(ticket);
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Queues the order again after a delay that doubles with every failed attempt, up to
+     * {@code orders.pipeline.max-retry-backoff-ms}. It stays in the journal until it is written.
+     */
+    private void retryLater(PendingOrder order, RuntimeException cause) {
+        int attempt = attempts.merge(order.ticketId(), 1, Integer::sum);
+        long delay = backoff(attempt);
+        log.warn("Could not write order ticket {} (attempt {}), retrying in {} ms: {}",
+                order.ticketId(), attempt, delay, cause.getMessage());
+        schedule(order, delay);
+    }
+
+    private void schedule(PendingOrder order, long delayMs) {
+        try {
+            retries.schedule(() -> {
+                if (!persistence.offer(order)) {
+                    // The queue is full; try again later rather than dropping it
+                    schedule(order, maxRetryBackoffMs);
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the journal still has the order for the next start
+            log.info("Order ticket {} is left for the next start", order.ticketId());
+        }
+    }
+
+    private long backoff(int attempt) {
+        long delay = retryBackoffMs << Math.min(attempt - 1, 30);
+        return delay <= 0 ? maxRetryBackoffMs : Math.min(delay, maxRetryBackoffMs);
+    }
+
+    /**
+     * Gives up on an order that can never be written and lets the journal forget it. Nothing was
+     * reserved for it, since its transaction never committed.
+     */
+    private void abandon(PendingOrder order, String reason) {
+        attempts.remove(order.ticketId());
+        OrderTicket ticket = ticket(order);
+        try {
+            journal.complete(order.ticketId());
+        } catch (IOException e) {
+            // Replayed on the next start, where it fails the same way
+            log.error("Could not mark abandoned order ticket {} done in the journal", order.ticketId(), e);
+        }
+        ticket.failed(reason);
+        finish(ticket);
+    }
+
+    private OrderTicket ticket(PendingOrder order) {
+        return tickets.computeIfAbsent(order.ticketId(),
+                id -> new OrderTicket(id, order.order().getUserId(), order.acceptedAt()));
+    }
+
+    private void finish(OrderTicket ticket) {
+        if (ticket.getStatus() != OrderTicket.Status.FAILED) {
+            ticket.completed();
+        }
+        finishedTickets.add(ticket.getTicketId());
+        while (finishedTickets.size() > ticketRetention) {
+            String oldest = finishedTickets.poll();
+            if (oldest != null) {
+                tickets.remove(oldest);
+            }
+        }
+    }
+
+    private record PersistedOrder(OrderTicket ticket, AddOrderDTO order) {}
+}
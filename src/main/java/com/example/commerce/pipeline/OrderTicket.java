@@ -0,0 +1,54 @@
+package com.example.commerce.pipeline;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Pollable progress of an order submitted asynchronously.
+ */
+@Getter
+public class OrderTicket {
+
+    public enum Status {
+        ACCEPTED, PERSISTED, COMPLETED, FAILED
+    }
+
+    private final String ticketId;
+    private final Long userId;
+    private final Instant acceptedAt;
+    private volatile Status status = Status.ACCEPTED;
+    private volatile Long orderId;
+    private volatile String error;
+    private volatile Instant updatedAt;
+
+    OrderTicket(String ticketId, Long userId, Instant acceptedAt) {
+        this.ticketId = ticketId;
+        this.userId = userId;
+        this.acceptedAt = acceptedAt;
+        this.updatedAt = acceptedAt;
+    }
+
+    void persisted(Long orderId) {
+        this.orderId = orderId;
+        transition(Status.PERSISTED);
+    }
+
+    void completed() {
+        transition(Status.COMPLETED);
+    }
+
+    void failed(String error) {
+        this.error = error;
+        transition(Status.FAILED);
+    }
+
+    boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    private void transition(Status status) {
+        this.status = status;
+        this.updatedAt = Instant.now();
+    }
+}
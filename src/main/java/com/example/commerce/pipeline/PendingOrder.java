@@ -0,0 +1,11 @@
+package com.example.commerce.pipeline;
+
+import com.example.commerce.dtos.requests.AddOrderDTO;
+
+import java.time.Instant;
+
+/**
+ * An order that has been validated but not written yet; its stock is reserved when it is
+ * written. This is what the journal stores, so it must stay serialisable as JSON.
+ */
+public record PendingOrder(String ticketId, AddOrderDTO order, Instant acceptedAt) {}
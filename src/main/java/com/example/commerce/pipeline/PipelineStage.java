@@ -0,0 +1,135 @@
+package com.example.commerce.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * One step of the order pipeline: a bounded queue drained in batches by a fixed set of worker
+ * threads. Latency is measured per item from enqueue to the end of the batch that handled it.
+ */
+@Slf4j
+class PipelineStage<T> {
+
+    private final String name;
+    private final ArrayBlockingQueue<Queued<T>> queue;
+    private final int batchSize;
+    private final Consumer<List<T>> handler;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    PipelineStage(String name, int capacity, int workerCount, int batchSize, Consumer<List<T>> handler) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.handler = handler;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, "order-pipeline-" + name + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    void start() {
+        running = true;
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * Stops taking new batches once the queue is empty or the timeout expires, whichever comes first.
+     */
+    void stop(long timeoutMillis) throws InterruptedException {
+        running = false;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            worker.interrupt();
+        }
+    }
+
+    void put(T item) throws InterruptedException {
+        queue.put(new Queued<>(item, System.nanoTime()));
+    }
+
+    boolean offer(T item) {
+        return queue.offer(new Queued<>(item, System.nanoTime()));
+    }
+
+    int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Map<String, Object> metrics() {
+        long processedCount = processed.sum();
+        long batchCount = batches.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("capacity", queue.size() + queue.remainingCapacity());
+        metrics.put("workers", workers.size());
+        metrics.put("processed", processedCount);
+        metrics.put("failed", failed.sum());
+        metrics.put("batches", batchCount);
+        metrics.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) (processedCount + failed.sum()) / batchCount);
+        metrics.put("avgLatencyMs", processedCount == 0 ? 0.0 : totalLatencyNanos.sum() / 1_000_000.0 / processedCount);
+        metrics.put("maxLatencyMs", maxLatencyNanos.get() / 1_000_000.0);
+        return metrics;
+    }
+
+    private void drain() {
+        List<Queued<T>> batch = new ArrayList<>(batchSize);
+        List<T> items = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Queued<T> first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            for (Queued<T> queued : batch) {
+                items.add(queued.item());
+            }
+            try {
+                handler.accept(items);
+                long now = System.nanoTime();
+                for (Queued<T> queued : batch) {
+                    long latency = now - queued.enqueuedAt();
+                    totalLatencyNanos.add(latency);
+                    maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                }
+                processed.add(batch.size());
+            } catch (RuntimeException e) {
+                failed.add(batch.size());
+                log.error("Order pipeline stage '{}' failed a batch of {}", name, batch.size(), e);
+            }
+            batches.increment();
+            batch.clear();
+            items.clear();
+        }
+    }
+
+    private record Queued<T>(T item, long enqueuedAt) {}
+}
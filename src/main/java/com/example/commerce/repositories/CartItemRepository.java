@@ -3,8 +3,11 @@ package com.example.commerce.repositories;
 import com.example.commerce.entities.CartItemEntity;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +15,41 @@ public interface CartItemRepository extends JpaRepository<CartItemEntity, Long>
     @EntityGraph(attributePaths = "product")
     Optional<CartItemEntity> findByCartIdAndProductId(Long cartId, Long productId);
     void deleteByCartId(Long cartId);
+
+    /**
+     * Adds {@code quantity} of a product to a cart in one statement: adds to the existing line's
+     * quantity when the product is already in the cart, otherwise inserts the line. Concurrent adds
+     * of the same product are serialised by the unique (cart_id, product_id) constraint instead of
+     * failing. A new line's id is the start of a fresh pooled-lo block of cart_items_seq, so it never
+     * collides with ids Hibernate allocates. Each {@code nextval} uses up a whole block of 50 ids, so
+     * the update runs first and the sequence only advances when a line is inserted; a block is only
+     * wasted when two adds race to create the same line.
+     *
+     * @return the line as written
+     */
+    @Query(value = "WITH updated AS (" +
+                   "UPDATE cart_items SET quantity = quantity + :quantity, updated_at = LOCALTIMESTAMP " +
+                   "WHERE cart_id = :cartId AND product_id = :productId " +
+                   "RETURNING id, quantity, created_at, updated_at), " +
+                   "inserted AS (" +
+                   "INSERT INTO cart_items (id, cart_id, product_id, quantity, created_at, updated_at) " +
+                   "SELECT nextval('cart_items_seq'), :cartId, :productId, :quantity, LOCALTIMESTAMP, LOCALTIMESTAMP " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM updated) " +
+                   "ON CONFLICT (cart_id, product_id) DO UPDATE SET " +
+                   "quantity = cart_items.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at " +
+                   "RETURNING id, quantity, created_at, updated_at) " +
+                   "SELECT id, quantity, created_at AS \"createdAt\", updated_at AS \"updatedAt\" FROM updated " +
+                   "UNION ALL " +
+                   "SELECT id, quantity, created_at, updated_at FROM inserted",
+           nativeQuery = true)
+    UpsertedItem upsertQuantity(@Param("cartId") Long cartId,
+                                @Param("productId") Long productId,
+                                @Param("quantity") int quantity);
+
+    interface UpsertedItem {
+        Long getId();
+        Integer getQuantity();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+    }
 }
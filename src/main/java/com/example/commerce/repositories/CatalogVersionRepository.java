@@ -0,0 +1,30 @@
+package com.example.commerce.repositories;
+
+import com.example.commerce.entities.CatalogVersionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersionEntity, Integer> {
+
+    /**
+     * Adds one to the catalog version, creating the row on first use. Inside a writing transaction
+     * the row lock is held until it commits, so the new version becomes visible together with the
+     * change it counts.
+     *
+     * @return the new version
+     */
+    @Transactional
+    @Query(value = "INSERT INTO catalog_version AS v (id, version) VALUES (1, 1) " +
+                   "ON CONFLICT (id) DO UPDATE SET version = v.version + 1 " +
+                   "RETURNING version",
+           nativeQuery = true)
+    long increment();
+
+    @Query("SELECT v.version FROM CatalogVersionEntity v WHERE v.id = 1")
+    Optional<Long> findCurrent();
+}
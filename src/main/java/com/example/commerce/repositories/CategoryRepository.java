@@ -1,11 +1,13 @@
 package com.example.commerce.repositories;
 
 import com.example.commerce.entities.CategoryEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +16,6 @@ public interface CategoryRepository extends JpaRepository<CategoryEntity, Long>
     Optional<CategoryEntity> findByNameIgnoreCase(String name);
     
     Page<CategoryEntity> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String name, String description, Pageable pageable);
+
+    List<CategoryEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
@@ -1,17 +1,21 @@
 package com.example.commerce.repositories;
 
 import com.example.commerce.entities.InventoryEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InventoryRepository extends JpaRepository<InventoryEntity, Long> {
+public interface InventoryRepository extends JpaRepository<InventoryEntity, Long>, InventoryReservationRepository {
     Optional<InventoryEntity> findByProductId(Long productId);
     boolean existsByProductId(Long productId);
     
@@ -20,4 +24,19 @@ public interface InventoryRepository extends JpaRepository<InventoryEntity, Long
            "LOWER(i.product.sku) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(i.location) LIKE LOWER(CONCAT('%', :search, '%'))")
     Page<InventoryEntity> searchInventory(@Param("search") String search, Pageable pageable);
+
+    /**
+     * Stock levels for a set of products without materialising the inventory entities.
+     */
+    @Query("SELECT i.product.id AS productId, i.quantity AS quantity FROM InventoryEntity i " +
+           "WHERE i.product.id IN :productIds")
+    List<StockLevel> findStockLevelsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    interface StockLevel {
+        Long getProductId();
+        Integer getQuantity();
+    }
+
+    @EntityGraph(attributePaths = "product")
+    List<InventoryEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
@@ -0,0 +1,30 @@
+package com.example.commerce.repositories;
+
+import java.util.Map;
+
+/**
+ * Set-based stock updates, one statement per call regardless of how many products are touched.
+ */
+public interface InventoryReservationRepository {
+
+    /**
+     * Decrements stock for every product whose current quantity covers the requested amount.
+     * Products that are short (or have no inventory row) are left untouched.
+     *
+     * @param quantities requested quantity per product id
+     * @return updated inventory row per product id, for the products whose stock was reserved
+     */
+    Map<Long, UpdatedStock> reserveStock(Map<Long, Integer> quantities);
+
+    /**
+     * Adds the given quantities back to stock.
+     *
+     * @return updated inventory row per product id, for the products that have an inventory row
+     */
+    Map<Long, UpdatedStock> releaseStock(Map<Long, Integer> quantities);
+
+    /**
+     * @param quantity stock left after the update
+     */
+    record UpdatedStock(Long inventoryId, int quantity) {}
+}
@@ -0,0 +1,77 @@
+package com.example.commerce.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implements the reservation fragment of {@link InventoryRepository} with plain JDBC.
+ * Both statements join against {@code unnest} of two parallel arrays so a whole batch of
+ * products is reserved or released in a single round trip. Runs on the connection bound to
+ * the surrounding JPA transaction. PostgreSQL does not promise in which order an
+ * {@code UPDATE ... FROM} locks the rows it changes, so the rows are first locked in id order by
+ * a separate {@code SELECT ... FOR UPDATE}; concurrent calls touching overlapping products then
+ * queue on the same first row instead of deadlocking.
+ */
+class InventoryReservationRepositoryImpl implements InventoryReservationRepository {
+
+    private static final String LOCK_SQL =
+            "SELECT i.id FROM inventory AS i WHERE i.product_id = ANY(?::bigint[]) ORDER BY i.id FOR UPDATE";
+
+    private static final String RESERVE_SQL =
+            "UPDATE inventory AS i SET quantity = i.quantity - r.quantity " +
+            "FROM unnest(?::bigint[], ?::integer[]) AS r(product_id, quantity) " +
+            "WHERE i.product_id = r.product_id AND i.quantity >= r.quantity " +
+            "RETURNING i.product_id, i.id, i.quantity";
+
+    private static final String RELEASE_SQL =
+            "UPDATE inventory AS i SET quantity = i.quantity + r.quantity " +
+            "FROM unnest(?::bigint[], ?::integer[]) AS r(product_id, quantity) " +
+            "WHERE i.product_id = r.product_id " +
+            "RETURNING i.product_id, i.id, i.quantity";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    InventoryReservationRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<Long, UpdatedStock> reserveStock(Map<Long, Integer> quantities) {
+        return quantities.isEmpty() ? Map.of() : execute(RESERVE_SQL, quantities);
+    }
+
+    @Override
+    public Map<Long, UpdatedStock> releaseStock(Map<Long, Integer> quantities) {
+        return quantities.isEmpty() ? Map.of() : execute(RELEASE_SQL, quantities);
+    }
+
+    private Map<Long, UpdatedStock> execute(String sql, Map<Long, Integer> quantities) {
+        Long[] lockedProductIds = quantities.keySet().toArray(Long[]::new);
+        jdbcTemplate.query(LOCK_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", lockedProductIds)),
+                rs -> {});
+        Map<Long, UpdatedStock> updated = new HashMap<>();
+        jdbcTemplate.query(sql, bind(quantities), rs -> {
+            updated.put(rs.getLong(1), new UpdatedStock(rs.getLong(2), rs.getInt(3)));
+        });
+        return updated;
+    }
+
+    private static PreparedStatementSetter bind(Map<Long, Integer> quantities) {
+        Long[] productIds = new Long[quantities.size()];
+        Integer[] amounts = new Integer[quantities.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            productIds[i] = entry.getKey();
+            amounts[i] = entry.getValue();
+            i++;
+        }
+        return ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", productIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("integer", amounts));
+        };
+    }
+}
@@ -2,11 +2,18 @@ package com.example.commerce.repositories;
 
 import com.example.commerce.entities.OrderItemsEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemsRepository extends JpaRepository<OrderItemsEntity, Long> {
     List<OrderItemsEntity> findByOrderId(Long orderId);
+
+    @Query("SELECT i FROM OrderItemsEntity i JOIN FETCH i.order o JOIN FETCH o.user " +
+           "JOIN FETCH i.product p JOIN FETCH p.category WHERE o.id IN :orderIds")
+    List<OrderItemsEntity> findByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
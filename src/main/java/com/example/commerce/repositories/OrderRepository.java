@@ -1,20 +1,57 @@
 package com.example.commerce.repositories;
 
 import com.example.commerce.entities.OrderEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     Page<OrderEntity> findByUserId(Long userId, Pageable pageable);
+
+    List<OrderEntity> findByTicketIdIn(Collection<String> ticketIds);
+
+    /**
+     * The order written for an asynchronous ticket, without loading the order entity.
+     */
+    @Query("SELECT o.id AS id, o.user.id AS userId, o.createdAt AS createdAt FROM OrderEntity o " +
+           "WHERE o.ticketId = :ticketId")
+    Optional<TicketedOrder> findTicketedOrder(@Param("ticketId") String ticketId);
+
+    interface TicketedOrder {
+        Long getId();
+        Long getUserId();
+        LocalDateTime getCreatedAt();
+    }
     
     @Query("SELECT o FROM OrderEntity o WHERE " +
            "LOWER(o.user.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(o.user.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(o.user.email) LIKE LOWER(CONCAT('%', :search, '%'))")
     Page<OrderEntity> searchOrders(@Param("search") String search, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM OrderEntity o JOIN FETCH o.user " +
+           "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.id")
+    Stream<OrderEntity> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @EntityGraph(attributePaths = "user")
+    List<OrderEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
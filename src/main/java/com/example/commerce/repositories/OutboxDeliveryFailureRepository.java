@@ -0,0 +1,33 @@
+package com.example.commerce.repositories;
+
+import com.example.commerce.entities.OutboxDeliveryFailureEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxDeliveryFailureRepository extends JpaRepository<OutboxDeliveryFailureEntity, Long> {
+
+    /**
+     * Failed deliveries due for another attempt, locked for the current transaction. Rows locked
+     * by another relay are skipped, as for the outbox itself.
+     */
+    @Query(value = "SELECT * FROM outbox_delivery_failures WHERE dead_lettered = false AND next_attempt_at <= :now " +
+                   "ORDER BY event_id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxDeliveryFailureEntity> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("SELECT f.subscriber AS subscriber, f.deadLettered AS deadLettered, COUNT(f) AS count " +
+           "FROM OutboxDeliveryFailureEntity f GROUP BY f.subscriber, f.deadLettered")
+    List<FailureCount> countBySubscriber();
+
+    interface FailureCount {
+        String getSubscriber();
+        Boolean getDeadLettered();
+        long getCount();
+    }
+}
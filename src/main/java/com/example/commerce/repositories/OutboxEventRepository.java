@@ -0,0 +1,44 @@
+package com.example.commerce.repositories;
+
+import com.example.commerce.entities.OutboxEventEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    /**
+     * Oldest unpublished events, locked for the current transaction. Rows locked by another
+     * relay are skipped, so several nodes can drain the outbox without handing out an event twice.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEventEntity> lockUnpublished(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEventEntity e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    List<OutboxEventEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    long countByPublishedAtIsNull();
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEventEntity e WHERE e.publishedAt IS NULL")
+    LocalDateTime findOldestUnpublishedCreatedAt();
+
+    /**
+     * Deletes published events past retention, except those a subscriber has yet to handle.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEventEntity e WHERE e.publishedAt < :cutoff AND NOT EXISTS " +
+           "(SELECT 1 FROM OutboxDeliveryFailureEntity f WHERE f.eventId = e.id)")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,22 @@
+package com.example.commerce.repositories;
+
+import com.example.commerce.dtos.responses.ProductResponseDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Set;
+
+/**
+ * Product pages that read only the columns the caller is going to use.
+ */
+public interface ProductProjectionRepository {
+
+    /**
+     * @param fields     product fields to populate, named as in the GraphQL schema; the id is always read.
+     *                   {@code categoryName} joins categories and {@code quantity} joins inventory, only
+     *                   when requested
+     * @param categoryId only products in this category, or null
+     * @param search     only products whose name or SKU contains this text, or null
+     */
+    Page<ProductResponseDTO> findProjected(Set<String> fields, Long categoryId, String search, Pageable pageable);
+}
@@ -0,0 +1,132 @@
+package com.example.commerce.repositories;
+
+import com.example.commerce.dtos.responses.ProductResponseDTO;
+import com.example.commerce.entities.InventoryEntity;
+import com.example.commerce.entities.ProductEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Implements the projection fragment of {@link ProductRepository} with a Criteria tuple query
+ * built from the requested fields, so a list that shows only ids and names reads two columns
+ * from one table.
+ */
+class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    private static final List<String> COLUMNS = List.of("name", "sku", "price", "isAvailable", "createdAt", "updatedAt");
+
+    private final EntityManager entityManager;
+
+    ProductProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<ProductResponseDTO> findProjected(Set<String> fields, Long categoryId, String search, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ProductEntity> product = query.from(ProductEntity.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(product.get("id").alias("id"));
+        for (String column : COLUMNS) {
+            if (fields.contains(column)) {
+                selections.add(product.get(column).alias(column));
+            }
+        }
+        if (fields.contains("categoryName")) {
+            selections.add(product.join("category").get("name").alias("categoryName"));
+        }
+        if (fields.contains("quantity")) {
+            Join<ProductEntity, InventoryEntity> inventory = product.join(InventoryEntity.class, JoinType.LEFT);
+            inventory.on(cb.equal(inventory.get("product"), product));
+            selections.add(inventory.get("quantity").alias("quantity"));
+        }
+
+        query.multiselect(selections)
+                .where(filters(cb, product, categoryId, search))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), product, cb));
+        List<ProductResponseDTO> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList()
+                .stream()
+                .map(row -> toResponse(row, fields))
+                .toList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(categoryId, search));
+    }
+
+    private long count(Long categoryId, String search) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<ProductEntity> product = query.from(ProductEntity.class);
+        query.select(cb.count(product)).where(filters(cb, product, categoryId, search));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] filters(CriteriaBuilder cb, Root<ProductEntity> product, Long categoryId, String search) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (categoryId != null) {
+            // Compares the foreign key; no join
+            predicates.add(cb.equal(product.get("category").get("id"), categoryId));
+        }
+        if (search != null) {
+            String pattern = "%" + search.toLowerCase(Locale.ROOT)
+                    .replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_") + "%";
+            predicates.add(cb.or(
+                    cb.like(cb.lower(product.get("name")), pattern, '\\'),
+                    cb.like(cb.lower(product.get("sku")), pattern, '\\')));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private static ProductResponseDTO toResponse(Tuple row, Set<String> fields) {
+        ProductResponseDTO response = new ProductResponseDTO();
+        response.setId(row.get("id", Long.class));
+        if (fields.contains("name")) {
+            response.setName(row.get("name", String.class));
+        }
+        if (fields.contains("sku")) {
+            response.setSku(row.get("sku", String.class));
+        }
+        if (fields.contains("price")) {
+            response.setPrice(row.get("price", Double.class));
+        }
+        if (fields.contains("isAvailable")) {
+            response.setAvailable(row.get("isAvailable", Boolean.class));
+        }
+        if (fields.contains("createdAt")) {
+            response.setCreatedAt(row.get("createdAt", LocalDateTime.class));
+        }
+        if (fields.contains("updatedAt")) {
+            response.setUpdatedAt(row.get("updatedAt", LocalDateTime.class));
+        }
+        if (fields.contains("categoryName")) {
+            response.setCategoryName(row.get("categoryName", String.class));
+        }
+        if (fields.contains("quantity")) {
+            response.setQuantity(row.get("quantity", Integer.class));
+        }
+        return response;
+    }
+}
@@ -1,18 +1,45 @@
 package com.example.commerce.repositories;
 
 import com.example.commerce.entities.ProductEntity;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+public interface ProductRepository extends JpaRepository<ProductEntity, Long>, ProductProjectionRepository {
     boolean existsByNameIgnoreCase(@NotBlank(message = "Product name is required") String name);
     Page<ProductEntity> findByCategoryId(Long categoryId, Pageable pageable);
 
     Page<ProductEntity> findByPriceBetween(Double minPrice, Double maxPrice, Pageable pageable);
     
     Page<ProductEntity> findByNameContainingIgnoreCaseOrSkuContainingIgnoreCase(String name, String sku, Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    List<ProductEntity> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.name FROM ProductEntity p WHERE p.id IN :ids")
+    List<String> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM ProductEntity p JOIN FETCH p.category ORDER BY p.id")
+    Stream<ProductEntity> streamForExport();
+
+    @EntityGraph(attributePaths = "category")
+    List<ProductEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
@@ -0,0 +1,89 @@
+package com.example.commerce.repositories;
+
+import com.example.commerce.entities.ProductReviewStatsEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductReviewStatsRepository extends JpaRepository<ProductReviewStatsEntity, Long> {
+
+    /**
+     * Adds ({@code delta = 1}) or removes ({@code delta = -1}) one rating from a product's totals in
+     * a single statement, creating the row on the first review. The row lock taken by the upsert
+     * serialises concurrent reviews of the same product.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_review_stats AS s " +
+                   "(product_id, rating_sum, review_count, one_star, two_star, three_star, four_star, five_star) " +
+                   "VALUES (:productId, :rating * :delta, :delta, " +
+                   "CASE WHEN :rating = 1 THEN :delta ELSE 0 END, CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+                   "CASE WHEN :rating = 3 THEN :delta ELSE 0 END, CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+                   "CASE WHEN :rating = 5 THEN :delta ELSE 0 END) " +
+                   "ON CONFLICT (product_id) DO UPDATE SET " +
+                   "rating_sum = s.rating_sum + EXCLUDED.rating_sum, review_count = s.review_count + EXCLUDED.review_count, " +
+                   "one_star = s.one_star + EXCLUDED.one_star, two_star = s.two_star + EXCLUDED.two_star, " +
+                   "three_star = s.three_star + EXCLUDED.three_star, four_star = s.four_star + EXCLUDED.four_star, " +
+                   "five_star = s.five_star + EXCLUDED.five_star",
+           nativeQuery = true)
+    void addRating(@Param("productId") Long productId, @Param("rating") int rating, @Param("delta") int delta);
+
+    /**
+     * Products whose totals are missing or differ from their reviews, including products whose
+     * reviews are all gone. Reads without locking, so it is a list of candidates for
+     * {@link #recomputeFromReviews(Long)} rather than an exact answer.
+     */
+    @Query(value = "SELECT COALESCE(a.product_id, s.product_id) " +
+                   "FROM (SELECT product_id, SUM(rating) AS rating_sum, COUNT(*) AS review_count, " +
+                   "COUNT(*) FILTER (WHERE rating = 1) AS one_star, COUNT(*) FILTER (WHERE rating = 2) AS two_star, " +
+                   "COUNT(*) FILTER (WHERE rating = 3) AS three_star, COUNT(*) FILTER (WHERE rating = 4) AS four_star, " +
+                   "COUNT(*) FILTER (WHERE rating = 5) AS five_star " +
+                   "FROM reviews GROUP BY product_id) a " +
+                   "FULL JOIN product_review_stats s ON s.product_id = a.product_id " +
+                   "WHERE (s.rating_sum, s.review_count, s.one_star, s.two_star, s.three_star, s.four_star, s.five_star) " +
+                   "IS DISTINCT FROM (COALESCE(a.rating_sum, 0), COALESCE(a.review_count, 0), COALESCE(a.one_star, 0), " +
+                   "COALESCE(a.two_star, 0), COALESCE(a.three_star, 0), COALESCE(a.four_star, 0), COALESCE(a.five_star, 0))",
+           nativeQuery = true)
+    List<Long> findProductIdsWithStaleStats();
+
+    /**
+     * Creates an all-zero row for the product unless it has one, so that it can be locked.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_review_stats " +
+                   "(product_id, rating_sum, review_count, one_star, two_star, three_star, four_star, five_star) " +
+                   "VALUES (:productId, 0, 0, 0, 0, 0, 0, 0) ON CONFLICT (product_id) DO NOTHING",
+           nativeQuery = true)
+    void insertEmptyIfMissing(@Param("productId") Long productId);
+
+    /**
+     * Locks the product's row until the current transaction ends. Review writes that already added
+     * their rating have committed by the time this returns, and later ones wait for it.
+     */
+    @Query(value = "SELECT product_id FROM product_review_stats WHERE product_id = :productId FOR UPDATE",
+           nativeQuery = true)
+    Long lockByProductId(@Param("productId") Long productId);
+
+    /**
+     * Overwrites the product's totals with a fresh count of its reviews. Must run as its own
+     * statement after {@link #lockByProductId(Long)}, so that it counts every committed review.
+     *
+     * @return number of rows written, 0 when the product has no row
+     */
+    @Modifying
+    @Query(value = "UPDATE product_review_stats s SET rating_sum = a.rating_sum, review_count = a.review_count, " +
+                   "one_star = a.one_star, two_star = a.two_star, three_star = a.three_star, " +
+                   "four_star = a.four_star, five_star = a.five_star " +
+                   "FROM (SELECT COALESCE(SUM(rating), 0) AS rating_sum, COUNT(*) AS review_count, " +
+                   "COUNT(*) FILTER (WHERE rating = 1) AS one_star, COUNT(*) FILTER (WHERE rating = 2) AS two_star, " +
+                   "COUNT(*) FILTER (WHERE rating = 3) AS three_star, COUNT(*) FILTER (WHERE rating = 4) AS four_star, " +
+                   "COUNT(*) FILTER (WHERE rating = 5) AS five_star " +
+                   "FROM reviews WHERE product_id = :productId) a " +
+                   "WHERE s.product_id = :productId",
+           nativeQuery = true)
+    int recomputeFromReviews(@Param("productId") Long productId);
+}
@@ -1,28 +1,76 @@
 package com.example.commerce.repositories;
 
+import com.example.commerce.dtos.ReviewResponseDTO;
 import com.example.commerce.entities.ReviewEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<ReviewEntity, Long> {
     
     Page<ReviewEntity> findByProductId(Long productId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"product", "user"})
     List<ReviewEntity> findByProductId(Long productId);
     
+    @EntityGraph(attributePaths = {"product", "user"})
     List<ReviewEntity> findByUserId(Long userId);
+
+    /**
+     * A product's reviews newest first, starting after the (createdAt, id) keyset, read straight
+     * into DTOs along the (product_id, created_at, id) index.
+     */
+    @Query("SELECT new com.example.commerce.dtos.ReviewResponseDTO(r.id, p.id, p.name, u.id, " +
+           "CONCAT(u.firstName, ' ', u.lastName), u.email, r.rating, r.comment, r.createdAt, r.updatedAt) " +
+           "FROM ReviewEntity r JOIN r.product p JOIN r.user u " +
+           "WHERE r.product.id = :productId AND r.rating BETWEEN :minRating AND :maxRating " +
+           "AND (r.createdAt < :beforeCreatedAt OR (r.createdAt = :beforeCreatedAt AND r.id < :beforeId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewResponseDTO> findPageByProductId(@Param("productId") Long productId,
+                                                @Param("minRating") int minRating,
+                                                @Param("maxRating") int maxRating,
+                                                @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                @Param("beforeId") Long beforeId,
+                                                Limit limit);
+
+    /**
+     * A user's reviews newest first; see {@link #findPageByProductId}.
+     */
+    @Query("SELECT new com.example.commerce.dtos.ReviewResponseDTO(r.id, p.id, p.name, u.id, " +
+           "CONCAT(u.firstName, ' ', u.lastName), u.email, r.rating, r.comment, r.createdAt, r.updatedAt) " +
+           "FROM ReviewEntity r JOIN r.product p JOIN r.user u " +
+           "WHERE r.user.id = :userId AND r.rating BETWEEN :minRating AND :maxRating " +
+           "AND (r.createdAt < :beforeCreatedAt OR (r.createdAt = :beforeCreatedAt AND r.id < :beforeId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewResponseDTO> findPageByUserId(@Param("userId") Long userId,
+                                             @Param("minRating") int minRating,
+                                             @Param("maxRating") int maxRating,
+                                             @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                             @Param("beforeId") Long beforeId,
+                                             Limit limit);
     
     boolean existsByProductIdAndUserId(Long productId, Long userId);
     
-    @Query("SELECT AVG(r.rating) FROM ReviewEntity r WHERE r.product.id = :productId")
-    Double getAverageRatingByProductId(Long productId);
-    
-    @Query("SELECT COUNT(r) FROM ReviewEntity r WHERE r.product.id = :productId")
-    Long getReviewCountByProductId(Long productId);
+    /**
+     * Locks the review so a rating change and the matching product_review_stats update cannot
+     * interleave with another change to the same review.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ReviewEntity r WHERE r.id = :id")
+    Optional<ReviewEntity> findByIdForUpdate(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"product", "user"})
+    List<ReviewEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
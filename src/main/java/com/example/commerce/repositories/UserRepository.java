@@ -1,12 +1,19 @@
 package com.example.commerce.repositories;
 
 import com.example.commerce.entities.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
@@ -15,4 +22,13 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Page<UserEntity> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
         String firstName, String lastName, String email, Pageable pageable
     );
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM UserEntity u ORDER BY u.id")
+    Stream<UserEntity> streamForExport();
+
+    List<UserEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
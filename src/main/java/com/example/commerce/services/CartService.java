@@ -14,6 +14,8 @@ import com.example.commerce.repositories.CartItemRepository;
 import com.example.commerce.repositories.CartRepository;
 import com.example.commerce.repositories.ProductRepository;
 import com.example.commerce.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -22,23 +24,27 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.stream.Collectors;
 
 @Service
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "false", matchIfMissing = true)
 public class CartService implements ICartService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final CartMapper cartMapper;
+    private final EntityManager entityManager;
 
     public CartService(CartRepository cartRepository,
                        CartItemRepository cartItemRepository,
                        ProductRepository productRepository,
                        UserRepository userRepository,
-                       CartMapper cartMapper) {
+                       CartMapper cartMapper,
+                       EntityManager entityManager) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.cartMapper = cartMapper;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -48,44 +54,44 @@ public class CartService implements ICartService {
         return mapToResponseDTO(cart);
     }
 
+    /**
+     * Adds to the cart with a single upsert of the cart line and builds the response from the
+     * cart already loaded, rather than saving the line and reading the cart back.
+     */
     @Override
     @CacheEvict(value = "cartByUserId", key = "#userId")
     @Transactional
     public CartResponseDTO addToCart(Long userId, AddToCartDTO addToCartDTO) {
         CartEntity cart = getOrCreateCart(userId);
-        
-        ProductEntity product = productRepository.findById(addToCartDTO.getProductId())
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + addToCartDTO.getProductId()));
-        
+        Long productId = addToCartDTO.getProductId();
+
+        // A product already in the cart was loaded with it; only a new one is looked up
+        CartItemEntity item = findItem(cart, productId);
+        ProductEntity product = item != null
+                ? item.getProduct()
+                : productRepository.findById(productId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
+
         if (!product.isAvailable()) {
             throw new IllegalArgumentException("Product '" + product.getName() + "' is not available");
         }
 
-        // Check if product already in cart
-        CartItemEntity existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(addToCartDTO.getProductId()))
-                .findFirst()
-                .orElse(null);
+        CartItemRepository.UpsertedItem upserted =
+                cartItemRepository.upsertQuantity(cart.getId(), productId, addToCartDTO.getQuantity());
 
-        if (existingItem != null) {
-            // Update quantity
-            existingItem.setQuantity(existingItem.getQuantity() + addToCartDTO.getQuantity());
-            cartItemRepository.save(existingItem);
-        } else {
-            // Add new item
-            CartItemEntity newItem = new CartItemEntity();
-            newItem.setCart(cart);
-            newItem.setProduct(product);
-            newItem.setQuantity(addToCartDTO.getQuantity());
-            cart.getItems().add(newItem);
-            cartItemRepository.save(newItem);
+        // The line is written; the aggregate is only brought in line with it for the response
+        entityManager.detach(cart);
+        if (item == null) {
+            item = new CartItemEntity();
+            item.setCart(cart);
+            item.setProduct(product);
+            cart.getItems().add(item);
         }
-
-        // Refresh cart to get updated data
-        CartEntity updatedCart = cartRepository.findById(cart.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-        
-        return mapToResponseDTO(updatedCart);
+        item.setId(upserted.getId());
+        item.setQuantity(upserted.getQuantity());
+        item.setCreatedAt(upserted.getCreatedAt());
+        item.setUpdatedAt(upserted.getUpdatedAt());
+        return mapToResponseDTO(cart);
     }
 
     @Override
@@ -95,25 +101,18 @@ public class CartService implements ICartService {
         CartEntity cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found for user ID: " + userId));
 
-        CartItemEntity item = cart.getItems().stream()
-                .filter(i -> i.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found in cart"));
+        CartItemEntity item = findItem(cart, productId);
+        if (item == null) {
+            throw new ResourceNotFoundException("Product not found in cart");
+        }
 
+        // Flushed on commit: orphan removal deletes a dropped line, dirty checking updates a changed one
         if (updateCartItemDTO.getQuantity() == 0) {
-            // Remove item if quantity is 0
             cart.getItems().remove(item);
-            cartItemRepository.delete(item);
         } else {
             item.setQuantity(updateCartItemDTO.getQuantity());
-            cartItemRepository.save(item);
         }
-
-        // Refresh cart
-        CartEntity updatedCart = cartRepository.findById(cart.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-        
-        return mapToResponseDTO(updatedCart);
+        return mapToResponseDTO(cart);
     }
 
     @Override
@@ -123,19 +122,13 @@ public class CartService implements ICartService {
         CartEntity cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found for user ID: " + userId));
 
-        CartItemEntity item = cart.getItems().stream()
-                .filter(i -> i.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found in cart"));
+        CartItemEntity item = findItem(cart, productId);
+        if (item == null) {
+            throw new ResourceNotFoundException("Product not found in cart");
+        }
 
         cart.getItems().remove(item);
-        cartItemRepository.delete(item);
-        
-        // Refresh cart
-        CartEntity updatedCart = cartRepository.findById(cart.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-        
-        return mapToResponseDTO(updatedCart);
+        return mapToResponseDTO(cart);
     }
 
     @Override
@@ -157,10 +150,18 @@ public class CartService implements ICartService {
                     
                     CartEntity newCart = new CartEntity();
                     newCart.setUser(user);
-                    return cartRepository.save(newCart);
+                    // Flushed now so cart lines can be upserted against it
+                    return cartRepository.saveAndFlush(newCart);
                 });
     }
 
+    private static CartItemEntity findItem(CartEntity cart, Long productId) {
+        return cart.getItems().stream()
+                .filter(item -> item.getProduct().getId().equals(productId))
+                .findFirst()
+                .orElse(null);
+    }
+
     private CartResponseDTO mapToResponseDTO(CartEntity cart) {
         CartResponseDTO dto = cartMapper.toResponseDTO(cart);
         dto.setItems(cart.getItems().stream()
@@ -1,5 +1,7 @@
 package com.example.commerce.services;
 
+import com.example.commerce.cache.CatalogVersion;
+import com.example.commerce.cache.ProductCacheInvalidator;
 import com.example.commerce.dtos.requests.AddCategoryDTO;
 import com.example.commerce.dtos.requests.UpdateCategoryDTO;
 import com.example.commerce.dtos.responses.CategoryResponseDTO;
@@ -11,18 +13,26 @@ import com.example.commerce.mappers.CategoryMapper;
 import com.example.commerce.repositories.CategoryRepository;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class CategoryService implements ICategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final CatalogVersion catalogVersion;
 
-    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                           ProductCacheInvalidator productCacheInvalidator, CatalogVersion catalogVersion) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.catalogVersion = catalogVersion;
     }
 
     @CacheEvict(value = "categoryById", allEntries = true)
@@ -32,12 +42,19 @@ public class CategoryService implements ICategoryService {
         }
         CategoryEntity categoryEntity = categoryMapper.toEntity(addCategoryDTO);
         CategoryEntity savedCategory = categoryRepository.save(categoryEntity);
+        catalogVersion.bump();
         return categoryMapper.toResponseDTO(savedCategory);
     }
 
     public Page<CategoryResponseDTO> getAllCategories(Pageable pageable) {
         return categoryRepository.findAll(pageable).map(categoryMapper::toResponseDTO);
     }
+
+    public List<CategoryResponseDTO> getCategoriesAfter(Long afterId, int limit) {
+        return categoryRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)).stream()
+                .map(categoryMapper::toResponseDTO)
+                .toList();
+    }
     
     public Page<CategoryResponseDTO> searchCategories(String search, Pageable pageable) {
         return categoryRepository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
@@ -64,6 +81,10 @@ public class CategoryService implements ICategoryService {
             throw new ResourceAlreadyExists("Category with name '" + updateCategoryDTO.getName() + "' already exists");
         }
 
+        // Cached product DTOs carry the category name
+        boolean renamed = updateCategoryDTO.getName() != null
+                && !existingCategory.getName().equals(updateCategoryDTO.getName());
+
         // Only update fields that are provided
         if (updateCategoryDTO.getName() != null) {
             existingCategory.setName(updateCategoryDTO.getName());
@@ -74,6 +95,11 @@ public class CategoryService implements ICategoryService {
         }
 
         CategoryEntity updatedCategory = categoryRepository.save(existingCategory);
+        if (renamed) {
+            productCacheInvalidator.catalogChanged();
+        } else {
+            catalogVersion.bump();
+        }
         return categoryMapper.toResponseDTO(updatedCategory);
     }
 
@@ -91,5 +117,6 @@ public class CategoryService implements ICategoryService {
             }
             throw ex;
         }
+        catalogVersion.bump();
     }
 }
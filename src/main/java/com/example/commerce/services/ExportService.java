@@ -0,0 +1,136 @@
+package com.example.commerce.services;
+
+import com.example.commerce.dtos.responses.OrderResponseDTO;
+import com.example.commerce.dtos.responses.ProductResponseDTO;
+import com.example.commerce.dtos.responses.userSummaryDTO;
+import com.example.commerce.mappers.OrderMapper;
+import com.example.commerce.mappers.ProductMapper;
+import com.example.commerce.mappers.UserMapper;
+import com.example.commerce.repositories.OrderRepository;
+import com.example.commerce.repositories.ProductRepository;
+import com.example.commerce.repositories.UserRepository;
+import com.example.commerce.utils.export.ExportFormat;
+import com.example.commerce.utils.export.ExportWriter;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Full-table exports written straight to an output stream. Rows come from a forward-only JDBC
+ * cursor and are mapped and written one at a time; the persistence context is cleared and the
+ * output flushed every {@code export.batch-size} rows, so memory stays flat however many rows
+ * there are. Order exports leave out line items.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    private static final LocalDateTime EARLIEST = LocalDate.of(1970, 1, 1).atStartOfDay();
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final OrderMapper orderMapper;
+    private final ProductMapper productMapper;
+    private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public ExportService(OrderRepository orderRepository, ProductRepository productRepository,
+                         UserRepository userRepository, OrderMapper orderMapper, ProductMapper productMapper,
+                         UserMapper userMapper, EntityManager entityManager, ObjectMapper objectMapper,
+                         @Value("${export.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.orderMapper = orderMapper;
+        this.productMapper = productMapper;
+        this.userMapper = userMapper;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param from first day to include, or null for no lower bound
+     * @param to   last day to include, or null for no upper bound
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(ExportFormat format, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        LinkedHashMap<String, Function<OrderResponseDTO, Object>> columns = new LinkedHashMap<>();
+        columns.put("id", OrderResponseDTO::getId);
+        columns.put("userId", OrderResponseDTO::getUserId);
+        columns.put("userName", OrderResponseDTO::getUserName);
+        columns.put("userEmail", OrderResponseDTO::getUserEmail);
+        columns.put("totalAmount", OrderResponseDTO::getTotalAmount);
+        columns.put("status", OrderResponseDTO::getStatus);
+        columns.put("createdAt", OrderResponseDTO::getCreatedAt);
+        columns.put("updatedAt", OrderResponseDTO::getUpdatedAt);
+
+        LocalDateTime start = from != null ? from.atStartOfDay() : EARLIEST;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LocalDateTime.now().plusDays(1);
+        try (var orders = orderRepository.streamForExport(start, end)) {
+            return export("orders", orders, orderMapper::toResponseDTO, new ExportWriter<>(format, out, objectMapper, columns));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportProducts(ExportFormat format, OutputStream out) throws IOException {
+        LinkedHashMap<String, Function<ProductResponseDTO, Object>> columns = new LinkedHashMap<>();
+        columns.put("id", ProductResponseDTO::getId);
+        columns.put("name", ProductResponseDTO::getName);
+        columns.put("sku", ProductResponseDTO::getSku);
+        columns.put("price", ProductResponseDTO::getPrice);
+        columns.put("categoryName", ProductResponseDTO::getCategoryName);
+        columns.put("available", ProductResponseDTO::isAvailable);
+        columns.put("createdAt", ProductResponseDTO::getCreatedAt);
+        columns.put("updatedAt", ProductResponseDTO::getUpdatedAt);
+
+        try (var products = productRepository.streamForExport()) {
+            return export("products", products, productMapper::toResponseDTO, new ExportWriter<>(format, out, objectMapper, columns));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportUsers(ExportFormat format, OutputStream out) throws IOException {
+        LinkedHashMap<String, Function<userSummaryDTO, Object>> columns = new LinkedHashMap<>();
+        columns.put("id", userSummaryDTO::getId);
+        columns.put("firstName", userSummaryDTO::getFirstName);
+        columns.put("lastName", userSummaryDTO::getLastName);
+        columns.put("email", userSummaryDTO::getEmail);
+        columns.put("role", userSummaryDTO::getRole);
+
+        try (var users = userRepository.streamForExport()) {
+            return export("users", users, userMapper::toSummaryDTO, new ExportWriter<>(format, out, objectMapper, columns));
+        }
+    }
+
+    private <E, D> long export(String name, Stream<E> rows, Function<E, D> mapper, ExportWriter<D> writer) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Iterator<E> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writer.write(mapper.apply(iterator.next()));
+            if (writer.getRows() % batchSize == 0) {
+                // Exported entities are never needed again; let them go
+                entityManager.clear();
+                writer.flush();
+            }
+        }
+        writer.flush();
+        log.info("Exported {} {} in {}ms", writer.getRows(), name, System.currentTimeMillis() - startTime);
+        return writer.getRows();
+    }
+}
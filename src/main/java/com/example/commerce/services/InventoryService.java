@@ -2,36 +2,54 @@ package com.example.commerce.services;
 
 import com.example.commerce.dtos.requests.AddInventoryDTO;
 import com.example.commerce.dtos.requests.UpdateInventoryDTO;
+import com.example.commerce.cache.CacheEvictor;
+import com.example.commerce.cache.ProductCacheInvalidator;
 import com.example.commerce.dtos.responses.InventoryResponseDTO;
 import com.example.commerce.entities.InventoryEntity;
 import com.example.commerce.entities.ProductEntity;
+import com.example.commerce.enums.OutboxEventType;
 import com.example.commerce.errorhandlers.ResourceAlreadyExists;
 import com.example.commerce.errorhandlers.ResourceNotFoundException;
 import com.example.commerce.interfaces.IInventoryService;
 import com.example.commerce.mappers.InventoryMapper;
+import com.example.commerce.outbox.OutboxPublisher;
 import com.example.commerce.repositories.InventoryRepository;
 import com.example.commerce.repositories.ProductRepository;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class InventoryService implements IInventoryService {
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
     private final InventoryMapper inventoryMapper;
+    private final OutboxPublisher outboxPublisher;
+    private final CacheEvictor cacheEvictor;
+    private final ProductCacheInvalidator productCacheInvalidator;
 
     public InventoryService(InventoryRepository inventoryRepository, 
                            ProductRepository productRepository,
-                           InventoryMapper inventoryMapper) {
+                           InventoryMapper inventoryMapper,
+                           OutboxPublisher outboxPublisher,
+                           CacheEvictor cacheEvictor,
+                           ProductCacheInvalidator productCacheInvalidator) {
         this.inventoryRepository = inventoryRepository;
         this.productRepository = productRepository;
         this.inventoryMapper = inventoryMapper;
+        this.outboxPublisher = outboxPublisher;
+        this.cacheEvictor = cacheEvictor;
+        this.productCacheInvalidator = productCacheInvalidator;
     }
 
-    @CacheEvict(value = {"inventoryById", "inventoryByProductId"}, allEntries = true)
+    @Transactional
     public InventoryResponseDTO addInventory(AddInventoryDTO addInventoryDTO) {
         // Validate product exists
         ProductEntity product = productRepository.findById(addInventoryDTO.getProductId())
@@ -48,12 +66,19 @@ public class InventoryService implements IInventoryService {
         inventoryEntity.setLocation(addInventoryDTO.getLocation());
 
         InventoryEntity savedInventory = inventoryRepository.save(inventoryEntity);
+        publishInventoryChanged(savedInventory, savedInventory.getQuantity());
         return inventoryMapper.toResponseDTO(savedInventory);
     }
 
     public Page<InventoryResponseDTO> getAllInventories(Pageable pageable) {
         return inventoryRepository.findAll(pageable).map(inventoryMapper::toResponseDTO);
     }
+
+    public List<InventoryResponseDTO> getInventoriesAfter(Long afterId, int limit) {
+        return inventoryRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)).stream()
+                .map(inventoryMapper::toResponseDTO)
+                .toList();
+    }
     
     public Page<InventoryResponseDTO> searchInventory(String search, Pageable pageable) {
         return inventoryRepository.searchInventory(search, pageable).map(inventoryMapper::toResponseDTO);
@@ -77,11 +102,13 @@ public class InventoryService implements IInventoryService {
         return inventoryMapper.toResponseDTO(inventory);
     }
 
-    @CacheEvict(value = {"inventoryById", "inventoryByProductId"}, allEntries = true)
+    @Transactional
     public InventoryResponseDTO updateInventory(Long id, UpdateInventoryDTO updateInventoryDTO) {
         InventoryEntity existingInventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with ID: " + id));
 
+        int previousQuantity = existingInventory.getQuantity();
+
         // Only update fields that are provided
         if (updateInventoryDTO.getQuantity() != null) {
             existingInventory.setQuantity(updateInventoryDTO.getQuantity());
@@ -92,9 +119,11 @@ public class InventoryService implements IInventoryService {
         }
 
         InventoryEntity updatedInventory = inventoryRepository.save(existingInventory);
+        publishInventoryChanged(updatedInventory, updatedInventory.getQuantity() - previousQuantity);
         return inventoryMapper.toResponseDTO(updatedInventory);
     }
 
+    @Transactional
     public InventoryResponseDTO adjustInventoryQuantity(Long id, Integer quantityChange) {
         InventoryEntity inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with ID: " + id));
@@ -106,15 +135,19 @@ public class InventoryService implements IInventoryService {
 
         inventory.setQuantity(newQuantity);
         InventoryEntity updatedInventory = inventoryRepository.save(inventory);
+        publishInventoryChanged(updatedInventory, quantityChange);
         return inventoryMapper.toResponseDTO(updatedInventory);
     }
 
+    @Transactional
     public void deleteInventory(Long id) {
         InventoryEntity inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with ID: " + id));
         
         try {
             inventoryRepository.delete(inventory);
+            inventoryRepository.flush();
+            publishInventoryChanged(inventory, -inventory.getQuantity());
         } catch (Exception ex) {
             if (ex.getMessage() != null && ex.getMessage().contains("foreign key constraint")) {
                 throw new com.example.commerce.errorhandlers.ConstraintViolationException(
@@ -123,4 +156,16 @@ public class InventoryService implements IInventoryService {
             throw ex;
         }
     }
+
+    private void publishInventoryChanged(InventoryEntity inventory, int delta) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("inventoryId", inventory.getId());
+        payload.put("productId", inventory.getProduct().getId());
+        payload.put("delta", delta);
+        payload.put("quantity", inventory.getQuantity());
+        outboxPublisher.publish(OutboxEventType.INVENTORY_CHANGED, inventory.getId(), payload);
+        cacheEvictor.evict("inventoryById", inventory.getId());
+        cacheEvictor.evict("inventoryByProductId", inventory.getProduct().getId());
+        productCacheInvalidator.stockChanged(List.of(inventory.getProduct().getId()));
+    }
 }
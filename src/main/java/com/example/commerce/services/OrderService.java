@@ -3,23 +3,39 @@ package com.example.commerce.services;
 import com.example.commerce.dtos.requests.AddOrderDTO;
 import com.example.commerce.dtos.requests.OrderItemDTO;
 import com.example.commerce.dtos.requests.UpdateOrderDTO;
+import com.example.commerce.dtos.responses.BulkOrderResponseDTO;
+import com.example.commerce.dtos.responses.BulkOrderResultDTO;
 import com.example.commerce.dtos.responses.OrderItemResponseDTO;
 import com.example.commerce.dtos.responses.OrderResponseDTO;
+import com.example.commerce.cache.CacheEvictor;
+import com.example.commerce.cache.ProductCacheInvalidator;
 import com.example.commerce.entities.*;
 import com.example.commerce.enums.OrderStatus;
+import com.example.commerce.enums.OutboxEventType;
 import com.example.commerce.errorhandlers.ResourceNotFoundException;
 import com.example.commerce.interfaces.IOrderService;
 import com.example.commerce.mappers.OrderMapper;
+import com.example.commerce.outbox.OutboxPublisher;
 import com.example.commerce.repositories.*;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,81 +46,209 @@ public class OrderService implements IOrderService {
     private final UserRepository userRepository;
     private final InventoryRepository inventoryRepository;
     private final OrderMapper orderMapper;
+    private final OutboxPublisher outboxPublisher;
+    private final CacheEvictor cacheEvictor;
+    private final ProductCacheInvalidator productCacheInvalidator;
 
     public OrderService(OrderRepository orderRepository, 
                        OrderItemsRepository orderItemsRepository,
                        ProductRepository productRepository,
                        UserRepository userRepository,
                        InventoryRepository inventoryRepository,
-                       OrderMapper orderMapper) {
+                       OrderMapper orderMapper,
+                       OutboxPublisher outboxPublisher,
+                       CacheEvictor cacheEvictor,
+                       ProductCacheInvalidator productCacheInvalidator) {
         this.orderRepository = orderRepository;
         this.orderItemsRepository = orderItemsRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.inventoryRepository = inventoryRepository;
         this.orderMapper = orderMapper;
+        this.outboxPublisher = outboxPublisher;
+        this.cacheEvictor = cacheEvictor;
+        this.productCacheInvalidator = productCacheInvalidator;
     }
 
-    @CacheEvict(value = {"orderById", "inventoryById", "inventoryByProductId"}, allEntries = true)
     @Transactional
     public OrderResponseDTO createOrder(AddOrderDTO addOrderDTO) {
         // Validate user exists
         UserEntity user = userRepository.findById(addOrderDTO.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + addOrderDTO.getUserId()));
 
-        // Calculate total amount, validate products and check inventory
-        double totalAmount = 0.0;
+        // Validate every line in memory and reserve stock for all of them at once
+        Map<Long, Integer> quantities = mergeQuantities(addOrderDTO.getItems());
+        Map<Long, ProductEntity> products = reserveLines(quantities);
+
+        // Create and save order with its items
         List<OrderItemsEntity> orderItems = new ArrayList<>();
-        List<InventoryEntity> inventoriesToUpdate = new ArrayList<>();
+        OrderEntity savedOrder = orderRepository.save(newOrder(user, quantities, products, orderItems));
+        List<OrderItemsEntity> savedItems = orderItemsRepository.saveAll(orderItems);
+        publishOrderCreated(savedOrder, quantities);
 
-        for (OrderItemDTO itemDTO : addOrderDTO.getItems()) {
-            ProductEntity product = productRepository.findById(itemDTO.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + itemDTO.getProductId()));
+        // Build response
+        return buildOrderResponse(savedOrder, savedItems);
+    }
 
-            if (!product.isAvailable()) {
-                throw new IllegalArgumentException("Product '" + product.getName() + "' is not available");
-            }
+    /**
+     * First half of an asynchronous order: checks the user, the products and current stock
+     * without reserving anything, so a node that dies before the order is journaled leaves no
+     * stock behind. Stock is reserved when the order is written.
+     *
+     * @return the order with duplicate lines merged, ready to be handed to {@link #persistAcceptedOrders}
+     */
+    @Transactional(readOnly = true)
+    public AddOrderDTO validateOrder(AddOrderDTO addOrderDTO) {
+        if (!userRepository.existsById(addOrderDTO.getUserId())) {
+            throw new ResourceNotFoundException("User not found with ID: " + addOrderDTO.getUserId());
+        }
+        Map<Long, Integer> quantities = mergeQuantities(addOrderDTO.getItems());
+        checkOrderable(quantities, loadProducts(quantities.keySet()), loadStockLevels(quantities.keySet()));
 
-            // Check inventory
-            InventoryEntity inventory = inventoryRepository.findByProductId(product.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Product '" + product.getName() + "' is out of stock"));
+        AddOrderDTO validated = new AddOrderDTO();
+        validated.setUserId(addOrderDTO.getUserId());
+        validated.setItems(quantities.entrySet().stream().map(line -> {
+            OrderItemDTO item = new OrderItemDTO();
+            item.setProductId(line.getKey());
+            item.setQuantity(line.getValue());
+            return item;
+        }).collect(Collectors.toList()));
+        return validated;
+    }
 
-            if (inventory.getQuantity() < itemDTO.getQuantity()) {
-                throw new IllegalArgumentException("Product '" + product.getName() + "' is out of stock");
+    /**
+     * Second half of asynchronous orders: reserves stock for orders accepted by
+     * {@link #validateOrder} and writes them, in one transaction so the stock and the orders
+     * commit together. Keyed by ticket id, which is stored on the order so a batch that is
+     * replayed after a crash neither creates duplicates nor reserves twice.
+     *
+     * @return order id per ticket id, including tickets that had already been written
+     * @throws IllegalArgumentException if the stock for the batch is no longer there
+     */
+    @Transactional
+    public Map<String, Long> persistAcceptedOrders(Map<String, AddOrderDTO> ordersByTicket) {
+        Map<String, Long> orderIds = new HashMap<>();
+        for (OrderEntity existing : orderRepository.findByTicketIdIn(ordersByTicket.keySet())) {
+            orderIds.put(existing.getTicketId(), existing.getId());
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        ordersByTicket.forEach((ticketId, order) -> {
+            if (!orderIds.containsKey(ticketId)) {
+                userIds.add(order.getUserId());
+                order.getItems().forEach(item -> productIds.add(item.getProductId()));
             }
+        });
+        Map<Long, UserEntity> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+        Map<Long, ProductEntity> products = loadProducts(productIds);
 
-            // Reduce inventory quantity
-            inventory.setQuantity(inventory.getQuantity() - itemDTO.getQuantity());
-            inventoriesToUpdate.add(inventory);
+        Map<String, OrderEntity> created = new LinkedHashMap<>();
+        Map<Long, Integer> reserving = new HashMap<>();
+        List<OrderItemsEntity> itemEntities = new ArrayList<>();
+        ordersByTicket.forEach((ticketId, order) -> {
+            if (orderIds.containsKey(ticketId)) {
+                return;
+            }
+            UserEntity user = users.get(order.getUserId());
+            if (user == null) {
+                throw new ResourceNotFoundException("User not found with ID: " + order.getUserId());
+            }
+            Map<Long, Integer> quantities = mergeQuantities(order.getItems());
+            for (Long productId : quantities.keySet()) {
+                if (!products.containsKey(productId)) {
+                    throw new ResourceNotFoundException("Product not found with ID: " + productId);
+                }
+            }
+            quantities.forEach((productId, quantity) -> reserving.merge(productId, quantity, Integer::sum));
+            OrderEntity entity = newOrder(user, quantities, products, itemEntities);
+            entity.setTicketId(ticketId);
+            created.put(ticketId, entity);
+        });
 
-            double itemTotal = product.getPrice() * itemDTO.getQuantity();
-            totalAmount += itemTotal;
+        reserveStock(reserving, products);
+        orderRepository.saveAll(created.values());
+        orderItemsRepository.saveAll(itemEntities);
+        created.forEach((ticketId, order) -> {
+            orderIds.put(ticketId, order.getId());
+            publishOrderCreated(order, mergeQuantities(ordersByTicket.get(ticketId).getItems()));
+        });
+        return orderIds;
+    }
 
-            OrderItemsEntity orderItem = new OrderItemsEntity();
-            orderItem.setProduct(product);
-            orderItem.setQuantity(itemDTO.getQuantity());
-            orderItem.setTotalPrice(itemTotal);
-            orderItems.add(orderItem);
+    /**
+     * Looks up the order written for an asynchronous ticket, for tickets this node does not track.
+     */
+    @Transactional(readOnly = true)
+    public Optional<OrderRepository.TicketedOrder> findOrderByTicketId(String ticketId) {
+        return orderRepository.findTicketedOrder(ticketId);
+    }
+
+    /**
+     * Creates many orders in one transaction. All referenced users, products and stock levels
+     * are loaded up front, orders are validated and allocated in submission order against the
+     * in-memory stock, and stock for every accepted order is reserved with a single conditional
+     * update. A rejected order is reported in its result instead of failing the whole batch.
+     */
+    @Transactional
+    public BulkOrderResponseDTO createOrdersBulk(List<AddOrderDTO> orders) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (AddOrderDTO order : orders) {
+            if (order.getUserId() != null) {
+                userIds.add(order.getUserId());
+            }
+            order.getItems().forEach(item -> productIds.add(item.getProductId()));
         }
 
-        // Update all inventories
-        inventoryRepository.saveAll(inventoriesToUpdate);
+        Map<Long, UserEntity> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+        Map<Long, ProductEntity> products = loadProducts(productIds);
+        Map<Long, Integer> stock = loadStockLevels(productIds);
 
-        // Create and save order
-        OrderEntity order = new OrderEntity();
-        order.setUser(user);
-        order.setTotalAmount(totalAmount);
-        order.setStatus(OrderStatus.PENDING);
-        OrderEntity savedOrder = orderRepository.save(order);
+        BulkOrderResultDTO[] results = new BulkOrderResultDTO[orders.size()];
+        List<AllocatedOrder> allocated = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            AddOrderDTO order = orders.get(i);
+            try {
+                UserEntity user = users.get(order.getUserId());
+                if (user == null) {
+                    throw new ResourceNotFoundException("User not found with ID: " + order.getUserId());
+                }
+                Map<Long, Integer> quantities = mergeQuantities(order.getItems());
+                checkOrderable(quantities, products, stock);
+                quantities.forEach((productId, quantity) -> stock.merge(productId, -quantity, Integer::sum));
+                allocated.add(new AllocatedOrder(i, user, quantities));
+            } catch (ResourceNotFoundException | IllegalArgumentException e) {
+                results[i] = BulkOrderResultDTO.failed(i, e.getMessage());
+            }
+        }
 
-        // Save order items
-        for (OrderItemsEntity item : orderItems) {
-            item.setOrder(savedOrder);
+        Map<Long, InventoryReservationRepository.UpdatedStock> updatedStock = reserveAllocatedStock(allocated, results);
+        Map<Long, Integer> reservedQuantities = new HashMap<>();
+        for (AllocatedOrder order : allocated) {
+            order.quantities().forEach((productId, quantity) -> reservedQuantities.merge(productId, quantity, Integer::sum));
         }
-        List<OrderItemsEntity> savedItems = orderItemsRepository.saveAll(orderItems);
+        inventoryChanged(updatedStock, reservedQuantities, -1);
 
-        // Build response
-        return buildOrderResponse(savedOrder, savedItems);
+        List<OrderEntity> orderEntities = new ArrayList<>(allocated.size());
+        List<OrderItemsEntity> itemEntities = new ArrayList<>();
+        for (AllocatedOrder order : allocated) {
+            orderEntities.add(newOrder(order.user(), order.quantities(), products, itemEntities));
+        }
+        orderRepository.saveAll(orderEntities);
+        orderItemsRepository.saveAll(itemEntities);
+
+        for (int i = 0; i < allocated.size(); i++) {
+            int index = allocated.get(i).index();
+            OrderEntity order = orderEntities.get(i);
+            publishOrderCreated(order, allocated.get(i).quantities());
+            results[index] = BulkOrderResultDTO.succeeded(index, order.getId(), order.getTotalAmount());
+        }
+
+        int succeeded = allocated.size();
+        return new BulkOrderResponseDTO(orders.size(), succeeded, orders.size() - succeeded, Arrays.asList(results));
     }
 
     public Page<OrderResponseDTO> getAllOrders(Pageable pageable) {
@@ -114,6 +258,14 @@ public class OrderService implements IOrderService {
         });
     }
     
+    public List<OrderResponseDTO> getOrdersAfter(Long afterId, int limit) {
+        List<OrderEntity> orders = orderRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+        Map<Long, List<OrderItemsEntity>> itemsByOrder = loadItems(orders);
+        return orders.stream()
+                .map(order -> buildOrderResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
+                .toList();
+    }
+
     public Page<OrderResponseDTO> searchOrders(String search, Pageable pageable) {
         return orderRepository.searchOrders(search, pageable).map(order -> {
             List<OrderItemsEntity> items = orderItemsRepository.findByOrderId(order.getId());
@@ -121,6 +273,19 @@ public class OrderService implements IOrderService {
         });
     }
 
+    /**
+     * Page of orders for callers that may not need the line items. With {@code includeItems} the
+     * items of the whole page are read in one query; without it none are read and every order
+     * carries an empty item list.
+     */
+    public Page<OrderResponseDTO> getOrdersPage(String search, Pageable pageable, boolean includeItems) {
+        Page<OrderEntity> orders = search != null && !search.isBlank()
+                ? orderRepository.searchOrders(search, pageable)
+                : orderRepository.findAll(pageable);
+        Map<Long, List<OrderItemsEntity>> itemsByOrder = includeItems ? loadItems(orders.getContent()) : Map.of();
+        return orders.map(order -> buildOrderResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of())));
+    }
+
     public Page<OrderResponseDTO> getOrdersByUserId(Long userId, Pageable pageable) {
         // Validate user exists
         userRepository.findById(userId)
@@ -140,7 +305,6 @@ public class OrderService implements IOrderService {
         return buildOrderResponse(order, items);
     }
 
-    @CacheEvict(value = {"orderById", "inventoryById", "inventoryByProductId"}, allEntries = true)
     @Transactional
     public OrderResponseDTO updateOrderStatus(Long id, UpdateOrderDTO updateOrderDTO) {
         OrderEntity order = orderRepository.findById(id)
@@ -167,6 +331,15 @@ public class OrderService implements IOrderService {
             }
             
             order.setStatus(newStatus);
+            if (oldStatus != newStatus) {
+                Map<String, Object> payload = new LinkedHashMap<>();
+                payload.put("orderId", order.getId());
+                payload.put("userId", order.getUser().getId());
+                payload.put("from", oldStatus);
+                payload.put("to", newStatus);
+                outboxPublisher.publish(OutboxEventType.ORDER_STATUS_CHANGED, order.getId(), payload);
+                cacheEvictor.evict("orderById", order.getId());
+            }
         }
         
         OrderEntity updatedOrder = orderRepository.save(order);
@@ -179,23 +352,181 @@ public class OrderService implements IOrderService {
      * Called when an order is cancelled.
      */
     private void restoreInventoryForOrder(OrderEntity order) {
-        List<OrderItemsEntity> items = orderItemsRepository.findByOrderId(order.getId());
-        List<InventoryEntity> inventoriesToUpdate = new ArrayList<>();
-        
-        for (OrderItemsEntity item : items) {
-            InventoryEntity inventory = inventoryRepository.findByProductId(item.getProduct().getId())
-                    .orElse(null);
-            
-            if (inventory != null) {
-                inventory.setQuantity(inventory.getQuantity() + item.getQuantity());
-                inventoriesToUpdate.add(inventory);
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItemsEntity item : orderItemsRepository.findByOrderId(order.getId())) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        inventoryChanged(inventoryRepository.releaseStock(quantities), quantities, 1);
+    }
+
+    /**
+     * Reserves the combined stock of all allocated orders. When stock moved between the read and
+     * the update, orders touching a product that could not be reserved are failed and whatever was
+     * reserved for their other lines is handed back.
+     */
+    private Map<Long, InventoryReservationRepository.UpdatedStock> reserveAllocatedStock(List<AllocatedOrder> allocated,
+                                                                                        BulkOrderResultDTO[] results) {
+        Map<Long, Integer> requested = new HashMap<>();
+        for (AllocatedOrder order : allocated) {
+            order.quantities().forEach((productId, quantity) -> requested.merge(productId, quantity, Integer::sum));
+        }
+
+        Map<Long, InventoryReservationRepository.UpdatedStock> reserved = inventoryRepository.reserveStock(requested);
+        if (reserved.size() == requested.size()) {
+            return reserved;
+        }
+
+        Map<Long, Integer> release = new HashMap<>();
+        Iterator<AllocatedOrder> iterator = allocated.iterator();
+        while (iterator.hasNext()) {
+            AllocatedOrder order = iterator.next();
+            if (reserved.keySet().containsAll(order.quantities().keySet())) {
+                continue;
             }
+            order.quantities().forEach((productId, quantity) -> {
+                if (reserved.containsKey(productId)) {
+                    release.merge(productId, quantity, Integer::sum);
+                }
+            });
+            results[order.index()] = BulkOrderResultDTO.failed(order.index(),
+                    "Stock changed while the order was being placed, please retry");
+            iterator.remove();
         }
-        
-        if (!inventoriesToUpdate.isEmpty()) {
-            inventoryRepository.saveAll(inventoriesToUpdate);
+        // Stock levels after the hand-back, so change events carry the final quantity
+        reserved.putAll(inventoryRepository.releaseStock(release));
+        return reserved;
+    }
+
+    /**
+     * Validates the lines against current stock and reserves all of them with one conditional
+     * update. A line that loses a race for stock throws, and the transaction rollback releases the rest.
+     */
+    private Map<Long, ProductEntity> reserveLines(Map<Long, Integer> quantities) {
+        Map<Long, ProductEntity> products = loadProducts(quantities.keySet());
+        checkOrderable(quantities, products, loadStockLevels(quantities.keySet()));
+        reserveStock(quantities, products);
+        return products;
+    }
+
+    private void reserveStock(Map<Long, Integer> quantities, Map<Long, ProductEntity> products) {
+        Map<Long, InventoryReservationRepository.UpdatedStock> reserved = inventoryRepository.reserveStock(quantities);
+        for (Long productId : quantities.keySet()) {
+            if (!reserved.containsKey(productId)) {
+                throw new IllegalArgumentException("Product '" + products.get(productId).getName() + "' is out of stock");
+            }
+        }
+        inventoryChanged(reserved, quantities, -1);
+    }
+
+    private Map<Long, ProductEntity> loadProducts(Collection<Long> productIds) {
+        return productRepository.findByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductEntity::getId, Function.identity()));
+    }
+
+    private Map<Long, Integer> loadStockLevels(Collection<Long> productIds) {
+        Map<Long, Integer> stock = new HashMap<>();
+        for (InventoryRepository.StockLevel level : inventoryRepository.findStockLevelsByProductIdIn(productIds)) {
+            stock.put(level.getProductId(), level.getQuantity());
         }
+        return stock;
     }
+
+    /**
+     * Folds repeated lines for the same product into one, keeping the order of first appearance.
+     */
+    private Map<Long, Integer> mergeQuantities(List<OrderItemDTO> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemDTO item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void checkOrderable(Map<Long, Integer> quantities, Map<Long, ProductEntity> products, Map<Long, Integer> stock) {
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            ProductEntity product = products.get(line.getKey());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with ID: " + line.getKey());
+            }
+            if (!product.isAvailable()) {
+                throw new IllegalArgumentException("Product '" + product.getName() + "' is not available");
+            }
+            Integer available = stock.get(product.getId());
+            if (available == null || available < line.getValue()) {
+                throw new IllegalArgumentException("Product '" + product.getName() + "' is out of stock");
+            }
+        }
+    }
+
+    private OrderEntity newOrder(UserEntity user, Map<Long, Integer> quantities,
+                                 Map<Long, ProductEntity> products, List<OrderItemsEntity> itemsOut) {
+        OrderEntity order = new OrderEntity();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+
+        double totalAmount = 0.0;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            ProductEntity product = products.get(line.getKey());
+            double itemTotal = product.getPrice() * line.getValue();
+            totalAmount += itemTotal;
+
+            OrderItemsEntity item = new OrderItemsEntity();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(line.getValue());
+            item.setTotalPrice(itemTotal);
+            itemsOut.add(item);
+        }
+        order.setTotalAmount(totalAmount);
+        return order;
+    }
+
+    private void publishOrderCreated(OrderEntity order, Map<Long, Integer> quantities) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser().getId());
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("items", quantities);
+        outboxPublisher.publish(OutboxEventType.ORDER_CREATED, order.getId(), payload);
+    }
+
+    /**
+     * Publishes one event per touched inventory row and evicts its inventory and product cache
+     * entries after commit; {@code sign} is -1 for reservations and 1 for releases.
+     */
+    private void inventoryChanged(Map<Long, InventoryReservationRepository.UpdatedStock> updatedStock,
+                                  Map<Long, Integer> quantities, int sign) {
+        productCacheInvalidator.stockChanged(updatedStock.keySet());
+        quantities.forEach((productId, quantity) -> {
+            InventoryReservationRepository.UpdatedStock stock = updatedStock.get(productId);
+            if (stock == null) {
+                return;
+            }
+            Long inventoryId = stock.inventoryId();
+            // Same shape as the events InventoryService publishes
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("inventoryId", inventoryId);
+            payload.put("productId", productId);
+            payload.put("delta", sign * quantity);
+            payload.put("quantity", stock.quantity());
+            outboxPublisher.publish(OutboxEventType.INVENTORY_CHANGED, inventoryId, payload);
+            cacheEvictor.evict("inventoryById", inventoryId);
+            cacheEvictor.evict("inventoryByProductId", productId);
+        });
+    }
+
+    private record AllocatedOrder(int index, UserEntity user, Map<Long, Integer> quantities) {}
+
+    // One query for the items of the whole slice instead of one per order
+    private Map<Long, List<OrderItemsEntity>> loadItems(List<OrderEntity> orders) {
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
+        return orderItemsRepository.findByOrderIdIn(orders.stream().map(OrderEntity::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+    }
+
     private OrderResponseDTO buildOrderResponse(OrderEntity order, List<OrderItemsEntity> items) {
         OrderResponseDTO response = orderMapper.toResponseDTO(order);
         List<OrderItemResponseDTO> itemResponses = items.stream()
@@ -1,5 +1,6 @@
 package com.example.commerce.services;
 
+import com.example.commerce.cache.ProductCacheInvalidator;
 import com.example.commerce.dtos.requests.AddProductDTO;
 import com.example.commerce.dtos.requests.UpdateProductDTO;
 import com.example.commerce.dtos.responses.PagedResponse;
@@ -11,15 +12,21 @@ import com.example.commerce.errorhandlers.ResourceNotFoundException;
 import com.example.commerce.interfaces.IProductService;
 import com.example.commerce.mappers.ProductMapper;
 import com.example.commerce.repositories.CategoryRepository;
+import com.example.commerce.repositories.InventoryRepository.StockLevel;
 import com.example.commerce.repositories.ProductRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 @Slf4j
@@ -29,14 +36,18 @@ public class ProductService implements IProductService {
     private final ProductMapper productMapper;
     private final CategoryRepository categoryRepository;
     private final com.example.commerce.repositories.InventoryRepository inventoryRepository;
+    private final ProductCacheInvalidator productCacheInvalidator;
 
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper,CategoryRepository categoryRepository, com.example.commerce.repositories.InventoryRepository inventoryRepository) {
+    public ProductService(ProductRepository productRepository, ProductMapper productMapper,CategoryRepository categoryRepository, com.example.commerce.repositories.InventoryRepository inventoryRepository,
+                          ProductCacheInvalidator productCacheInvalidator) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
         this.categoryRepository = categoryRepository;
         this.inventoryRepository = inventoryRepository;
+        this.productCacheInvalidator = productCacheInvalidator;
     }
 
+    @Transactional
     public ProductResponseDTO addProduct(AddProductDTO addProductDTO){
         if(productRepository.existsByNameIgnoreCase(addProductDTO.getName())){
             throw new ResourceAlreadyExists("Product already exists");
@@ -46,6 +57,7 @@ public class ProductService implements IProductService {
         ProductEntity productEntity = productMapper.toEntity(addProductDTO);
         productEntity.setCategory(category);
         ProductEntity savedProduct = productRepository.save(productEntity);
+        productCacheInvalidator.productChanged(savedProduct.getId(), savedProduct.getName());
         ProductResponseDTO response =  productMapper.toResponseDTO(savedProduct);
         response.setCategoryName(savedProduct.getCategory().getName());
         
@@ -112,10 +124,11 @@ public class ProductService implements IProductService {
         
         return response;
     }
-     // @CacheEvict(value = {"products", "productsByCategory", "productById"}, allEntries = true)
+    @Transactional
     public ProductResponseDTO updateProduct(Long id, UpdateProductDTO updateProductDTO){
         ProductEntity existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+        String previousName = existingProduct.getName();
         
         // Check if name is being changed and if new name already exists
         if(updateProductDTO.getName() != null && 
@@ -148,6 +161,7 @@ public class ProductService implements IProductService {
         }
 
         ProductEntity updatedProduct = productRepository.save(existingProduct);
+        productCacheInvalidator.productChanged(id, previousName, updatedProduct.getName());
         ProductResponseDTO response = productMapper.toResponseDTO(updatedProduct);
         response.setCategoryName(updatedProduct.getCategory().getName());
         
@@ -167,13 +181,32 @@ public class ProductService implements IProductService {
             return response;
         }).toList();
     }
-    // @CacheEvict(value = {"products", "productsByCategory", "productById", "allProductsList"}, allEntries = true)
+
+    public List<ProductResponseDTO> getProductsAfter(Long afterId, int limit) {
+        List<ProductEntity> products = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+        if (products.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> quantities = inventoryRepository
+                .findStockLevelsByProductIdIn(products.stream().map(ProductEntity::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(StockLevel::getProductId, StockLevel::getQuantity));
+        return products.stream().map(product -> {
+            ProductResponseDTO response = productMapper.toResponseDTO(product);
+            response.setQuantity(quantities.get(product.getId()));
+            return response;
+        }).toList();
+    }
+
+    @Transactional
     public void deleteProduct(Long id){
         ProductEntity product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
         
         try {
             productRepository.delete(product);
+            productRepository.flush();
+            productCacheInvalidator.productChanged(id, product.getName());
         } catch (Exception ex) {
             if (ex.getMessage() != null && ex.getMessage().contains("foreign key constraint")) {
                 throw new com.example.commerce.errorhandlers.ConstraintViolationException(
@@ -237,5 +270,28 @@ public class ProductService implements IProductService {
             responsePage.isLast()
         );
     }
-}
 
+    /**
+     * Page of products with only the given fields populated. Search takes precedence over the
+     * category filter, as in {@link #searchProducts} and {@link #getProductsByCategory}.
+     *
+     * @param fields product fields to read, named as in the GraphQL schema
+     */
+    public PagedResponse<ProductResponseDTO> getProductsProjected(Set<String> fields, Long categoryId, String search,
+                                                                  Pageable pageable) {
+        boolean searching = search != null && !search.isBlank();
+        if (!searching && categoryId != null && !categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category not found with ID: " + categoryId);
+        }
+        Page<ProductResponseDTO> page = productRepository.findProjected(fields,
+                searching ? null : categoryId, searching ? search : null, pageable);
+
+        return new PagedResponse<>(
+            page.getContent(),
+            page.getNumber(),
+            (int) page.getTotalElements(),
+            page.getTotalPages(),
+            page.isLast()
+        );
+    }
+}
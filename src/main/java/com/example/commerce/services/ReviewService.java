@@ -1,23 +1,34 @@
 package com.example.commerce.services;
 
 import com.example.commerce.dtos.ProductReviewStats;
+import com.example.commerce.dtos.ReviewPage;
 import com.example.commerce.dtos.ReviewResponseDTO;
 import com.example.commerce.entities.ProductEntity;
+import com.example.commerce.entities.ProductReviewStatsEntity;
 import com.example.commerce.entities.ReviewEntity;
 import com.example.commerce.entities.UserEntity;
 import com.example.commerce.errorhandlers.ResourceAlreadyExists;
 import com.example.commerce.errorhandlers.ResourceNotFoundException;
 import com.example.commerce.mappers.ReviewMapper;
 import com.example.commerce.repositories.ProductRepository;
+import com.example.commerce.repositories.ProductReviewStatsRepository;
 import com.example.commerce.repositories.ReviewRepository;
 import com.example.commerce.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +36,7 @@ import java.util.stream.Collectors;
 public class ReviewService {
 
     private final ReviewRepository reviewRepository;
+    private final ProductReviewStatsRepository reviewStatsRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final ReviewMapper reviewMapper;
@@ -54,18 +66,24 @@ public class ReviewService {
         review.setComment(comment);
 
         ReviewEntity savedReview = reviewRepository.save(review);
+        reviewStatsRepository.addRating(productId, rating, 1);
         return reviewMapper.toDTO(savedReview);
     }
 
     @Transactional
     public ReviewResponseDTO updateReview(Long reviewId, Integer rating, String comment) {
-        ReviewEntity review = reviewRepository.findById(reviewId)
+        ReviewEntity review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
 
         if (rating != null) {
             if (rating < 1 || rating > 5) {
                 throw new IllegalArgumentException("Rating must be between 1 and 5");
             }
+            if (!rating.equals(review.getRating())) {
+                Long productId = review.getProduct().getId();
+                reviewStatsRepository.addRating(productId, review.getRating(), -1);
+                reviewStatsRepository.addRating(productId, rating, 1);
+            }
             review.setRating(rating);
         }
 
@@ -79,10 +97,10 @@ public class ReviewService {
 
     @Transactional
     public boolean deleteReview(Long reviewId) {
-        if (!reviewRepository.existsById(reviewId)) {
-            throw new ResourceNotFoundException("Review not found with id: " + reviewId);
-        }
-        reviewRepository.deleteById(reviewId);
+        ReviewEntity review = reviewRepository.findByIdForUpdate(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
+        reviewRepository.delete(review);
+        reviewStatsRepository.addRating(review.getProduct().getId(), review.getRating(), -1);
         return true;
     }
 
@@ -111,20 +129,137 @@ public class ReviewService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * @param after     cursor from the previous page, or null for the newest reviews
+     * @param minRating lowest rating to include, or null for 1
+     * @param maxRating highest rating to include, or null for 5
+     */
+    public ReviewPage getProductReviewsPage(Long productId, String after, int limit, Integer minRating, Integer maxRating) {
+        return keysetPage(after, limit, minRating, maxRating, (min, max, beforeCreatedAt, beforeId, rows) ->
+                reviewRepository.findPageByProductId(productId, min, max, beforeCreatedAt, beforeId, rows));
+    }
+
+    public ReviewPage getUserReviewsPage(Long userId, String after, int limit, Integer minRating, Integer maxRating) {
+        return keysetPage(after, limit, minRating, maxRating, (min, max, beforeCreatedAt, beforeId, rows) ->
+                reviewRepository.findPageByUserId(userId, min, max, beforeCreatedAt, beforeId, rows));
+    }
+
+    private ReviewPage keysetPage(String after, int limit, Integer minRating, Integer maxRating, KeysetQuery query) {
+        int min = minRating != null ? minRating : 1;
+        int max = maxRating != null ? maxRating : 5;
+        if (min < 1 || max > 5 || min > max) {
+            throw new IllegalArgumentException("Rating filter must be between 1 and 5");
+        }
+        ReviewCursor cursor = after != null ? ReviewCursor.decode(after) : ReviewCursor.FIRST;
+
+        // One extra row tells whether another page follows
+        List<ReviewResponseDTO> rows = query.find(min, max, cursor.createdAt(), cursor.id(), Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new ReviewPage(rows, null);
+        }
+        List<ReviewResponseDTO> content = List.copyOf(rows.subList(0, limit));
+        ReviewResponseDTO last = content.getLast();
+        return new ReviewPage(content, new ReviewCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
     public ProductReviewStats getProductReviewStats(Long productId) {
-        Double averageRating = reviewRepository.getAverageRatingByProductId(productId);
-        Long totalReviews = reviewRepository.getReviewCountByProductId(productId);
+        return reviewStatsRepository.findById(productId)
+                .map(this::toStats)
+                .orElseGet(() -> emptyStats(productId));
+    }
 
+    /**
+     * Review stats for a page of products in one primary-key lookup. Every requested id is in the
+     * result; products without reviews get zero totals.
+     */
+    public Map<Long, ProductReviewStats> getProductReviewStats(Collection<Long> productIds) {
+        Map<Long, ProductReviewStats> stats = new HashMap<>();
+        for (ProductReviewStatsEntity entity : reviewStatsRepository.findAllById(productIds)) {
+            stats.put(entity.getProductId(), toStats(entity));
+        }
+        for (Long productId : productIds) {
+            stats.computeIfAbsent(productId, this::emptyStats);
+        }
+        return stats;
+    }
+
+    /**
+     * Products whose product_review_stats row is missing or differs from their reviews: every
+     * reviewed product on the first start after the table was introduced, afterwards whatever
+     * reviews were written or removed without going through the review write paths. Takes no
+     * locks, so review writes carry on while the reviews table is aggregated.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findProductsWithStaleReviewStats() {
+        return reviewStatsRepository.findProductIdsWithStaleStats();
+    }
+
+    /**
+     * Recounts one product's totals from its reviews. Only that product's row is locked, for the
+     * length of this transaction, so review writes to other products do not wait.
+     */
+    @Transactional
+    public void repairReviewStats(Long productId) {
+        reviewStatsRepository.insertEmptyIfMissing(productId);
+        reviewStatsRepository.lockByProductId(productId);
+        reviewStatsRepository.recomputeFromReviews(productId);
+    }
+
+    @FunctionalInterface
+    private interface KeysetQuery {
+        List<ReviewResponseDTO> find(int minRating, int maxRating, LocalDateTime beforeCreatedAt, Long beforeId, Limit limit);
+    }
+
+    /**
+     * Position after the last review of a page, sent to clients as URL-safe base64.
+     */
+    private record ReviewCursor(LocalDateTime createdAt, Long id) {
+        // Sorts after every real review
+        static final ReviewCursor FIRST = new ReviewCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+        String encode() {
+            String value = createdAt + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static ReviewCursor decode(String cursor) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int comma = value.indexOf(',');
+                return new ReviewCursor(LocalDateTime.parse(value.substring(0, comma)),
+                        Long.parseLong(value.substring(comma + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid review cursor: " + cursor);
+            }
+        }
+    }
+
+    private ProductReviewStats toStats(ProductReviewStatsEntity entity) {
+        double averageRating = entity.getReviewCount() > 0
+                ? (double) entity.getRatingSum() / entity.getReviewCount()
+                : 0.0;
         return new ProductReviewStats(
-                productId,
-                averageRating != null ? averageRating : 0.0,
-                totalReviews
+                entity.getProductId(),
+                averageRating,
+                entity.getReviewCount(),
+                List.of(entity.getOneStar(), entity.getTwoStar(), entity.getThreeStar(),
+                        entity.getFourStar(), entity.getFiveStar())
         );
     }
 
+    private ProductReviewStats emptyStats(Long productId) {
+        return new ProductReviewStats(productId, 0.0, 0L, List.of(0L, 0L, 0L, 0L, 0L));
+    }
+
     public List<ReviewResponseDTO> getAllReviews() {
         return reviewRepository.findAll().stream()
                 .map(reviewMapper::toDTO)
                 .collect(Collectors.toList());
     }
+
+    public List<ReviewResponseDTO> getReviewsAfter(Long afterId, int limit) {
+        return reviewRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)).stream()
+                .map(reviewMapper::toDTO)
+                .toList();
+    }
 }
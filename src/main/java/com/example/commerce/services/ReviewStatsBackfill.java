@@ -0,0 +1,38 @@
+package com.example.commerce.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Repairs product_review_stats from the reviews on every start: it seeds the table on the first
+ * start after it appears, and afterwards fixes products whose totals drifted. In between, the
+ * review write paths keep it current.
+ * <p>
+ * Finding the products to repair reads the reviews without locking; each one is then recounted
+ * in its own short transaction, so review writes are never blocked table-wide during a deploy.
+ */
+@Slf4j
+@Component
+public class ReviewStatsBackfill implements ApplicationRunner {
+
+    private final ReviewService reviewService;
+
+    public ReviewStatsBackfill(ReviewService reviewService) {
+        this.reviewService = reviewService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> productIds = reviewService.findProductsWithStaleReviewStats();
+        for (Long productId : productIds) {
+            reviewService.repairReviewStats(productId);
+        }
+        if (!productIds.isEmpty()) {
+            log.info("Backfilled review stats for {} products", productIds.size());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.commerce.services;
 
+import com.example.commerce.cache.CacheEvictor;
 import com.example.commerce.dtos.requests.LoginDTO;
 import com.example.commerce.dtos.requests.UpdateUserDTO;
 import com.example.commerce.dtos.requests.UserRegistrationDTO;
@@ -14,11 +15,12 @@ import com.example.commerce.repositories.UserRepository;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.mindrot.jbcrypt.BCrypt;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,13 +31,14 @@ import java.util.UUID;
 public class UserService implements IUserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final CacheEvictor cacheEvictor;
 
-    public UserService(UserRepository userRepository, UserMapper userMapper) {
+    public UserService(UserRepository userRepository, UserMapper userMapper, CacheEvictor cacheEvictor) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.cacheEvictor = cacheEvictor;
     }
 
-    @CacheEvict(value = {"userById", "userByEmail"}, allEntries = true)
     public LoginResponseDTO addUser(UserRegistrationDTO userDTO){
 
         Optional<UserEntity> existingUser = userRepository.findByEmail(userDTO.getEmail());
@@ -91,10 +94,13 @@ public class UserService implements IUserService {
         }
     }
 
-    @CacheEvict(value = {"userById", "userByEmail"}, allEntries = true)
+    @Transactional
     public userSummaryDTO updateUser(Long id, @Valid UpdateUserDTO userDTO){
         UserEntity userEntity = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        // Evict under the old email as well as the new one
+        cacheEvictor.evict("userById", id);
+        cacheEvictor.evict("userByEmail", userEntity.getEmail());
         if(userDTO.getFirstName() != null && !userDTO.getFirstName().isBlank()){
             userEntity.setFirstName(userDTO.getFirstName());
         }
@@ -103,6 +109,7 @@ public class UserService implements IUserService {
         }
         if(userDTO.getEmail() != null && !userDTO.getEmail().isBlank()) {
             userEntity.setEmail(userDTO.getEmail());
+            cacheEvictor.evict("userByEmail", userDTO.getEmail());
         }
         UserEntity updatedUser = userRepository.save(userEntity);
         return userMapper.toSummaryDTO(updatedUser);
@@ -122,10 +129,18 @@ public class UserService implements IUserService {
         return userRepository.findAll().stream().map(userMapper::toSummaryDTO).toList();
     }
 
-    @CacheEvict(value = {"userById", "userByEmail"}, allEntries = true)
+    public List<userSummaryDTO> getUsersAfter(Long afterId, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)).stream()
+                .map(userMapper::toSummaryDTO)
+                .toList();
+    }
+
+    @Transactional
     public void deleteUser(Long id){
         UserEntity userEntity = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         userRepository.delete(userEntity);
+        cacheEvictor.evict("userById", id);
+        cacheEvictor.evict("userByEmail", userEntity.getEmail());
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.example.commerce.services;
+
+import com.example.commerce.cart.CartEngine;
+import com.example.commerce.cart.CartSnapshot;
+import com.example.commerce.dtos.requests.AddToCartDTO;
+import com.example.commerce.dtos.requests.UpdateCartItemDTO;
+import com.example.commerce.dtos.responses.CartItemResponseDTO;
+import com.example.commerce.dtos.responses.CartResponseDTO;
+import com.example.commerce.dtos.responses.ProductResponseDTO;
+import com.example.commerce.errorhandlers.ResourceNotFoundException;
+import com.example.commerce.interfaces.ICartService;
+import com.example.commerce.interfaces.IProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cart service backed by the {@link CartEngine}: edits touch only memory and the engine's
+ * journal, and reach the database on the engine's next flush. Products are read through the
+ * cached product service, so a cart edit normally runs no SQL at all. Item ids stay null until a
+ * line has been flushed.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartService implements ICartService {
+    private final CartEngine cartEngine;
+    private final IProductService productService;
+
+    public WriteBehindCartService(CartEngine cartEngine, IProductService productService) {
+        this.cartEngine = cartEngine;
+        this.productService = productService;
+    }
+
+    @Override
+    public CartResponseDTO getCart(Long userId) {
+        return toResponseDTO(cartEngine.get(userId));
+    }
+
+    @Override
+    public CartResponseDTO addToCart(Long userId, AddToCartDTO addToCartDTO) {
+        Long productId = addToCartDTO.getProductId();
+        ProductResponseDTO product = productService.getProductById(productId);
+        if (!product.isAvailable()) {
+            throw new IllegalArgumentException("Product '" + product.getName() + "' is not available");
+        }
+        return toResponseDTO(cartEngine.update(userId,
+                quantities -> quantities.merge(productId, addToCartDTO.getQuantity(), Integer::sum)));
+    }
+
+    @Override
+    public CartResponseDTO updateCartItem(Long userId, Long productId, UpdateCartItemDTO updateCartItemDTO) {
+        return toResponseDTO(cartEngine.update(userId, quantities -> {
+            requireItem(quantities, productId);
+            if (updateCartItemDTO.getQuantity() == 0) {
+                quantities.remove(productId);
+            } else {
+                quantities.put(productId, updateCartItemDTO.getQuantity());
+            }
+        }));
+    }
+
+    @Override
+    public CartResponseDTO removeFromCart(Long userId, Long productId) {
+        return toResponseDTO(cartEngine.update(userId, quantities -> {
+            requireItem(quantities, productId);
+            quantities.remove(productId);
+        }));
+    }
+
+    /**
+     * Empties the cart and writes it through at once, since the storefront clears the cart when an
+     * order is placed.
+     */
+    @Override
+    public void clearCart(Long userId) {
+        cartEngine.update(userId, Map::clear);
+        cartEngine.flush(userId);
+    }
+
+    private static void requireItem(Map<Long, Integer> quantities, Long productId) {
+        if (!quantities.containsKey(productId)) {
+            throw new ResourceNotFoundException("Product not found in cart");
+        }
+    }
+
+    private CartResponseDTO toResponseDTO(CartSnapshot cart) {
+        List<CartItemResponseDTO> items = new ArrayList<>();
+        double totalAmount = 0;
+        int totalItems = 0;
+        for (Map.Entry<Long, Integer> line : cart.quantities().entrySet()) {
+            ProductResponseDTO product;
+            try {
+                product = productService.getProductById(line.getKey());
+            } catch (ResourceNotFoundException e) {
+                // Deleted since it was added; the next flush drops the line
+                continue;
+            }
+            CartItemResponseDTO item = new CartItemResponseDTO();
+            item.setId(cart.itemIds().get(line.getKey()));
+            item.setProductId(product.getId());
+            item.setProductName(product.getName());
+            item.setProductPrice(product.getPrice());
+            item.setProductSku(product.getSku());
+            item.setQuantity(line.getValue());
+            item.setSubtotal(product.getPrice() * line.getValue());
+            items.add(item);
+            totalAmount += item.getSubtotal();
+            totalItems += line.getValue();
+        }
+
+        CartResponseDTO dto = new CartResponseDTO();
+        dto.setId(cart.cartId());
+        dto.setUserId(cart.userId());
+        dto.setItems(items);
+        dto.setTotalAmount(totalAmount);
+        dto.setTotalItems(totalItems);
+        return dto;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.commerce.utils.export;
+
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes rows one at a time as NDJSON or CSV, so an export holds no more than one row and the
+ * writer buffer in memory. CSV columns are given in order; NDJSON writes the whole row object.
+ *
+ * @param <T> row type
+ */
+public class ExportWriter<T> implements Flushable {
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+    private final List<Function<T, Object>> columns;
+    private long rows;
+
+    public ExportWriter(ExportFormat format, OutputStream out, ObjectMapper objectMapper,
+                        LinkedHashMap<String, Function<T, Object>> columns) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.objectMapper = objectMapper;
+        this.columns = new ArrayList<>(columns.values());
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(new ArrayList<>(columns.keySet()));
+        }
+    }
+
+    public void write(T row) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+        } else {
+            List<Object> values = new ArrayList<>(columns.size());
+            for (Function<T, Object> column : columns) {
+                values.add(column.apply(row));
+            }
+            writeCsvLine(values);
+        }
+        rows++;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCsvLine(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.commerce.utils.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local write-ahead journal of work that has been accepted but not yet completed.
+ * <p>
+ * Every record is one JSON line: {@code {"op":"A","key":...,"payload":{...}}} when work is
+ * accepted and {@code {"op":"D","key":...}} once it is done. On {@link #open()} the file is
+ * replayed and whatever was accepted but never marked done is returned, so callers can pick up
+ * where they left off after a crash or restart. A line torn by a crash or a failed write is
+ * skipped and replay carries on; if it has a complete record glued to its end, that record is
+ * kept. The file is rewritten with only the pending records on open and whenever enough done
+ * markers have piled up, and a file with unreadable lines is copied aside first so nothing is
+ * rewritten away unread.
+ * <p>
+ * With fsync on, writers share forces (group commit): a record is written under the journal's
+ * lock, but the force that makes it durable happens outside it, and one force covers every record
+ * written before it started. A writer that finds its record already covered by another writer's
+ * force returns without forcing, so concurrent appends cost one fsync per group rather than one
+ * each, and appends are not held up behind a force in progress.
+ *
+ * @param <T> payload type, serialised with the supplied {@link ObjectMapper}
+ */
+@Slf4j
+public class AppendOnlyJournal<T> implements Closeable {
+
+    private static final String ACCEPTED = "A";
+    private static final String DONE = "D";
+    private static final String RECORD_START = "{\"op\":";
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Class<T> payloadType;
+    private final boolean fsync;
+    private final int compactAfter;
+
+    // Guarded by this
+    private final Map<String, T> pending = new LinkedHashMap<>();
+    // Written under this; replaced, closed and forced under forceLock as well
+    private FileChannel channel;
+    private int doneSinceCompaction;
+    // Set when a write failed part way, so the next record starts on a line of its own
+    private boolean torn;
+
+    // Writes made (under this) and writes known to be on disk (under forceLock); lock order is this, then forceLock
+    private final Object forceLock = new Object();
+    private volatile long written;
+    private long forced;
+    private final LongAdder forces = new LongAdder();
+
+    /**
+     * @param fsync        force every write to disk before returning, sharing forces between concurrent writers
+     * @param compactAfter number of done markers after which the file is rewritten
+     */
+    public AppendOnlyJournal(Path file, ObjectMapper objectMapper, Class<T> payloadType,
+                             boolean fsync, int compactAfter) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.payloadType = payloadType;
+        this.fsync = fsync;
+        this.compactAfter = compactAfter;
+    }
+
+    /**
+     * Replays the journal and opens it for appending.
+     *
+     * @return payloads accepted but not completed, oldest first
+     */
+    public synchronized List<T> open() throws IOException {
+        if (channel != null) {
+            throw new IllegalStateException("Journal " + file + " is already open");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        pending.clear();
+        if (Files.exists(file) && replay() > 0) {
+            Path copy = file.resolveSibling(file.getFileName() + ".unreadable-" + System.currentTimeMillis());
+            Files.copy(file, copy);
+            log.warn("Journal {} had unreadable lines, kept a copy at {}", file, copy);
+        }
+        rewrite();
+        log.info("Opened journal {} with {} pending entries", file, pending.size());
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Records accepted work; with fsync on, returns once the record is on disk.
+     */
+    public void append(String key, T payload) throws IOException {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("op", ACCEPTED);
+        record.put("key", key);
+        record.set("payload", objectMapper.valueToTree(payload));
+        String line = objectMapper.writeValueAsString(record) + "\n";
+        long position;
+        synchronized (this) {
+            position = write(line);
+            pending.put(key, payload);
+        }
+        try {
+            awaitForced(position);
+        } catch (IOException e) {
+            // The caller treats the work as not accepted, so it must not be carried into a rewrite
+            synchronized (this) {
+                pending.remove(key);
+            }
+            throw e;
+        }
+    }
+
+    public void complete(String key) throws IOException {
+        complete(List.of(key));
+    }
+
+    /**
+     * Marks several keys done with a single write (and at most one fsync).
+     */
+    public void complete(Collection<String> keys) throws IOException {
+        long position;
+        synchronized (this) {
+            StringBuilder lines = new StringBuilder();
+            for (String key : keys) {
+                if (pending.remove(key) != null) {
+                    ObjectNode record = objectMapper.createObjectNode();
+                    record.put("op", DONE);
+                    record.put("key", key);
+                    lines.append(objectMapper.writeValueAsString(record)).append('\n');
+                    doneSinceCompaction++;
+                }
+            }
+            if (lines.isEmpty()) {
+                return;
+            }
+            position = write(lines.toString());
+            if (doneSinceCompaction >= compactAfter) {
+                rewrite();
+            }
+        }
+        awaitForced(position);
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return number of times the journal was forced to disk for appends and completions
+     */
+    public long forceCount() {
+        return forces.sum();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        synchronized (forceLock) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * @return number of lines that could not be read
+     */
+    private int replay() throws IOException {
+        int lineNumber = 0;
+        int unreadable = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || apply(line)) {
+                    continue;
+                }
+                // A torn write may be followed on the same line by a record appended after it
+                int lastStart = line.lastIndexOf(RECORD_START);
+                if (lastStart > 0 && apply(line.substring(lastStart))) {
+                    log.warn("Skipped a torn journal record at {}:{}", file, lineNumber);
+                } else {
+                    log.warn("Skipped an unreadable journal record at {}:{}", file, lineNumber);
+                }
+                unreadable++;
+            }
+        }
+        return unreadable;
+    }
+
+    private boolean apply(String line) {
+        try {
+            JsonNode record = objectMapper.readTree(line);
+            String key = record.get("key").asString();
+            if (ACCEPTED.equals(record.get("op").asString())) {
+                pending.put(key, objectMapper.treeToValue(record.get("payload"), payloadType));
+            } else {
+                pending.remove(key);
+            }
+            return true;
+        } catch (JacksonException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the pending records to a temporary file and atomically swaps it in.
+     */
+    private void rewrite() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, T> entry : pending.entrySet()) {
+                ObjectNode record = objectMapper.createObjectNode();
+                record.put("op", ACCEPTED);
+                record.put("key", entry.getKey());
+                record.set("payload", objectMapper.valueToTree(entry.getValue()));
+                writeFully(out, objectMapper.writeValueAsString(record) + "\n");
+            }
+            out.force(true);
+        }
+        // Nobody may force the old channel while it is swapped out
+        synchronized (forceLock) {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // Every pending record is in the forced new file; lost done markers are only replayed work
+            forced = written;
+        }
+        doneSinceCompaction = 0;
+        torn = false;
+    }
+
+    /**
+     * Appends without forcing. Called holding this.
+     *
+     * @return position to pass to {@link #awaitForced(long)}
+     */
+    private long write(String lines) throws IOException {
+        if (channel == null) {
+            throw new IllegalStateException("Journal " + file + " is not open");
+        }
+        if (torn) {
+            lines = "\n" + lines;
+        }
+        torn = true;
+        writeFully(channel, lines);
+        torn = false;
+        written++;
+        return written;
+    }
+
+    /**
+     * Returns once the write at {@code position} is on disk. The first waiter forces everything
+     * written so far; the ones queued behind it usually find their write already covered.
+     */
+    private void awaitForced(long position) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (forced >= position) {
+                return;
+            }
+            // Anything written after this read is left for the next force
+            long upTo = written;
+            FileChannel current = channel;
+            if (current == null) {
+                throw new IllegalStateException("Journal " + file + " is not open");
+            }
+            force(current);
+            forces.increment();
+            forced = upTo;
+        }
+    }
+
+    /**
+     * Forces appended records to disk. Package-private so tests can hold a force open.
+     */
+    void force(FileChannel target) throws IOException {
+        target.force(false);
+    }
+
+    private static void writeFully(FileChannel target, String lines) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+}
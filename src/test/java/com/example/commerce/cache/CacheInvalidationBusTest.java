@@ -0,0 +1,93 @@
+package com.example.commerce.cache;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two cache managers joined by the in-process bus, standing in for two instances sharing
+ * PostgreSQL notifications.
+ */
+class CacheInvalidationBusTest {
+
+    private LocalCacheInvalidationBus busA;
+    private LocalCacheInvalidationBus busB;
+    private MonitoredCacheManager nodeA;
+    private MonitoredCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        busA = new LocalCacheInvalidationBus();
+        busB = busA.join();
+        nodeA = node(busA);
+        nodeB = node(busB);
+    }
+
+    private MonitoredCacheManager node(CacheInvalidationBus bus) {
+        return new MonitoredCacheManager(new ConcurrentMapCacheManager("productById", "allProducts"),
+                new PerformanceMonitoringAspect(), bus);
+    }
+
+    @Test
+    void evictOnOneNode_EvictsTheKeyOnTheOther() {
+        nodeA.getCache("productById").put(1L, "a");
+        nodeB.getCache("productById").put(1L, "b");
+        nodeB.getCache("productById").put(2L, "b");
+
+        nodeA.getCache("productById").evict(1L);
+
+        assertNull(nodeB.getCache("productById").get(1L));
+        assertEquals("b", nodeB.getCache("productById").get(2L, String.class));
+    }
+
+    @Test
+    void clearOnOneNode_ClearsTheCacheOnTheOther() {
+        nodeB.getCache("allProducts").put("0-20", "page");
+        nodeB.getCache("productById").put(1L, "b");
+
+        nodeA.getCache("allProducts").clear();
+
+        assertNull(nodeB.getCache("allProducts").get("0-20"));
+        assertEquals("b", nodeB.getCache("productById").get(1L, String.class));
+    }
+
+    @Test
+    void remoteEviction_DropsAPutStartedBeforeIt() {
+        Cache cacheB = nodeB.getCache("productById");
+        assertNull(cacheB.get(1L));
+
+        nodeA.getCache("productById").evict(1L);
+        cacheB.put(1L, "loaded before the remote write");
+
+        assertNull(cacheB.get(1L));
+    }
+
+    @Test
+    void reconnect_ClearsEverythingThatMayHaveBeenMissed() {
+        nodeB.getCache("productById").put(1L, "b");
+        nodeB.getCache("allProducts").put("0-20", "page");
+
+        busB.disconnect();
+        nodeA.getCache("productById").evict(1L);
+        assertEquals("b", nodeB.getCache("productById").get(1L, String.class));
+
+        busB.reconnect();
+
+        assertNull(nodeB.getCache("productById").get(1L));
+        assertNull(nodeB.getCache("allProducts").get("0-20"));
+    }
+
+    @Test
+    void standaloneBus_KeepsInvalidationsLocal() {
+        MonitoredCacheManager standalone = node(new LocalCacheInvalidationBus());
+        nodeB.getCache("productById").put(1L, "b");
+
+        standalone.getCache("productById").evict(1L);
+
+        assertEquals("b", nodeB.getCache("productById").get(1L, String.class));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.commerce.cache;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import com.example.commerce.errorhandlers.ResourceNotFoundException;
+import com.example.commerce.interfaces.ICategoryService;
+import com.example.commerce.interfaces.IInventoryService;
+import com.example.commerce.interfaces.IProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheWarmerTest {
+
+    @TempDir
+    Path directory;
+
+    private PerformanceMonitoringAspect performanceMonitor;
+    private IProductService productService;
+    private ICategoryService categoryService;
+    private IInventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        performanceMonitor = new PerformanceMonitoringAspect();
+        productService = mock(IProductService.class);
+        categoryService = mock(ICategoryService.class);
+        inventoryService = mock(IInventoryService.class);
+    }
+
+    private CacheWarmer warmer(Path file, int keysPerCache) {
+        return new CacheWarmer(performanceMonitor, JsonMapper.builder().build(), productService, categoryService,
+                inventoryService, true, file.toString(), keysPerCache, 2, 2, 10);
+    }
+
+    @Test
+    void saveHotKeys_ThenRun_ReloadsTheHottestCatalogKeys() throws Exception {
+        Path file = directory.resolve("warmup.json");
+        for (int i = 0; i < 5; i++) {
+            performanceMonitor.recordCacheHit("productById::7");
+        }
+        performanceMonitor.recordCacheMiss("productById::3");
+        performanceMonitor.recordCacheMiss("productById::9");
+        performanceMonitor.recordCacheHit("productById::9");
+        performanceMonitor.recordCacheHit("allProducts::0-20");
+        performanceMonitor.recordCacheHit("userById::1");
+
+        warmer(file, 2).saveHotKeys();
+        assertTrue(Files.exists(file));
+
+        warmer(file, 2).run(new DefaultApplicationArguments());
+
+        verify(productService).getProductById(7L);
+        verify(productService).getProductById(9L);
+        verify(productService, never()).getProductById(3L);
+        verify(productService).getAllProducts(PageRequest.of(0, 20));
+        assertFalse(Files.readString(file).contains("userById"), "personal caches are not written to disk");
+    }
+
+    @Test
+    void run_SkipsKeysThatNoLongerExist() throws Exception {
+        Path file = directory.resolve("warmup.json");
+        Files.writeString(file, "{\"caches\":{\"productById\":[\"1\",\"2\"],\"categoryById\":[\"4\"]}}");
+        when(productService.getProductById(1L)).thenThrow(new ResourceNotFoundException("gone"));
+
+        warmer(file, 10).run(new DefaultApplicationArguments());
+
+        verify(productService).getProductById(2L);
+        verify(categoryService).getCategoryById(4L);
+    }
+
+    @Test
+    void run_DoesNothingWithoutAFile() throws Exception {
+        warmer(directory.resolve("missing.json"), 10).run(new DefaultApplicationArguments());
+
+        verifyNoInteractions(productService, categoryService, inventoryService);
+    }
+}
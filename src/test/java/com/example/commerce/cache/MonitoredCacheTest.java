@@ -0,0 +1,97 @@
+package com.example.commerce.cache;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonitoredCacheTest {
+
+    private PerformanceMonitoringAspect performanceMonitor;
+    private MonitoredCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        performanceMonitor = new PerformanceMonitoringAspect();
+        cacheManager = new MonitoredCacheManager(new ConcurrentMapCacheManager("productById"), performanceMonitor);
+    }
+
+    @Test
+    void put_DroppedWhenKeyWasEvictedAfterTheMiss() throws Exception {
+        Cache cache = cacheManager.getCache("productById");
+        CountDownLatch missed = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+
+        // Reader misses, loads the old row, and only then tries to cache it
+        CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+            assertNull(cache.get(1L));
+            missed.countDown();
+            await(evicted);
+            cache.put(1L, "old");
+        });
+        missed.await(5, TimeUnit.SECONDS);
+        cacheManager.getCache("productById").evict(1L);
+        evicted.countDown();
+        reader.get(5, TimeUnit.SECONDS);
+
+        assertNull(cache.get(1L));
+        assertEquals(1, performanceMonitor.getCacheMetrics().get("productById::1").get("stalePutsDropped"));
+    }
+
+    @Test
+    void put_DroppedWhenCacheWasClearedAfterTheMiss() {
+        Cache cache = cacheManager.getCache("productById");
+        assertNull(cache.get(1L));
+        cache.clear();
+        cache.put(1L, "old");
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void put_AppliedWhenNothingChangedSinceTheMiss() {
+        Cache cache = cacheManager.getCache("productById");
+        assertNull(cache.get(1L));
+        cache.evict(2L);
+        cache.put(1L, "current");
+
+        assertEquals("current", cache.get(1L, String.class));
+    }
+
+    @Test
+    void put_WithoutPrecedingMissIsAlwaysApplied() {
+        Cache cache = cacheManager.getCache("productById");
+        cache.evict(1L);
+        cache.put(1L, "written");
+
+        assertEquals("written", cache.get(1L, String.class));
+    }
+
+    @Test
+    void getWithLoader_DoesNotCacheValueLoadedAcrossAnEviction() {
+        Cache cache = cacheManager.getCache("productById");
+        String loaded = cache.get(1L, () -> {
+            cache.evict(1L);
+            return "old";
+        });
+
+        assertEquals("old", loaded);
+        assertNull(cache.get(1L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.commerce.cache;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Messages as they travel between two nodes, without a database: what one node encodes is handed
+ * straight to the other's receiving side.
+ */
+class PostgresCacheInvalidationBusTest {
+
+    private PostgresCacheInvalidationBus sender;
+    private PostgresCacheInvalidationBus receiver;
+    private Cache received;
+
+    @BeforeEach
+    void setUp() {
+        sender = bus();
+        receiver = bus();
+        MonitoredCacheManager cacheManager = new MonitoredCacheManager(
+                new ConcurrentMapCacheManager("byId", "allProducts"), new PerformanceMonitoringAspect(), receiver);
+        received = cacheManager.getCache("byId");
+    }
+
+    private static PostgresCacheInvalidationBus bus() {
+        return new PostgresCacheInvalidationBus("jdbc:postgresql://unused", "", "", "cache_invalidation",
+                50, 100, JsonMapper.builder().build());
+    }
+
+    @Test
+    void evictions_KeepTheirKeyTypeAcrossTheWire() {
+        received.put(1L, "long");
+        received.put(2, "int");
+        received.put("3", "string");
+        received.put(4L, "untouched long");
+        received.put(4, "untouched int");
+
+        receiver.receive(sender.encode(List.of(
+                new PostgresCacheInvalidationBus.Invalidation("byId", 1L),
+                new PostgresCacheInvalidationBus.Invalidation("byId", 2),
+                new PostgresCacheInvalidationBus.Invalidation("byId", "3"))));
+
+        assertNull(received.get(1L));
+        assertNull(received.get(2));
+        assertNull(received.get("3"));
+        assertEquals("untouched long", received.get(4L, String.class));
+        assertEquals("untouched int", received.get(4, String.class));
+    }
+
+    @Test
+    void clear_WinsOverEvictionsOfTheSameCache() {
+        received.put(1L, "long");
+        received.put(2, "int");
+
+        receiver.receive(sender.encode(List.of(
+                new PostgresCacheInvalidationBus.Invalidation("byId", 1L),
+                new PostgresCacheInvalidationBus.Invalidation("byId", null))));
+
+        assertNull(received.get(1L));
+        assertNull(received.get(2));
+    }
+
+    @Test
+    void ownMessages_AreIgnored() {
+        received.put(1L, "long");
+
+        receiver.receive(receiver.encode(List.of(new PostgresCacheInvalidationBus.Invalidation("byId", 1L))));
+
+        assertEquals("long", received.get(1L, String.class));
+    }
+}
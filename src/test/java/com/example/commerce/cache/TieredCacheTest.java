@@ -0,0 +1,96 @@
+package com.example.commerce.cache;
+
+import com.example.commerce.dtos.responses.PagedResponse;
+import com.example.commerce.dtos.responses.ProductResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredCacheTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    private TieredCache cache(int slabSize, int maxSlabs) {
+        return new TieredCache("allProducts", objectMapper,
+                objectMapper.getTypeFactory().constructParametricType(PagedResponse.class, ProductResponseDTO.class),
+                slabSize, maxSlabs, 4, 2);
+    }
+
+    private static PagedResponse<ProductResponseDTO> page(int number) {
+        ProductResponseDTO product = new ProductResponseDTO();
+        product.setId((long) number);
+        product.setName("product-" + number);
+        product.setPrice(9.5);
+        product.setQuantity(3);
+        return new PagedResponse<>(List.of(product), number, 100, 10, false);
+    }
+
+    @Test
+    void get_ReadsBackAnEqualValueFromOffHeap() {
+        TieredCache cache = cache(64 * 1024, 4);
+        cache.put("0-20", page(0));
+
+        Cache.ValueWrapper cached = cache.get("0-20");
+
+        assertNotNull(cached);
+        assertEquals(page(0), cached.get());
+        assertEquals(1L, cache.stats().get("offHeapHits"));
+    }
+
+    @Test
+    void get_PromotesRepeatedlyReadKeysToTheNearCache() {
+        TieredCache cache = cache(64 * 1024, 4);
+        cache.put("0-20", page(0));
+
+        cache.get("0-20");
+        cache.get("0-20");
+        Object first = cache.get("0-20").get();
+        Object second = cache.get("0-20").get();
+
+        assertSame(first, second);
+        assertEquals(1L, cache.stats().get("promotions"));
+        assertEquals(2L, cache.stats().get("nearHits"));
+    }
+
+    @Test
+    void put_EvictsTheOldestSlabWhenAllSlabsAreFull() {
+        int entrySize = objectMapper.writeValueAsBytes(page(0)).length;
+        TieredCache cache = cache(entrySize * 2, 2);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i + "-20", page(0));
+        }
+
+        assertNull(cache.get("0-20"));
+        assertNull(cache.get("1-20"));
+        assertNotNull(cache.get("4-20"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> offHeap = (Map<String, Object>) cache.stats().get("offHeap");
+        assertEquals(2, offHeap.get("slabs"));
+    }
+
+    @Test
+    void evict_RemovesTheKeyFromBothTiers() {
+        TieredCache cache = cache(64 * 1024, 4);
+        cache.put("0-20", page(0));
+        cache.get("0-20");
+        cache.get("0-20");
+
+        cache.evict("0-20");
+
+        assertNull(cache.get("0-20"));
+    }
+
+    @Test
+    void put_KeepsValuesLargerThanASlabOnHeap() {
+        TieredCache cache = cache(16, 4);
+        cache.put("0-20", page(0));
+
+        assertEquals(page(0), cache.get("0-20").get());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.commerce.cart;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class CartEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private CartWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = mock(CartWriter.class);
+        when(writer.load(anyLong())).thenAnswer(invocation -> {
+            Long userId = invocation.getArgument(0);
+            return new CartSnapshot(userId, userId * 10, 0, new HashMap<>(), new HashMap<>());
+        });
+        when(writer.write(anyList())).thenReturn(written(Map.of()));
+    }
+
+    private static CartWriter.Written written(Map<Long, Map<Long, Long>> itemIds) {
+        return new CartWriter.Written(itemIds, Set.of());
+    }
+
+    private CartEngine engine(long idleTimeoutSeconds) throws Exception {
+        CartEngine engine = new CartEngine(writer, JsonMapper.builder().build(),
+                directory.resolve("carts.journal").toString(), false, 4, 2, idleTimeoutSeconds);
+        engine.start();
+        return engine;
+    }
+
+    @Test
+    void update_IsJournaledUntilFlushed() throws Exception {
+        when(writer.write(anyList())).thenReturn(written(Map.of(10L, Map.of(5L, 500L))));
+        CartEngine engine = engine(1800);
+
+        CartSnapshot cart = engine.update(1L, quantities -> quantities.put(5L, 2));
+
+        assertEquals(Map.of(5L, 2), cart.quantities());
+        assertEquals(10L, cart.cartId());
+        assertEquals(1, engine.metrics().get("journalPending"));
+        assertEquals(1, engine.metrics().get("dirtyCarts"));
+        verify(writer, never()).write(anyList());
+
+        engine.flushAndEvict();
+
+        verify(writer).write(List.of(cart));
+        assertEquals(0, engine.metrics().get("journalPending"));
+        assertEquals(0, engine.metrics().get("dirtyCarts"));
+        assertEquals(500L, engine.get(1L).itemIds().get(5L));
+    }
+
+    @Test
+    void update_WithoutChange_IsNotJournaled() throws Exception {
+        CartEngine engine = engine(1800);
+
+        engine.update(1L, quantities -> quantities.remove(5L));
+
+        assertEquals(0, engine.metrics().get("journalPending"));
+        assertEquals(0, engine.metrics().get("dirtyCarts"));
+    }
+
+    @Test
+    void start_RecoversEditsThatWereNeverFlushed() throws Exception {
+        CartEngine crashed = engine(1800);
+        crashed.update(1L, quantities -> quantities.put(5L, 2));
+        crashed.update(1L, quantities -> quantities.put(6L, 1));
+        crashed.update(2L, quantities -> quantities.put(7L, 3));
+
+        // No stop(): the node died before the next flush
+        clearInvocations(writer);
+        CartEngine recovered = engine(1800);
+
+        assertEquals(Map.of(5L, 2, 6L, 1), recovered.get(1L).quantities());
+        assertEquals(Map.of(7L, 3), recovered.get(2L).quantities());
+        assertEquals(2, recovered.metrics().get("dirtyCarts"));
+        verify(writer, never()).load(1L);
+
+        recovered.flushAndEvict();
+        assertEquals(0, recovered.metrics().get("journalPending"));
+
+        // A later edit still sorts after the recovered ones
+        CartSnapshot edited = recovered.update(1L, quantities -> quantities.remove(5L));
+        assertTrue(edited.version() > crashed.get(1L).version());
+    }
+
+    @Test
+    void flushAndEvict_DropsIdleCartsAndReloadsThemOnNextUse() throws Exception {
+        CartEngine engine = engine(0);
+        engine.update(1L, quantities -> quantities.put(5L, 2));
+
+        engine.flushAndEvict();
+
+        assertEquals(0, engine.metrics().get("carts"));
+        assertEquals(1L, engine.metrics().get("evictions"));
+
+        engine.get(1L);
+        verify(writer, times(2)).load(1L);
+    }
+
+    @Test
+    void flushAndEvict_KeepsACartThatFailedToWriteDirty() throws Exception {
+        CartEngine engine = engine(0);
+        engine.update(1L, quantities -> quantities.put(5L, 2));
+        engine.update(2L, quantities -> quantities.put(6L, 1));
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            List<CartSnapshot> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(cart -> cart.userId() == 2L)) {
+                throw new IllegalStateException("down");
+            }
+            return written(Map.of());
+        });
+
+        engine.flushAndEvict();
+
+        assertEquals(1, engine.metrics().get("carts"), "the failed cart is not evicted");
+        assertEquals(1, engine.metrics().get("dirtyCarts"));
+        assertEquals(1, engine.metrics().get("journalPending"));
+        assertEquals(1L, engine.metrics().get("failedFlushes"));
+
+        reset(writer);
+        when(writer.write(anyList())).thenReturn(written(Map.of()));
+        engine.flushAndEvict();
+
+        assertEquals(0, engine.metrics().get("journalPending"));
+        assertEquals(0, engine.metrics().get("carts"));
+    }
+
+    @Test
+    void flushAndEvict_DropsACartDeletedFromTheDatabase() throws Exception {
+        CartEngine engine = engine(1800);
+        engine.update(1L, quantities -> quantities.put(5L, 2));
+        engine.update(1L, quantities -> quantities.put(6L, 1));
+        engine.update(2L, quantities -> quantities.put(7L, 3));
+        // User 1 was deleted, and their cart (id 10) with them
+        when(writer.write(anyList())).thenReturn(new CartWriter.Written(Map.of(), Set.of(10L)));
+
+        engine.flushAndEvict();
+
+        assertEquals(1, engine.metrics().get("carts"));
+        assertEquals(0, engine.metrics().get("dirtyCarts"));
+        assertEquals(0, engine.metrics().get("journalPending"));
+        assertEquals(1L, engine.metrics().get("droppedCarts"));
+
+        engine.get(1L);
+        verify(writer, times(2)).load(1L);
+    }
+}
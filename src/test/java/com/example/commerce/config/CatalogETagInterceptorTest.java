@@ -0,0 +1,103 @@
+package com.example.commerce.config;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import com.example.commerce.cache.CatalogVersion;
+import com.example.commerce.cache.MonitoredCacheManager;
+import com.example.commerce.repositories.CatalogVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogETagInterceptorTest {
+
+    private final AtomicLong storedVersion = new AtomicLong();
+    private MonitoredCacheManager cacheManager;
+    private CatalogVersion catalogVersion;
+    private CatalogETagInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new MonitoredCacheManager(new ConcurrentMapCacheManager("allProducts", "productById", "userById"),
+                new PerformanceMonitoringAspect());
+        CatalogVersionRepository catalogVersionRepository = mock(CatalogVersionRepository.class);
+        when(catalogVersionRepository.findCurrent()).thenAnswer(call -> Optional.of(storedVersion.get()));
+        when(catalogVersionRepository.increment()).thenAnswer(call -> storedVersion.incrementAndGet());
+        catalogVersion = new CatalogVersion(cacheManager, catalogVersionRepository);
+        interceptor = new CatalogETagInterceptor(catalogVersion, 30);
+    }
+
+    private MockHttpServletResponse get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/public/all");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+        assertEquals(response.getStatus() != 304, proceed);
+        return response;
+    }
+
+    @Test
+    void preHandle_SetsETagAndCacheControl() {
+        MockHttpServletResponse response = get(null);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getHeader("ETag"));
+        assertEquals("max-age=30, must-revalidate, public", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void preHandle_ShortCircuitsWithNotModifiedWhenTagMatches() {
+        String etag = get(null).getHeader("ETag");
+
+        assertEquals(304, get(etag).getStatus());
+        assertEquals(304, get("\"other\", W/" + etag).getStatus());
+    }
+
+    @Test
+    void catalogChange_ChangesTheTagOnceTheListingsAreInvalidated() {
+        String etag = get(null).getHeader("ETag");
+
+        catalogVersion.bump();
+        // Not committed and invalidated yet: the old tag still describes what is served
+        assertEquals(304, get(etag).getStatus());
+
+        cacheManager.getCache("allProducts").clear();
+
+        MockHttpServletResponse response = get(etag);
+        assertEquals(200, response.getStatus());
+        assertNotEquals(etag, response.getHeader("ETag"));
+    }
+
+    @Test
+    void nonCatalogInvalidation_KeepsTheTag() {
+        String etag = get(null).getHeader("ETag");
+
+        cacheManager.getCache("productById").evict(1L);
+        cacheManager.getCache("userById").evict(1L);
+
+        assertEquals(304, get(etag).getStatus());
+    }
+
+    @Test
+    void sameVersion_GivesTheSameTagOnEveryInstance() {
+        storedVersion.set(41);
+        String etag = get(null).getHeader("ETag");
+
+        CatalogVersionRepository otherNodeRepository = mock(CatalogVersionRepository.class);
+        when(otherNodeRepository.findCurrent()).thenReturn(Optional.of(41L));
+        CatalogVersion otherNode = new CatalogVersion(new MonitoredCacheManager(
+                new ConcurrentMapCacheManager("allProducts"), new PerformanceMonitoringAspect()), otherNodeRepository);
+
+        assertEquals(etag, otherNode.etag());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.commerce.config;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import com.example.commerce.cache.CatalogVersion;
+import com.example.commerce.cache.MonitoredCacheManager;
+import com.example.commerce.cache.ResponseBodyCache;
+import com.example.commerce.repositories.CatalogVersionRepository;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResponseBodyCacheInterceptorTest {
+
+    private MonitoredCacheManager cacheManager;
+    private CatalogVersion catalogVersion;
+    private ResponseBodyCaptureFilter filter;
+    private ResponseBodyCacheInterceptor interceptor;
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+    private String body = "{\"status\":200,\"message\":\"ok\",\"data\":{\"id\":1}}";
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new MonitoredCacheManager(new ConcurrentMapCacheManager("allProducts"),
+                new PerformanceMonitoringAspect());
+        AtomicLong storedVersion = new AtomicLong();
+        CatalogVersionRepository catalogVersionRepository = mock(CatalogVersionRepository.class);
+        when(catalogVersionRepository.findCurrent()).thenAnswer(call -> Optional.of(storedVersion.get()));
+        when(catalogVersionRepository.increment()).thenAnswer(call -> storedVersion.incrementAndGet());
+        catalogVersion = new CatalogVersion(cacheManager, catalogVersionRepository);
+        ResponseBodyCache cache = new ResponseBodyCache(catalogVersion, true, true, 100, 512);
+        filter = new ResponseBodyCaptureFilter(cache);
+        interceptor = new ResponseBodyCacheInterceptor(cache);
+    }
+
+    /**
+     * Runs the filter, then the interceptor, then a stand-in controller that writes {@link #body}.
+     */
+    private MockHttpServletResponse get(String uri, String acceptEncoding) throws Exception {
+        String[] pathAndQuery = uri.split("\\?", 2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pathAndQuery[0]);
+        if (pathAndQuery.length > 1) {
+            for (String parameter : pathAndQuery[1].split("&")) {
+                String[] nameAndValue = parameter.split("=", 2);
+                request.addParameter(nameAndValue[0], nameAndValue[1]);
+            }
+        }
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet dispatcher = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                if (interceptor.preHandle(req, resp, new Object())) {
+                    controllerCalls.incrementAndGet();
+                    resp.setContentType("application/json");
+                    resp.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(dispatcher));
+        return response;
+    }
+
+    @Test
+    void secondRead_IsServedFromTheCachedBytes() throws Exception {
+        String first = get("/api/products/public/all", null).getContentAsString();
+        MockHttpServletResponse second = get("/api/products/public/all", null);
+
+        assertEquals(1, controllerCalls.get());
+        assertEquals(first, second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+        assertEquals(first.length(), second.getContentLength());
+    }
+
+    @Test
+    void queryParameters_AreOrderInsensitivePartOfTheKey() throws Exception {
+        get("/api/products/public/all?page=0&size=20", null);
+        get("/api/products/public/all?size=20&page=0", null);
+        get("/api/products/public/all?page=1&size=20", null);
+
+        assertEquals(2, controllerCalls.get());
+    }
+
+    @Test
+    void catalogInvalidation_MakesTheNextReadRebuild() throws Exception {
+        get("/api/products/public/all", null);
+
+        catalogVersion.bump();
+        cacheManager.getCache("allProducts").clear();
+        body = "{\"status\":200,\"message\":\"ok\",\"data\":{\"id\":1,\"name\":\"renamed\"}}";
+
+        assertEquals(body, get("/api/products/public/all", null).getContentAsString());
+        assertEquals(2, controllerCalls.get());
+    }
+
+    @Test
+    void gzipClients_GetThePrecompressedBody() throws Exception {
+        body = "{\"data\":\"" + "x".repeat(4096) + "\"}";
+        get("/api/products/public/all", "gzip, deflate");
+
+        MockHttpServletResponse response = get("/api/products/public/all", "gzip, deflate");
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertTrue(response.getContentAsByteArray().length < body.length());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(body, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertNull(get("/api/products/public/all", null).getHeader("Content-Encoding"));
+    }
+
+    @Test
+    void cacheableRoutes_VaryOnAcceptEncodingOnMissesAndHits() throws Exception {
+        MockHttpServletResponse miss = get("/api/products/public/all", null);
+        MockHttpServletResponse hit = get("/api/products/public/all", "gzip");
+
+        assertEquals(1, controllerCalls.get());
+        assertEquals(List.of("Accept-Encoding"), miss.getHeaders("Vary"));
+        assertEquals(List.of("Accept-Encoding"), hit.getHeaders("Vary"));
+        assertTrue(get("/api/products/search", null).getHeaders("Vary").isEmpty());
+    }
+
+    @Test
+    void otherRoutes_AreNotCached() throws Exception {
+        get("/api/products/search", null);
+        get("/api/products/search", null);
+        get("/api/products/1", null);
+        get("/api/products/1", null);
+
+        assertEquals(4, controllerCalls.get());
+    }
+}
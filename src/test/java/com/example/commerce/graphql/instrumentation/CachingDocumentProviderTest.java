@@ -0,0 +1,100 @@
+package com.example.commerce.graphql.instrumentation;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingDocumentProviderTest {
+
+    private static final String QUERY = "{ allProducts { id name } }";
+
+    private static GraphQLSchema schema;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void loadSchema() {
+        schema = new SchemaGenerator().makeExecutableSchema(
+                new SchemaParser().parse(new File("src/main/resources/graphql/schema.graphqls")),
+                RuntimeWiring.MOCKED_WIRING);
+    }
+
+    private CachingDocumentProvider provider(String allowList, boolean allowListOnly) {
+        return new CachingDocumentProvider(JsonMapper.builder().build(), new DefaultResourceLoader(), 10,
+                allowList, allowListOnly);
+    }
+
+    private static ExecutionResult execute(CachingDocumentProvider provider, String query, String hash) {
+        ExecutionInput.Builder input = ExecutionInput.newExecutionInput().query(query);
+        if (hash != null) {
+            input.extensions(Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+        }
+        return GraphQL.newGraphQL(schema).preparsedDocumentProvider(provider).build().execute(input.build());
+    }
+
+    @Test
+    void repeatedQuery_IsParsedOnce() {
+        CachingDocumentProvider provider = provider("", false);
+
+        execute(provider, QUERY, null);
+        ExecutionResult result = execute(provider, QUERY, null);
+
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(1L, provider.stats().get("hits"));
+        assertEquals(1, provider.stats().get("cachedDocuments"));
+    }
+
+    @Test
+    void hashOnly_IsUnknownUntilTheTextHasBeenSent() {
+        CachingDocumentProvider provider = provider("", false);
+        String hash = CachingDocumentProvider.sha256(QUERY);
+
+        assertEquals("PersistedQueryNotFound", execute(provider, "", hash).getErrors().getFirst().getMessage());
+
+        assertTrue(execute(provider, QUERY, hash).getErrors().isEmpty());
+        assertTrue(execute(provider, "", hash).getErrors().isEmpty());
+    }
+
+    @Test
+    void mismatchedHash_IsRejected() {
+        ExecutionResult result = execute(provider("", false), QUERY, CachingDocumentProvider.sha256("{ allOrders { id } }"));
+
+        assertEquals("PersistedQueryIdInvalid", result.getErrors().getFirst().getMessage());
+    }
+
+    @Test
+    void allowListOnly_RunsListedQueriesByHashAndRejectsTheRest() throws Exception {
+        Path allowList = directory.resolve("persisted-queries.json");
+        Files.writeString(allowList, "[\"" + QUERY + "\"]");
+        CachingDocumentProvider provider = provider("file:" + allowList, true);
+
+        assertTrue(execute(provider, "", CachingDocumentProvider.sha256(QUERY)).getErrors().isEmpty());
+        assertTrue(execute(provider, QUERY, null).getErrors().isEmpty());
+        assertFalse(execute(provider, "{ allProducts { id } }", null).getErrors().isEmpty());
+    }
+
+    @Test
+    void invalidQuery_IsNotCached() {
+        CachingDocumentProvider provider = provider("", false);
+
+        assertFalse(execute(provider, "{ noSuchField }", null).getErrors().isEmpty());
+        assertEquals(0, provider.stats().get("cachedDocuments"));
+    }
+}
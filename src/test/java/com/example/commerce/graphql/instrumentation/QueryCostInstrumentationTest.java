@@ -0,0 +1,144 @@
+package com.example.commerce.graphql.instrumentation;
+
+import com.example.commerce.aspects.PerformanceMonitoringAspect;
+import com.example.commerce.graphql.utils.ListLimits;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.CoercedVariables;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCostInstrumentationTest {
+
+    private static GraphQLSchema schema;
+
+    private PerformanceMonitoringAspect performanceMonitor;
+    private QueryCostInstrumentation instrumentation;
+
+    @BeforeAll
+    static void loadSchema() {
+        schema = new SchemaGenerator().makeExecutableSchema(
+                new SchemaParser().parse(new File("src/main/resources/graphql/schema.graphqls")),
+                RuntimeWiring.MOCKED_WIRING);
+    }
+
+    @BeforeEach
+    void setUp() {
+        performanceMonitor = new PerformanceMonitoringAspect();
+        instrumentation = new QueryCostInstrumentation(performanceMonitor, new ListLimits(100, 500), 10000, 8, 10, 10);
+    }
+
+    private long cost(String query) {
+        return instrumentation.measure(schema, Parser.parse(query), null, CoercedVariables.emptyVariables()).cost();
+    }
+
+    private ExecutionResult execute(QueryCostInstrumentation instrumentation, String query) {
+        return GraphQL.newGraphQL(schema).instrumentation(instrumentation).build().execute(query);
+    }
+
+    @Test
+    void listLimits_MultiplyTheCostOfEachRow() {
+        assertEquals(502, cost("{ allCategories { id name description } allProducts { id name } }"));
+        assertEquals(11, cost("{ allProducts(limit: 5) { id name } }"));
+    }
+
+    @Test
+    void pageSize_IsCountedOnceForThePageContent() {
+        assertEquals(81, cost("{ ordersPaginated(pagination: {size: 20}) { content { id } pageInfo { totalItems } } }"));
+    }
+
+    @Test
+    void pageSize_IsCappedLikeTheResolvers() {
+        // size * 3 overflows an int; the resolver only ever returns 500 rows
+        assertEquals(1 + 500 * 3, cost("{ productsPaginated(pagination: {size: 715827883}) { content { id name } } }"));
+    }
+
+    @Test
+    void hugeCost_SaturatesInsteadOfOverflowing() {
+        QueryCostInstrumentation unbounded = new QueryCostInstrumentation(performanceMonitor,
+                new ListLimits(100, Integer.MAX_VALUE), 10000, 8, Integer.MAX_VALUE, 10);
+
+        ExecutionResult result = execute(unbounded,
+                "query Huge { allOrders(limit: 2147483647) { items { product { id name } } } }");
+
+        assertTrue(result.getErrors().getFirst().getMessage().contains("cost " + Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, performanceMonitor.getGraphQLCosts().get("Huge").get("maxCost"));
+    }
+
+    @Test
+    void cursorPageLimit_MultipliesThePageContent() {
+        // productReviews: 1 + (content: 1 + 20 rows * 2 fields) + nextCursor: 1
+        assertEquals(43, cost("{ productReviews(productId: 1, limit: 20) { content { id rating } nextCursor } }"));
+    }
+
+    @Test
+    void nestedList_IsNotSizedByTheLimitOfTheListAboveIt() {
+        // items: 1 + default list size 10 * 1 field, for each of the 100 orders
+        assertEquals(1 + 100 * (1 + 10), cost("{ allOrders(limit: 100) { items { id } } }"));
+    }
+
+    @Test
+    void paginatedQueryWithoutPagination_UsesTheDefaultPageSize() {
+        assertEquals(1 + 10 * 2, cost("{ ordersPaginated { content { id } } }"));
+    }
+
+    @Test
+    void resolverFields_WeighMoreThanPlainFields() {
+        // items: 1 + default list size 10 * (product: 10 + 2 fields)
+        assertEquals(1 + 10 * (1 + 10 * 12), cost("{ allOrders(limit: 10) { items { product { id name } } } }"));
+    }
+
+    @Test
+    void expensiveOperation_IsRejectedAndRecorded() {
+        ExecutionResult result = execute(instrumentation,
+                "query Dashboard { allOrders(limit: 500) { items { product { id name } } user { id email } } }");
+
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().getFirst().getMessage().contains("exceeds the limit"));
+        assertEquals(1, performanceMonitor.getGraphQLCosts().get("Dashboard").get("rejected"));
+    }
+
+    @Test
+    void operationNames_BeyondTheCapAreCountedTogether() {
+        for (int i = 0; i < PerformanceMonitoringAspect.MAX_GRAPHQL_OPERATIONS + 5; i++) {
+            execute(instrumentation, "query Op" + i + " { allCategories(limit: 1) { id } }");
+        }
+        execute(instrumentation, "query Op0 { allCategories(limit: 1) { id } }");
+
+        assertEquals(PerformanceMonitoringAspect.MAX_GRAPHQL_OPERATIONS + 1, performanceMonitor.getGraphQLCosts().size());
+        assertEquals(2, performanceMonitor.getGraphQLCosts().get("Op0").get("queries"));
+        assertEquals(5, performanceMonitor.getGraphQLCosts().get(PerformanceMonitoringAspect.OTHER_OPERATIONS).get("queries"));
+    }
+
+    @Test
+    void cheapOperation_RunsAndIsRecordedByRootFields() {
+        ExecutionResult result = execute(instrumentation, "{ allProducts { id name } }");
+
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(0, performanceMonitor.getGraphQLCosts().get("allProducts").get("rejected"));
+    }
+
+    @Test
+    void deepOperation_IsRejected() {
+        QueryCostInstrumentation shallow = new QueryCostInstrumentation(performanceMonitor, new ListLimits(100, 500), 10000, 3, 10, 10);
+
+        ExecutionResult result = execute(shallow, "{ allOrders(limit: 1) { items { product { name } } } }");
+
+        assertTrue(result.getErrors().getFirst().getMessage().contains("depth 4"));
+    }
+
+    @Test
+    void introspection_IsFree() {
+        assertEquals(0, cost("{ __schema { types { name fields { name type { name ofType { name } } } } } }"));
+    }
+}
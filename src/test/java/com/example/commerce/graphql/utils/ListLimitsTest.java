@@ -0,0 +1,33 @@
+package com.example.commerce.graphql.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListLimitsTest {
+
+    private final ListLimits listLimits = new ListLimits(100, 500);
+
+    @Test
+    void limit_DefaultsAndCapsTheRequestedSize() {
+        assertEquals(100, listLimits.limit(null));
+        assertEquals(20, listLimits.limit(20));
+        assertEquals(500, listLimits.limit(1_000_000));
+    }
+
+    @Test
+    void limit_RejectsNonPositiveSizes() {
+        assertThrows(IllegalArgumentException.class, () -> listLimits.limit(0));
+    }
+
+    @Test
+    void afterId_StartsFromTheBeginningWhenAbsent() {
+        assertEquals(0L, listLimits.afterId(null));
+        assertEquals(42L, listLimits.afterId(42L));
+    }
+
+    @Test
+    void defaultLimit_NeverExceedsTheCap() {
+        assertEquals(50, new ListLimits(100, 50).limit(null));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.commerce.monitoring;
+
+import java.util.function.Supplier;
+
+/**
+ * Test helper that fails when the wrapped action (typically a MockMvc call or a
+ * service invocation) executes more statements than the given budget.
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    public static void assertMaxQueries(int budget, Runnable action) {
+        assertMaxQueries(budget, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T assertMaxQueries(int budget, Supplier<T> action) {
+        try (QueryCountContext context = QueryCountContext.begin()) {
+            int before = context.getTotalStatements();
+            T result = action.get();
+            int executed = context.getTotalStatements() - before;
+            if (executed > budget) {
+                throw new AssertionError("Expected at most " + budget + " statements but " + executed
+                        + " were executed: " + context.getStatementCounts());
+            }
+            return result;
+        }
+    }
+
+    public static void assertNoRepeatedStatements(Runnable action) {
+        try (QueryCountContext context = QueryCountContext.begin()) {
+            int before = context.getRepeatedStatementCount();
+            action.run();
+            if (context.getRepeatedStatementCount() > before) {
+                throw new AssertionError("Repeated statements detected (possible N+1): " + context.getRepeatedStatements());
+            }
+        }
+    }
+}
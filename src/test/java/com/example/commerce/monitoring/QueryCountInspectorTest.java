@@ -0,0 +1,75 @@
+package com.example.commerce.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCountInspectorTest {
+
+    private QueryCountInspector inspector;
+
+    @BeforeEach
+    void setUp() {
+        inspector = new QueryCountInspector(3);
+    }
+
+    @Test
+    void inspect_WithoutContext_DoesNotCount() {
+        assertEquals("select 1", inspector.inspect("select 1"));
+        assertNull(QueryCountContext.current());
+    }
+
+    @Test
+    void inspect_GroupsStatementsByShape() {
+        try (QueryCountContext context = QueryCountContext.begin()) {
+            inspector.inspect("select * from inventory where product_id = 1");
+            inspector.inspect("select * from inventory where product_id = 2");
+            inspector.inspect("select * from products where id in (?, ?, ?)");
+            inspector.inspect("select * from products where id in (?, ?)");
+
+            assertEquals(4, context.getTotalStatements());
+            assertEquals(2, context.getStatementCounts().size());
+            assertEquals(0, context.getRepeatedStatementCount());
+        }
+        assertNull(QueryCountContext.current());
+    }
+
+    @Test
+    void inspect_FlagsShapeRepeatedAboveThreshold() {
+        try (QueryCountContext context = QueryCountContext.begin()) {
+            for (int i = 0; i < 5; i++) {
+                inspector.inspect("select * from inventory where product_id = ?");
+            }
+
+            assertEquals(1, context.getRepeatedStatementCount());
+        }
+    }
+
+    @Test
+    void assertMaxQueries_FailsWhenBudgetExceeded() {
+        assertThrows(AssertionError.class, () -> QueryBudget.assertMaxQueries(2, () -> {
+            inspector.inspect("select * from orders where id = ?");
+            inspector.inspect("select * from order_items_entity where order_id = ?");
+            inspector.inspect("select * from users where id = ?");
+        }));
+    }
+
+    @Test
+    void assertMaxQueries_JoinsOuterContext() {
+        try (QueryCountContext outer = QueryCountContext.begin()) {
+            QueryBudget.assertMaxQueries(1, () -> inspector.inspect("select * from users where id = ?"));
+
+            assertEquals(1, outer.getTotalStatements());
+        }
+    }
+
+    @Test
+    void assertNoRepeatedStatements_FailsOnNPlusOne() {
+        assertThrows(AssertionError.class, () -> QueryBudget.assertNoRepeatedStatements(() -> {
+            for (int i = 0; i < 4; i++) {
+                inspector.inspect("select * from inventory where product_id = " + i);
+            }
+        }));
+    }
+}
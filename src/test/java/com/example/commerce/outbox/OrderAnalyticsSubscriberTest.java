@@ -0,0 +1,47 @@
+package com.example.commerce.outbox;
+
+import com.example.commerce.enums.OutboxEventType;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderAnalyticsSubscriberTest {
+
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+
+    private static OutboxEvent created(long id, double total, Map<String, Integer> items) {
+        return new OutboxEvent(id, OutboxEventType.ORDER_CREATED, "Order", id,
+                MAPPER.valueToTree(Map.of("totalAmount", total, "items", items)), LocalDateTime.now(), null);
+    }
+
+    @Test
+    void handle_SkipsRedeliveredEvents() {
+        OrderAnalyticsSubscriber analytics = new OrderAnalyticsSubscriber(100);
+        OutboxEvent first = created(1, 10.0, Map.of("7", 2));
+        OutboxEvent second = created(2, 5.0, Map.of("7", 1));
+
+        analytics.handle(List.of(first, second));
+        analytics.handle(List.of(second));
+
+        Map<String, Object> snapshot = analytics.snapshot();
+        assertEquals(2L, snapshot.get("ordersCreated"));
+        assertEquals(15.0, snapshot.get("revenue"));
+        assertEquals(Map.of(7L, 3L), snapshot.get("unitsSoldByProduct"));
+        assertEquals(1L, snapshot.get("duplicatesSkipped"));
+    }
+
+    @Test
+    void handle_ForgetsIdsOlderThanTheWindow() {
+        OrderAnalyticsSubscriber analytics = new OrderAnalyticsSubscriber(1);
+
+        analytics.handle(List.of(created(1, 1.0, Map.of()), created(2, 1.0, Map.of())));
+        analytics.handle(List.of(created(1, 1.0, Map.of())));
+
+        assertEquals(3L, analytics.snapshot().get("ordersCreated"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.commerce.outbox;
+
+import com.example.commerce.entities.OutboxDeliveryFailureEntity;
+import com.example.commerce.entities.OutboxEventEntity;
+import com.example.commerce.enums.OutboxEventType;
+import com.example.commerce.repositories.OutboxDeliveryFailureRepository;
+import com.example.commerce.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository eventRepository;
+    private OutboxDeliveryFailureRepository failureRepository;
+    private RecordingSubscriber healthy;
+    private RecordingSubscriber flaky;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(OutboxEventRepository.class);
+        failureRepository = mock(OutboxDeliveryFailureRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        healthy = new RecordingSubscriber("healthy");
+        flaky = new RecordingSubscriber("flaky");
+        relay = new OutboxRelay(eventRepository, failureRepository, List.of(healthy, flaky), transactionManager,
+                JsonMapper.builder().build(), 200, 20, 7, 1000, 3);
+    }
+
+    private static OutboxEventEntity row(long id) {
+        return new OutboxEventEntity(id, "Order", id, OutboxEventType.ORDER_CREATED, "{}", LocalDateTime.now(), null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_RecordsTheBatchForRetryOnlyForTheSubscriberThatFailed() {
+        when(eventRepository.lockUnpublished(anyInt())).thenReturn(List.of(row(1), row(2)));
+        flaky.failing = true;
+
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L), healthy.received);
+        verify(eventRepository).markPublished(eq(List.of(1L, 2L)), any());
+        ArgumentCaptor<List<OutboxDeliveryFailureEntity>> failures = ArgumentCaptor.forClass(List.class);
+        verify(failureRepository).saveAll(failures.capture());
+        assertEquals(2, failures.getValue().size());
+        assertTrue(failures.getValue().stream().allMatch(failure -> failure.getSubscriber().equals("flaky")
+                && failure.getAttempts() == 1 && failure.getNextAttemptAt().isAfter(LocalDateTime.now())));
+    }
+
+    @Test
+    void retryFailedDeliveries_DeletesDeliveredAndDeadLettersAfterTheLastAttempt() {
+        OutboxDeliveryFailureEntity recovers = new OutboxDeliveryFailureEntity(10L, "healthy", 1L, 1,
+                LocalDateTime.now(), "boom", false);
+        OutboxDeliveryFailureEntity exhausted = new OutboxDeliveryFailureEntity(11L, "flaky", 2L, 2,
+                LocalDateTime.now(), "boom", false);
+        when(failureRepository.lockDue(any(), anyInt())).thenReturn(List.of(recovers, exhausted));
+        when(eventRepository.findAllById(any())).thenReturn(List.of(row(1), row(2)));
+        flaky.failing = true;
+
+        relay.retryFailedDeliveries();
+
+        assertEquals(List.of(1L), healthy.received);
+        verify(failureRepository).deleteAll(List.of(recovers));
+        assertTrue(exhausted.isDeadLettered());
+        assertEquals(3, exhausted.getAttempts());
+    }
+
+    private static class RecordingSubscriber implements OutboxSubscriber {
+
+        private final String name;
+        private final List<Long> received = new ArrayList<>();
+        private boolean failing;
+
+        RecordingSubscriber(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void handle(List<OutboxEvent> events) {
+            if (failing) {
+                throw new IllegalStateException("down");
+            }
+            events.forEach(event -> received.add(event.id()));
+        }
+    }
+}
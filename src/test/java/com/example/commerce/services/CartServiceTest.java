@@ -0,0 +1,146 @@
+package com.example.commerce.services;
+
+import com.example.commerce.dtos.requests.AddToCartDTO;
+import com.example.commerce.dtos.requests.UpdateCartItemDTO;
+import com.example.commerce.dtos.responses.CartResponseDTO;
+import com.example.commerce.entities.CartEntity;
+import com.example.commerce.entities.CartItemEntity;
+import com.example.commerce.entities.ProductEntity;
+import com.example.commerce.entities.UserEntity;
+import com.example.commerce.mappers.CartMapper;
+import com.example.commerce.repositories.CartItemRepository;
+import com.example.commerce.repositories.CartRepository;
+import com.example.commerce.repositories.ProductRepository;
+import com.example.commerce.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CartServiceTest {
+
+    private CartService cartService;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private CartEntity cart;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cartService = new CartService(cartRepository, cartItemRepository, productRepository, userRepository,
+                Mappers.getMapper(CartMapper.class), entityManager);
+
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        cart = new CartEntity();
+        cart.setId(10L);
+        cart.setUser(user);
+        CartItemEntity item = new CartItemEntity();
+        item.setId(100L);
+        item.setCart(cart);
+        item.setProduct(product(5L, 2.0));
+        item.setQuantity(2);
+        cart.getItems().add(item);
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+    }
+
+    private static ProductEntity product(Long id, double price) {
+        ProductEntity product = new ProductEntity();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(price);
+        product.setAvailable(true);
+        return product;
+    }
+
+    private static AddToCartDTO add(Long productId, int quantity) {
+        AddToCartDTO dto = new AddToCartDTO();
+        dto.setProductId(productId);
+        dto.setQuantity(quantity);
+        return dto;
+    }
+
+    private static CartItemRepository.UpsertedItem upserted(Long id, int quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        return new CartItemRepository.UpsertedItem() {
+            public Long getId() { return id; }
+            public Integer getQuantity() { return quantity; }
+            public LocalDateTime getCreatedAt() { return now; }
+            public LocalDateTime getUpdatedAt() { return now; }
+        };
+    }
+
+    @Test
+    void addToCart_ExistingProduct_UpsertsWithoutLookingItUpOrReloading() {
+        when(cartItemRepository.upsertQuantity(10L, 5L, 3)).thenReturn(upserted(100L, 5));
+
+        CartResponseDTO response = cartService.addToCart(1L, add(5L, 3));
+
+        assertEquals(1, response.getItems().size());
+        assertEquals(5, response.getItems().getFirst().getQuantity());
+        assertEquals(10.0, response.getTotalAmount());
+        verify(productRepository, never()).findById(anyLong());
+        verify(cartRepository, never()).findById(anyLong());
+        verify(cartItemRepository, never()).save(any());
+    }
+
+    @Test
+    void addToCart_NewProduct_AddsTheUpsertedLineToTheResponse() {
+        when(productRepository.findById(6L)).thenReturn(Optional.of(product(6L, 4.0)));
+        when(cartItemRepository.upsertQuantity(10L, 6L, 1)).thenReturn(upserted(101L, 1));
+
+        CartResponseDTO response = cartService.addToCart(1L, add(6L, 1));
+
+        assertEquals(2, response.getItems().size());
+        assertEquals(101L, response.getItems().getLast().getId());
+        assertEquals(3, response.getTotalItems());
+        assertEquals(8.0, response.getTotalAmount());
+        verify(entityManager).detach(cart);
+    }
+
+    @Test
+    void addToCart_UnavailableProduct_IsRejectedBeforeWriting() {
+        ProductEntity unavailable = product(6L, 4.0);
+        unavailable.setAvailable(false);
+        when(productRepository.findById(6L)).thenReturn(Optional.of(unavailable));
+
+        assertThrows(IllegalArgumentException.class, () -> cartService.addToCart(1L, add(6L, 1)));
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void updateCartItem_ZeroQuantity_DropsTheLineFromTheLoadedCart() {
+        UpdateCartItemDTO dto = new UpdateCartItemDTO();
+        dto.setQuantity(0);
+
+        CartResponseDTO response = cartService.updateCartItem(1L, 5L, dto);
+
+        assertTrue(response.getItems().isEmpty());
+        assertTrue(cart.getItems().isEmpty());
+        verify(cartRepository, never()).findById(anyLong());
+    }
+}
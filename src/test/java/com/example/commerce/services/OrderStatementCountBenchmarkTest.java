@@ -0,0 +1,130 @@
+package com.example.commerce.services;
+
+import com.example.commerce.dtos.requests.AddOrderDTO;
+import com.example.commerce.dtos.requests.OrderItemDTO;
+import com.example.commerce.entities.CategoryEntity;
+import com.example.commerce.entities.InventoryEntity;
+import com.example.commerce.entities.ProductEntity;
+import com.example.commerce.entities.UserEntity;
+import com.example.commerce.enums.UserRole;
+import com.example.commerce.monitoring.QueryCountContext;
+import com.example.commerce.repositories.CategoryRepository;
+import com.example.commerce.repositories.InventoryRepository;
+import com.example.commerce.repositories.ProductRepository;
+import com.example.commerce.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures statements issued per order against a real database. Runs only when
+ * DATABASE_URL is set and rolls back everything it creates.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfEnvironmentVariable(named = "DATABASE_URL", matches = ".+")
+class OrderStatementCountBenchmarkTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void createOrder_WriteStatementsDoNotGrowWithLineItems() {
+        UserEntity user = createUser();
+        List<ProductEntity> products = createProducts(50);
+        entityManager.flush();
+
+        StatementCount single = measure(user, products.subList(0, 1));
+        StatementCount large = measure(user, products);
+
+        assertEquals(single.writes(), large.writes(), () -> String.format(
+                "Statements per order: 1 line -> %d (%d writes), 50 lines -> %d (%d writes)",
+                single.total(), single.writes(), large.total(), large.writes()));
+    }
+
+    private StatementCount measure(UserEntity user, List<ProductEntity> products) {
+        AddOrderDTO order = new AddOrderDTO();
+        order.setUserId(user.getId());
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (ProductEntity product : products) {
+            OrderItemDTO item = new OrderItemDTO();
+            item.setProductId(product.getId());
+            item.setQuantity(1);
+            items.add(item);
+        }
+        order.setItems(items);
+
+        try (QueryCountContext context = QueryCountContext.begin()) {
+            orderService.createOrder(order);
+            entityManager.flush();
+            int writes = context.getStatementCounts().entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith("insert") || entry.getKey().startsWith("update"))
+                    .mapToInt(entry -> entry.getValue())
+                    .sum();
+            return new StatementCount(context.getTotalStatements(), writes);
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private UserEntity createUser() {
+        UserEntity user = new UserEntity();
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setEmail("bench-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("not-used");
+        user.setRole(UserRole.CUSTOMER);
+        return userRepository.save(user);
+    }
+
+    private List<ProductEntity> createProducts(int count) {
+        String suffix = UUID.randomUUID().toString();
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Benchmark " + suffix);
+        category.setDescription("Statement count benchmark");
+        categoryRepository.save(category);
+
+        List<ProductEntity> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ProductEntity product = new ProductEntity();
+            product.setName("Benchmark product " + i + " " + suffix);
+            product.setCategory(category);
+            product.setSku("BENCH-" + i);
+            product.setPrice(10.0);
+            products.add(productRepository.save(product));
+
+            InventoryEntity inventory = new InventoryEntity();
+            inventory.setProduct(product);
+            inventory.setQuantity(1000);
+            inventory.setLocation("Benchmark");
+            inventoryRepository.save(inventory);
+        }
+        return products;
+    }
+
+    private record StatementCount(int total, int writes) {}
+}
@@ -0,0 +1,104 @@
+package com.example.commerce.services;
+
+import com.example.commerce.dtos.responses.PagedResponse;
+import com.example.commerce.dtos.responses.ProductResponseDTO;
+import com.example.commerce.entities.CategoryEntity;
+import com.example.commerce.entities.InventoryEntity;
+import com.example.commerce.entities.ProductEntity;
+import com.example.commerce.repositories.CategoryRepository;
+import com.example.commerce.repositories.InventoryRepository;
+import com.example.commerce.repositories.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.commerce.monitoring.QueryBudget.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that projected product pages cost the same two statements whatever fields are selected.
+ * Runs only when DATABASE_URL is set and rolls back everything it creates.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfEnvironmentVariable(named = "DATABASE_URL", matches = ".+")
+class ProductProjectionStatementCountTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void getProductsProjected_ReadsOnlyTheSelectedFields() {
+        String suffix = createProducts(30);
+
+        PagedResponse<ProductResponseDTO> page = assertMaxQueries(2, () -> productService.getProductsProjected(
+                Set.of("id", "name"), null, suffix, PageRequest.of(0, 20, Sort.by("id"))));
+
+        assertEquals(20, page.content().size());
+        assertEquals(30, page.totalItems());
+        ProductResponseDTO first = page.content().getFirst();
+        assertNotNull(first.getName());
+        assertNull(first.getSku());
+        assertNull(first.getQuantity());
+        assertNull(first.getCategoryName());
+    }
+
+    @Test
+    void getProductsProjected_JoinsCategoryAndInventoryOnlyWhenSelected() {
+        String suffix = createProducts(30);
+
+        PagedResponse<ProductResponseDTO> page = assertMaxQueries(2, () -> productService.getProductsProjected(
+                Set.of("id", "quantity", "categoryName"), null, suffix, PageRequest.of(0, 20, Sort.by("id"))));
+
+        ProductResponseDTO first = page.content().getFirst();
+        assertEquals(7, first.getQuantity());
+        assertEquals("Projection " + suffix, first.getCategoryName());
+        assertNull(first.getName());
+    }
+
+    private String createProducts(int count) {
+        String suffix = UUID.randomUUID().toString();
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Projection " + suffix);
+        category.setDescription("Projection statement count");
+        categoryRepository.save(category);
+
+        for (int i = 0; i < count; i++) {
+            ProductEntity product = new ProductEntity();
+            product.setName("Projected product " + i + " " + suffix);
+            product.setCategory(category);
+            product.setSku("PROJ-" + i);
+            product.setPrice(10.0);
+            productRepository.save(product);
+
+            InventoryEntity inventory = new InventoryEntity();
+            inventory.setProduct(product);
+            inventory.setQuantity(7);
+            inventory.setLocation("Projection");
+            inventoryRepository.save(inventory);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return suffix;
+    }
+}
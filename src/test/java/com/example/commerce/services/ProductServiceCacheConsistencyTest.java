@@ -0,0 +1,257 @@
+package com.example.commerce.services;
+
+import com.example.commerce.cache.CacheEvictor;
+import com.example.commerce.cache.CatalogVersion;
+import com.example.commerce.cache.ProductCacheInvalidator;
+import com.example.commerce.dtos.requests.UpdateProductDTO;
+import com.example.commerce.dtos.responses.ProductResponseDTO;
+import com.example.commerce.entities.CategoryEntity;
+import com.example.commerce.entities.InventoryEntity;
+import com.example.commerce.entities.ProductEntity;
+import com.example.commerce.mappers.ProductMapper;
+import com.example.commerce.repositories.CategoryRepository;
+import com.example.commerce.repositories.InventoryRepository;
+import com.example.commerce.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Example;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the cached {@link ProductService} against an in-memory "database" and checks that what
+ * comes out of the product caches matches what was last written.
+ */
+class ProductServiceCacheConsistencyTest {
+
+    private static final int WRITERS = 8;
+    private static final int ROUNDS = 200;
+
+    private final Map<Long, ProductEntity> productRows = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> stockRows = new ConcurrentHashMap<>();
+    private final CategoryEntity category = new CategoryEntity();
+
+    private AnnotationConfigApplicationContext context;
+    private ProductService productService;
+    private ProductCacheInvalidator invalidator;
+    private CacheManager cacheManager;
+
+    @Configuration
+    @EnableCaching(proxyTargetClass = true)
+    static class CachingConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("allProducts", "allProductsList", "productById", "productByName");
+        }
+
+        @Bean
+        CacheEvictor cacheEvictor(CacheManager cacheManager) {
+            return new CacheEvictor(cacheManager);
+        }
+
+        @Bean
+        ProductCacheInvalidator productCacheInvalidator(CacheEvictor cacheEvictor, ProductRepository productRepository) {
+            return new ProductCacheInvalidator(cacheEvictor, productRepository, mock(CatalogVersion.class));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        category.setId(1L);
+        category.setName("Tools");
+        for (long id = 1; id <= WRITERS; id++) {
+            productRows.put(id, new ProductEntity(id, "product-" + id, category, "SKU-" + id, 10.0, true, null, null));
+            stockRows.put(id, 100);
+        }
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+        when(productRepository.findById(anyLong()))
+                .thenAnswer(call -> Optional.ofNullable(productRows.get(call.<Long>getArgument(0))).map(this::copy));
+        when(productRepository.save(any(ProductEntity.class))).thenAnswer(call -> {
+            ProductEntity saved = copy(call.getArgument(0));
+            productRows.put(saved.getId(), saved);
+            return copy(saved);
+        });
+        when(productRepository.existsByNameIgnoreCase(anyString())).thenReturn(false);
+        when(productRepository.findAll()).thenAnswer(call -> productRows.values().stream().map(this::copy).toList());
+        when(productRepository.findOne(any())).thenAnswer(call -> {
+            String name = call.<Example<ProductEntity>>getArgument(0).getProbe().getName();
+            return productRows.values().stream().filter(row -> row.getName().equals(name)).findFirst().map(this::copy);
+        });
+        when(productRepository.findNamesByIdIn(anyCollection())).thenAnswer(call -> call.<Collection<Long>>getArgument(0)
+                .stream().map(productRows::get).map(ProductEntity::getName).toList());
+        when(inventoryRepository.findByProductId(anyLong())).thenAnswer(call -> {
+            Long productId = call.getArgument(0);
+            Integer quantity = stockRows.get(productId);
+            return quantity == null ? Optional.empty()
+                    : Optional.of(new InventoryEntity(productId, productRows.get(productId), quantity, "A1"));
+        });
+
+        context = new AnnotationConfigApplicationContext();
+        context.register(CachingConfig.class);
+        context.registerBean(ProductRepository.class, () -> productRepository);
+        context.registerBean(ProductService.class, () -> new ProductService(productRepository,
+                Mappers.getMapper(ProductMapper.class), mock(CategoryRepository.class), inventoryRepository,
+                context.getBean(ProductCacheInvalidator.class)));
+        context.refresh();
+
+        productService = context.getBean(ProductService.class);
+        invalidator = context.getBean(ProductCacheInvalidator.class);
+        cacheManager = context.getBean(CacheManager.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        context.close();
+    }
+
+    @Test
+    void concurrentWritersAlwaysReadBackTheirOwnLatestWrite() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (long id = 1; id <= WRITERS; id++) {
+            long productId = id;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int round = 1; round <= ROUNDS; round++) {
+                    // Warm the cache so every write has something to invalidate
+                    productService.getProductById(productId);
+
+                    String name = "product-" + productId + "-v" + round;
+                    UpdateProductDTO update = new UpdateProductDTO();
+                    update.setName(name);
+                    update.setPrice((double) round);
+                    productService.updateProduct(productId, update);
+
+                    ProductResponseDTO byId = productService.getProductById(productId);
+                    assertEquals((double) round, byId.getPrice());
+                    assertEquals(name, byId.getName());
+                    assertEquals((double) round, productService.getProductByName(name).getPrice());
+
+                    // An order or inventory adjustment moves stock outside ProductService
+                    stockRows.put(productId, round);
+                    invalidator.stockChanged(List.of(productId));
+                    assertEquals(round, productService.getProductById(productId).getQuantity());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<ProductResponseDTO> listed = productService.getAllProductsList();
+        assertEquals(WRITERS, listed.size());
+        for (ProductResponseDTO product : listed) {
+            assertEquals((double) ROUNDS, product.getPrice());
+            assertEquals(ROUNDS, product.getQuantity());
+        }
+    }
+
+    @Test
+    void updateProduct_EvictsOldNameAndListings() {
+        productService.getProductByName("product-1");
+        productService.getAllProductsList();
+
+        UpdateProductDTO update = new UpdateProductDTO();
+        update.setName("renamed");
+        productService.updateProduct(1L, update);
+
+        assertNull(cacheManager.getCache("productByName").get("product-1"));
+        assertNull(cacheManager.getCache("allProductsList").get(SimpleKey.EMPTY));
+        assertEquals("renamed", productService.getAllProductsList().stream()
+                .filter(product -> product.getId() == 1L).findFirst().orElseThrow().getName());
+    }
+
+    @Test
+    void stockChanged_EvictsOnlyTheProductAndRefreshesListingsLater() {
+        productService.getProductByName("product-1");
+        productService.getProductByName("product-2");
+        productService.getAllProductsList();
+
+        stockRows.put(1L, 7);
+        invalidator.stockChanged(List.of(1L));
+
+        assertNull(cacheManager.getCache("productByName").get("product-1"));
+        assertNotNull(cacheManager.getCache("productByName").get("product-2"));
+        assertNotNull(cacheManager.getCache("allProductsList").get(SimpleKey.EMPTY));
+        assertEquals(7, productService.getProductById(1L).getQuantity());
+
+        invalidator.refreshListingsForStock();
+
+        assertEquals(7, productService.getAllProductsList().stream()
+                .filter(product -> product.getId() == 1L).findFirst().orElseThrow().getQuantity());
+    }
+
+    @Test
+    void stockChanged_EvictsOnlyAfterCommit() {
+        assertEquals(100, productService.getProductById(1L).getQuantity());
+
+        TransactionSynchronizationManager.initSynchronization();
+        stockRows.put(1L, 7);
+        invalidator.stockChanged(List.of(1L));
+        // Not committed yet, so readers keep getting the committed value from the cache
+        assertEquals(100, productService.getProductById(1L).getQuantity());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(7, productService.getProductById(1L).getQuantity());
+    }
+
+    @Test
+    void stockChanged_KeepsEntriesWhenTransactionRollsBack() {
+        productService.getProductById(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        invalidator.stockChanged(List.of(1L));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertNotNull(cacheManager.getCache("productById").get(1L));
+    }
+
+    private ProductEntity copy(ProductEntity row) {
+        return new ProductEntity(row.getId(), row.getName(), row.getCategory(), row.getSku(), row.getPrice(),
+                row.isAvailable(), row.getCreatedAt(), row.getUpdatedAt());
+    }
+}
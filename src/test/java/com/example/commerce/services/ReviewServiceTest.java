@@ -0,0 +1,176 @@
+package com.example.commerce.services;
+
+import com.example.commerce.dtos.ProductReviewStats;
+import com.example.commerce.dtos.ReviewPage;
+import com.example.commerce.dtos.ReviewResponseDTO;
+import com.example.commerce.entities.ProductEntity;
+import com.example.commerce.entities.ProductReviewStatsEntity;
+import com.example.commerce.entities.ReviewEntity;
+import com.example.commerce.entities.UserEntity;
+import com.example.commerce.mappers.ReviewMapper;
+import com.example.commerce.repositories.ProductRepository;
+import com.example.commerce.repositories.ProductReviewStatsRepository;
+import com.example.commerce.repositories.ReviewRepository;
+import com.example.commerce.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReviewServiceTest {
+
+    private ReviewService reviewService;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private ProductReviewStatsRepository reviewStatsRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ReviewMapper reviewMapper;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reviewService = new ReviewService(reviewRepository, reviewStatsRepository, productRepository,
+                userRepository, reviewMapper);
+    }
+
+    private ReviewEntity review(Long id, Long productId, int rating) {
+        ProductEntity product = new ProductEntity();
+        product.setId(productId);
+        ReviewEntity review = new ReviewEntity();
+        review.setId(id);
+        review.setProduct(product);
+        review.setRating(rating);
+        return review;
+    }
+
+    @Test
+    void createReview_AddsTheRatingToTheProductStats() {
+        ProductEntity product = new ProductEntity();
+        product.setId(7L);
+        when(productRepository.findById(7L)).thenReturn(Optional.of(product));
+        when(userRepository.findById(3L)).thenReturn(Optional.of(new UserEntity()));
+        when(reviewRepository.save(any(ReviewEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        reviewService.createReview(7L, 3L, 4, "Good");
+
+        verify(reviewStatsRepository).addRating(7L, 4, 1);
+    }
+
+    @Test
+    void updateReview_MovesTheRatingBetweenStars() {
+        ReviewEntity review = review(1L, 7L, 2);
+        when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(review));
+        when(reviewRepository.save(review)).thenReturn(review);
+
+        reviewService.updateReview(1L, 5, null);
+
+        verify(reviewStatsRepository).addRating(7L, 2, -1);
+        verify(reviewStatsRepository).addRating(7L, 5, 1);
+        assertEquals(5, review.getRating());
+    }
+
+    @Test
+    void updateReview_CommentOnlyLeavesStatsAlone() {
+        ReviewEntity review = review(1L, 7L, 3);
+        when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(review));
+        when(reviewRepository.save(review)).thenReturn(review);
+
+        reviewService.updateReview(1L, 3, "Edited");
+
+        verify(reviewStatsRepository, never()).addRating(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void deleteReview_RemovesTheRatingFromTheProductStats() {
+        ReviewEntity review = review(1L, 7L, 4);
+        when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(review));
+
+        assertTrue(reviewService.deleteReview(1L));
+
+        verify(reviewRepository).delete(review);
+        verify(reviewStatsRepository).addRating(7L, 4, -1);
+    }
+
+    @Test
+    void getProductReviewStats_FillsEveryRequestedProductFromOneLookup() {
+        when(reviewStatsRepository.findAllById(List.of(7L, 8L)))
+                .thenReturn(List.of(new ProductReviewStatsEntity(7L, 13, 3, 0, 0, 1, 1, 1)));
+
+        Map<Long, ProductReviewStats> stats = reviewService.getProductReviewStats(List.of(7L, 8L));
+
+        assertEquals(13.0 / 3, stats.get(7L).getAverageRating(), 1e-9);
+        assertEquals(3L, stats.get(7L).getTotalReviews());
+        assertEquals(List.of(0L, 0L, 1L, 1L, 1L), stats.get(7L).getRatingCounts());
+        assertEquals(0.0, stats.get(8L).getAverageRating());
+        assertEquals(0L, stats.get(8L).getTotalReviews());
+        verify(reviewRepository, never()).findByProductId(anyLong());
+    }
+
+    @Test
+    void repairReviewStats_RecountsAfterLockingTheProductRow() {
+        reviewService.repairReviewStats(7L);
+
+        InOrder order = inOrder(reviewStatsRepository);
+        order.verify(reviewStatsRepository).insertEmptyIfMissing(7L);
+        order.verify(reviewStatsRepository).lockByProductId(7L);
+        order.verify(reviewStatsRepository).recomputeFromReviews(7L);
+    }
+
+    private ReviewResponseDTO row(Long id, LocalDateTime createdAt) {
+        ReviewResponseDTO dto = new ReviewResponseDTO();
+        dto.setId(id);
+        dto.setCreatedAt(createdAt);
+        return dto;
+    }
+
+    @Test
+    void getProductReviewsPage_ReturnsACursorThatContinuesAfterTheLastRow() {
+        LocalDateTime newest = LocalDateTime.of(2025, 5, 1, 12, 0, 0, 123456000);
+        when(reviewRepository.findPageByProductId(eq(7L), eq(1), eq(5), any(), eq(Long.MAX_VALUE), eq(Limit.of(3))))
+                .thenReturn(List.of(row(30L, newest), row(29L, newest.minusDays(1)), row(28L, newest.minusDays(2))));
+
+        ReviewPage first = reviewService.getProductReviewsPage(7L, null, 2, null, null);
+
+        assertEquals(List.of(30L, 29L), first.content().stream().map(ReviewResponseDTO::getId).toList());
+        assertNotNull(first.nextCursor());
+
+        when(reviewRepository.findPageByProductId(7L, 4, 5, newest.minusDays(1), 29L, Limit.of(3)))
+                .thenReturn(List.of(row(28L, newest.minusDays(2))));
+
+        ReviewPage second = reviewService.getProductReviewsPage(7L, first.nextCursor(), 2, 4, null);
+
+        assertEquals(1, second.content().size());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void getProductReviewsPage_RejectsBadFiltersAndCursors() {
+        assertThrows(IllegalArgumentException.class, () -> reviewService.getProductReviewsPage(7L, null, 10, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> reviewService.getProductReviewsPage(7L, null, 10, 4, 2));
+        assertThrows(IllegalArgumentException.class, () -> reviewService.getProductReviewsPage(7L, "not-a-cursor", 10, null, null));
+    }
+}
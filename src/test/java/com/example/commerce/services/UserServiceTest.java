@@ -1,6 +1,8 @@
 package com.example.commerce.services;
 
+import com.example.commerce.cache.CacheEvictor;
 import com.example.commerce.dtos.requests.LoginDTO;
+import com.example.commerce.dtos.requests.UpdateUserDTO;
 import com.example.commerce.dtos.responses.LoginResponseDTO;
 import com.example.commerce.entities.UserEntity;
 import com.example.commerce.mappers.UserMapper;
@@ -11,6 +13,8 @@ import org.junit.jupiter.api.Test;
 import org.mindrot.jbcrypt.BCrypt;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
 import java.util.Optional;
 
@@ -22,6 +26,8 @@ class UserServiceTest {
 
     private UserService userService;
 
+    private ConcurrentMapCacheManager cacheManager;
+
     @Mock
     private UserRepository userRepository;
 
@@ -31,7 +37,8 @@ class UserServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        userService = new UserService(userRepository, userMapper);
+        cacheManager = new ConcurrentMapCacheManager("userById", "userByEmail");
+        userService = new UserService(userRepository, userMapper, new CacheEvictor(cacheManager));
     }
 
     @Test
@@ -104,4 +111,36 @@ class UserServiceTest {
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> userService.loginUser(loginDTO));
     }
+
+    @Test
+    void updateUser_EvictsOnlyTheUpdatedUsersKeys() {
+        // Arrange
+        UserEntity userEntity = new UserEntity();
+        userEntity.setId(1L);
+        userEntity.setEmail("old@example.com");
+
+        Cache byId = cacheManager.getCache("userById");
+        Cache byEmail = cacheManager.getCache("userByEmail");
+        byId.put(1L, "user-1");
+        byId.put(2L, "user-2");
+        byEmail.put("old@example.com", "user-1");
+        byEmail.put("new@example.com", "stale");
+        byEmail.put("other@example.com", "user-2");
+
+        UpdateUserDTO updateUserDTO = new UpdateUserDTO();
+        updateUserDTO.setEmail("new@example.com");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userEntity));
+        when(userRepository.save(userEntity)).thenReturn(userEntity);
+
+        // Act
+        userService.updateUser(1L, updateUserDTO);
+
+        // Assert
+        assertNull(byId.get(1L));
+        assertNull(byEmail.get("old@example.com"));
+        assertNull(byEmail.get("new@example.com"));
+        assertNotNull(byId.get(2L));
+        assertNotNull(byEmail.get("other@example.com"));
+    }
 }
@@ -0,0 +1,50 @@
+package com.example.commerce.utils.export;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportWriterTest {
+
+    record Row(Long id, String name) {}
+
+    private String export(ExportFormat format, Row... rows) throws Exception {
+        LinkedHashMap<String, Function<Row, Object>> columns = new LinkedHashMap<>();
+        columns.put("id", Row::id);
+        columns.put("name", Row::name);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportWriter<Row> writer = new ExportWriter<>(format, out, JsonMapper.builder().build(), columns);
+        for (Row row : rows) {
+            writer.write(row);
+        }
+        writer.flush();
+        assertEquals(rows.length, writer.getRows());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void ndjson_WritesOneObjectPerLine() throws Exception {
+        String output = export(ExportFormat.NDJSON, new Row(1L, "Desk"), new Row(2L, "Lamp"));
+
+        assertEquals("{\"id\":1,\"name\":\"Desk\"}\n{\"id\":2,\"name\":\"Lamp\"}\n", output);
+    }
+
+    @Test
+    void csv_WritesHeaderAndEscapesValues() throws Exception {
+        String output = export(ExportFormat.CSV, new Row(1L, "Desk, oak"), new Row(2L, "12\" \"Lamp\""), new Row(3L, null));
+
+        assertEquals("id,name\r\n1,\"Desk, oak\"\r\n2,\"12\"\" \"\"Lamp\"\"\"\r\n3,\r\n", output);
+    }
+
+    @Test
+    void from_RejectsUnknownFormats() {
+        assertEquals(ExportFormat.CSV, ExportFormat.from("csv"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.from("xml"));
+    }
+}
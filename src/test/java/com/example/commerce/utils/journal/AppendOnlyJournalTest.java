@@ -0,0 +1,168 @@
+package com.example.commerce.utils.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendOnlyJournalTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path directory;
+
+    record Payload(String name, int quantity) {}
+
+    private AppendOnlyJournal<Payload> journal(Path file) {
+        return new AppendOnlyJournal<>(file, objectMapper, Payload.class, false, 1_000);
+    }
+
+    @Test
+    void open_ReturnsAcceptedButNotCompletedEntriesInOrder() throws IOException {
+        Path file = directory.resolve("orders.journal");
+        try (AppendOnlyJournal<Payload> journal = journal(file)) {
+            assertTrue(journal.open().isEmpty());
+            journal.append("a", new Payload("first", 1));
+            journal.append("b", new Payload("second", 2));
+            journal.append("c", new Payload("third", 3));
+            journal.complete("b");
+        }
+
+        try (AppendOnlyJournal<Payload> reopened = journal(file)) {
+            List<Payload> pending = reopened.open();
+            assertEquals(List.of(new Payload("first", 1), new Payload("third", 3)), pending);
+            assertEquals(2, reopened.pendingCount());
+        }
+    }
+
+    @Test
+    void open_DiscardsTornTailRecord() throws IOException {
+        Path file = directory.resolve("orders.journal");
+        try (AppendOnlyJournal<Payload> journal = journal(file)) {
+            journal.open();
+            journal.append("a", new Payload("first", 1));
+        }
+        Files.writeString(file, "{\"op\":\"A\",\"key\":\"b\",\"payl", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (AppendOnlyJournal<Payload> reopened = journal(file)) {
+            assertEquals(List.of(new Payload("first", 1)), reopened.open());
+        }
+    }
+
+    @Test
+    void open_KeepsRecordsAfterATornLineInTheMiddle() throws IOException {
+        Path file = directory.resolve("orders.journal");
+        Files.writeString(file, String.join("\n",
+                "{\"op\":\"A\",\"key\":\"a\",\"payload\":{\"name\":\"first\",\"quantity\":1}}",
+                "{\"op\":\"A\",\"key\":\"b\",\"pay{\"op\":\"A\",\"key\":\"c\",\"payload\":{\"name\":\"third\",\"quantity\":3}}",
+                "not json",
+                "{\"op\":\"A\",\"key\":\"d\",\"payload\":{\"name\":\"fourth\",\"quantity\":4}}",
+                ""), StandardCharsets.UTF_8);
+        String original = Files.readString(file);
+
+        try (AppendOnlyJournal<Payload> reopened = journal(file)) {
+            assertEquals(List.of(new Payload("first", 1), new Payload("third", 3), new Payload("fourth", 4)),
+                    reopened.open());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            Path copy = files.filter(path -> path.getFileName().toString().startsWith("orders.journal.unreadable-"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(original, Files.readString(copy));
+        }
+    }
+
+    @Test
+    void complete_CompactsFileOnceThresholdIsReached() throws IOException {
+        Path file = directory.resolve("orders.journal");
+        try (AppendOnlyJournal<Payload> journal = new AppendOnlyJournal<>(file, objectMapper, Payload.class, false, 2)) {
+            journal.open();
+            journal.append("a", new Payload("first", 1));
+            journal.append("b", new Payload("second", 2));
+            journal.append("c", new Payload("third", 3));
+            journal.complete(List.of("a", "b"));
+
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).contains("\"key\":\"c\""));
+        }
+    }
+
+    @Test
+    void append_WritersQueuedBehindAForceShareTheNextOne() throws Exception {
+        Path file = directory.resolve("orders.journal");
+        int writers = 8;
+        CountDownLatch forcing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        try (AppendOnlyJournal<Payload> journal = new AppendOnlyJournal<>(file, objectMapper, Payload.class, true, 1_000) {
+            @Override
+            void force(FileChannel target) throws IOException {
+                if (first.getAndSet(false)) {
+                    forcing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.force(target);
+            }
+        }) {
+            journal.open();
+            List<Throwable> failures = new CopyOnWriteArrayList<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int id = writer;
+                threads.add(new Thread(() -> {
+                    try {
+                        journal.append(String.valueOf(id), new Payload("w" + id, id));
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }));
+            }
+            threads.get(0).start();
+            assertTrue(forcing.await(10, TimeUnit.SECONDS));
+            List<Thread> queued = threads.subList(1, writers);
+            queued.forEach(Thread::start);
+
+            // Every queued writer has written its record and is waiting for the force in progress
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (Files.readAllLines(file).size() < writers
+                    || !queued.stream().allMatch(thread -> thread.getState() == Thread.State.BLOCKED)) {
+                assertTrue(System.nanoTime() < deadline, "Writers did not queue behind the force");
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Thread thread : threads) {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            }
+
+            assertTrue(failures.isEmpty(), failures::toString);
+            // The held force covered the first record, one more covered all seven queued behind it
+            assertEquals(2, journal.forceCount());
+        }
+
+        try (AppendOnlyJournal<Payload> reopened = journal(file)) {
+            assertEquals(writers, reopened.open().size());
+        }
+    }
+}